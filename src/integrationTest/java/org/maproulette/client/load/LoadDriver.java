@@ -0,0 +1,340 @@
+package org.maproulette.client.load;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.StubServer;
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.api.TaskAPI;
+import org.maproulette.client.batch.BatchUploader;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.PointInformation;
+import org.maproulette.client.model.Project;
+import org.maproulette.client.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import lombok.Getter;
+
+/**
+ * Runs operations against a MapRoulette server from a number of threads and measures the
+ * throughput, the latency percentiles and the allocation rate. The allocation rate only covers the
+ * driver threads, which run the serialization and the requests, not the client's own background
+ * threads. The {@link #main(String[])} method runs all the scenarios against an embedded
+ * {@link StubServer}, the load is configured with system properties:
+ * <ul>
+ * <li>load.threads - The number of concurrent threads (Default: 4)</li>
+ * <li>load.iterations - The number of operations per thread (Default: 50)</li>
+ * <li>load.batchSize - The number of tasks uploaded per batch operation (Default: 500)</li>
+ * <li>load.latency - The stub server latency in milliseconds (Default: 0)</li>
+ * <li>load.errorRate - The fraction of stub server requests that fail (Default: 0)</li>
+ * <li>load.maxRequestsPerSecond - The stub server throughput cap (Default: 0, no cap)</li>
+ * </ul>
+ *
+ * @author mcuthbert
+ */
+public class LoadDriver
+{
+    /**
+     * A single operation, run once per iteration of every thread
+     */
+    @FunctionalInterface
+    public interface Operation
+    {
+        /**
+         * @param worker
+         *            The index of the thread running the operation
+         * @param iteration
+         *            The iteration of the thread
+         * @return The number of tasks, or objects, the operation processed
+         * @throws Exception
+         *             if the operation fails, which is counted as a failure
+         */
+        int run(int worker, int iteration) throws Exception;
+    }
+
+    /**
+     * The measurements of a single scenario
+     */
+    @Getter
+    public static class Result
+    {
+        private static final double PERCENTILE_50 = 0.5;
+        private static final double PERCENTILE_99 = 0.99;
+        private static final double NANOSECONDS_PER_MILLISECOND = 1_000_000.0;
+        private static final double MILLISECONDS_PER_SECOND = 1000.0;
+        private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+        private final String name;
+        private final int operations;
+        private final int failures;
+        private final long tasks;
+        private final long duration;
+        private final double latency50;
+        private final double latency99;
+        private final long allocatedBytes;
+
+        Result(final String name, final long[] latencies, final int failures, final long tasks,
+                final long duration, final long allocatedBytes)
+        {
+            Arrays.sort(latencies);
+            this.name = name;
+            this.operations = latencies.length;
+            this.failures = failures;
+            this.tasks = tasks;
+            this.duration = duration;
+            this.latency50 = percentile(latencies, PERCENTILE_50);
+            this.latency99 = percentile(latencies, PERCENTILE_99);
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * @return The bytes allocated per second by the driver threads, or -1 if the JVM doesn't
+         *         measure thread allocations
+         */
+        public double getAllocationRate()
+        {
+            return this.allocatedBytes < 0 ? -1
+                    : this.allocatedBytes * MILLISECONDS_PER_SECOND / Math.max(1, this.duration);
+        }
+
+        public double getTasksPerSecond()
+        {
+            return this.tasks * MILLISECONDS_PER_SECOND / Math.max(1, this.duration);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(
+                    "%s: %d operations (%d failed) in %d ms, %.1f tasks/s, p50 %.2f ms, "
+                            + "p99 %.2f ms, %.1f MB/s allocated",
+                    this.name, this.operations, this.failures, this.duration,
+                    this.getTasksPerSecond(), this.latency50, this.latency99,
+                    this.getAllocationRate() / BYTES_PER_MEGABYTE);
+        }
+
+        private static double percentile(final long[] sorted, final double percentile)
+        {
+            return sorted.length == 0 ? 0
+                    : sorted[(int) Math.ceil(percentile * sorted.length) - 1]
+                            / NANOSECONDS_PER_MILLISECOND;
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadDriver.class);
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_ITERATIONS = 50;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int FIND_LIMIT = 10;
+    private static final double COORDINATE_STEP = 0.0001;
+
+    private final int threads;
+    private final int iterations;
+
+    public static void main(final String[] args) throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            server.setLatency(Long.getLong("load.latency", 0L));
+            server.setErrorRate(Double.parseDouble(System.getProperty("load.errorRate", "0")));
+            server.setMaxRequestsPerSecond(Integer.getInteger("load.maxRequestsPerSecond", 0));
+            final var driver = new LoadDriver(Integer.getInteger("load.threads", DEFAULT_THREADS),
+                    Integer.getInteger("load.iterations", DEFAULT_ITERATIONS));
+            final var results = driver.runAll(server.configuration(),
+                    Integer.getInteger("load.batchSize", DEFAULT_BATCH_SIZE));
+            results.forEach(result -> LOG.info("{}", result));
+            LOG.info("Stub server answered {} requests, {} failed and {} throttled",
+                    server.getRequestCount(), server.getFailureCount(),
+                    server.getThrottledCount());
+        }
+    }
+
+    /**
+     * @param threads
+     *            The number of threads running the operations concurrently
+     * @param iterations
+     *            The number of times each thread runs the operation
+     */
+    public LoadDriver(final int threads, final int iterations)
+    {
+        this.threads = threads;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Runs an operation from all the threads and measures it
+     *
+     * @param name
+     *            The name of the scenario
+     * @param operation
+     *            The operation to run
+     * @return The measurements of the run
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for the operations
+     */
+    public Result run(final String name, final Operation operation) throws InterruptedException
+    {
+        final var latencies = new long[this.threads * this.iterations];
+        final var executor = Executors.newFixedThreadPool(this.threads);
+        try
+        {
+            final var workers = new ArrayList<Future<long[]>>();
+            final var start = System.nanoTime();
+            for (int worker = 0; worker < this.threads; worker++)
+            {
+                final var index = worker;
+                workers.add(executor.submit(() -> this.work(index, operation, latencies)));
+            }
+            var failures = 0;
+            var tasks = 0L;
+            var allocated = 0L;
+            for (final var worker : workers)
+            {
+                // failures, tasks and allocated bytes of the worker
+                final var counts = worker.get();
+                failures += counts[0];
+                tasks += counts[1];
+                allocated = allocated < 0 || counts[2] < 0 ? -1 : allocated + counts[2];
+            }
+            return new Result(name, latencies, failures, tasks,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), allocated);
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the batch upload and the API scenarios against a server
+     *
+     * @param configuration
+     *            The configuration of the server
+     * @param batchSize
+     *            The number of tasks uploaded by each batch upload operation
+     * @return The measurements of every scenario
+     * @throws MapRouletteException
+     *             if the project and challenge used by the scenarios can't be created
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for the operations
+     */
+    public List<Result> runAll(final MapRouletteConfiguration configuration, final int batchSize)
+            throws MapRouletteException, InterruptedException
+    {
+        final var projectAPI = new ProjectAPI(configuration);
+        final var challengeAPI = new ChallengeAPI(configuration);
+        final var taskAPI = new TaskAPI(configuration);
+        final var project = projectAPI.create(
+                Project.builder().name("Load Project").description("Load").enabled(true).build());
+        final var challenge = challengeAPI.create(Challenge.builder().parent(project.getId())
+                .name("Load Challenge").instruction("Load").build());
+
+        final var results = new ArrayList<Result>();
+        results.add(this.batchUpload(configuration, project.getId(), batchSize));
+        results.add(this.run("TaskAPI.create", (worker, iteration) ->
+        {
+            taskAPI.create(task(challenge.getId(), "Create", worker, iteration));
+            return 1;
+        }));
+        results.add(this.run("ChallengeAPI.get", (worker, iteration) ->
+                challengeAPI.get(challenge.getId()).isPresent() ? 1 : 0));
+        results.add(this.run("ProjectAPI.find",
+                (worker, iteration) -> projectAPI.find("Load", -1, FIND_LIMIT, 0).size()));
+        return results;
+    }
+
+    /**
+     * Uploads batches of tasks, each thread with its own {@link BatchUploader} and challenge
+     *
+     * @param configuration
+     *            The configuration of the server
+     * @param projectId
+     *            The project the challenges are created in
+     * @param batchSize
+     *            The number of tasks added and flushed by each operation
+     * @return The measurements of the run
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for the operations
+     */
+    public Result batchUpload(final MapRouletteConfiguration configuration, final long projectId,
+            final int batchSize) throws InterruptedException
+    {
+        final var uploaders = new BatchUploader[this.threads];
+        for (int worker = 0; worker < this.threads; worker++)
+        {
+            uploaders[worker] = new BatchUploader(configuration);
+        }
+        return this.run("BatchUploader", (worker, iteration) ->
+        {
+            final var challenge = Challenge.builder().parent(projectId)
+                    .name("Load Batch " + worker).instruction("Load").build();
+            final var tasks = new ArrayList<Task>(batchSize);
+            for (int index = 0; index < batchSize; index++)
+            {
+                tasks.add(task(-1, "Batch" + iteration, worker, index));
+            }
+            uploaders[worker].addTasks(challenge, tasks);
+            uploaders[worker].flushAll();
+            return batchSize;
+        });
+    }
+
+    private static long allocatedBytes()
+    {
+        final var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static Task task(final long challengeId, final String name, final int worker,
+            final int iteration)
+    {
+        return Task.taskBuilder().parent(challengeId).name(name + "-" + worker + "-" + iteration)
+                .instruction("Load")
+                .addPoint(new PointInformation(worker * COORDINATE_STEP,
+                        iteration * COORDINATE_STEP))
+                .build();
+    }
+
+    private long[] work(final int worker, final Operation operation, final long[] latencies)
+    {
+        var failures = 0L;
+        var tasks = 0L;
+        final var allocatedBefore = allocatedBytes();
+        for (int iteration = 0; iteration < this.iterations; iteration++)
+        {
+            final var start = System.nanoTime();
+            try
+            {
+                tasks += operation.run(worker, iteration);
+            }
+            catch (final Exception e)
+            {
+                LOG.debug("Operation {} of worker {} failed", iteration, worker, e);
+                failures++;
+            }
+            latencies[worker * this.iterations + iteration] = System.nanoTime() - start;
+        }
+        final var allocatedAfter = allocatedBytes();
+        return new long[] { failures, tasks,
+                allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore };
+    }
+}
@@ -0,0 +1,56 @@
+package org.maproulette.client.load;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.StubServer;
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.model.Project;
+
+/**
+ * Runs the load driver against the embedded stub server, so it doesn't need a MapRoulette server
+ *
+ * @author mcuthbert
+ */
+public class LoadDriverIntegrationTest
+{
+    @Test
+    public void batchUploadTest() throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            server.setLatency(1);
+            server.setErrorRate(0.05);
+            final var configuration = server.configuration();
+            configuration.setRetryBaseDelay(1L);
+            final var project = new ProjectAPI(configuration)
+                    .create(Project.builder().name("Load Project").enabled(true).build());
+
+            final var result = new LoadDriver(2, 10).batchUpload(configuration, project.getId(),
+                    100);
+            Assertions.assertEquals(20, result.getOperations());
+            Assertions.assertEquals(0, result.getFailures());
+            Assertions.assertEquals(2000, result.getTasks());
+            Assertions.assertTrue(result.getLatency99() >= result.getLatency50());
+            Assertions.assertTrue(result.getTasksPerSecond() > 0);
+            // failed requests were retried, and every task made it to the server once
+            Assertions.assertEquals(2000, server.getTaskCount());
+            Assertions.assertEquals(2, server.getChallengeCount());
+            Assertions.assertTrue(new ChallengeAPI(configuration)
+                    .get(project.getId(), "Load Batch 0").isPresent());
+        }
+    }
+
+    @Test
+    public void scenariosTest() throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            final var results = new LoadDriver(2, 5).runAll(server.configuration(), 10);
+            Assertions.assertEquals(4, results.size());
+            results.forEach(result -> Assertions.assertEquals(0, result.getFailures()));
+            Assertions.assertEquals(10, results.get(1).getTasks());
+            Assertions.assertEquals(10 * 10 + 10, server.getTaskCount());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.maproulette.client.batch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.StubServer;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.PointInformation;
+import org.maproulette.client.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks queuing and flushing a challenge batch against a local {@link StubServer}, which
+ * covers the chunking, serialization and HTTP overhead of an upload without the server's time
+ *
+ * @author mcuthbert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChallengeBatchBenchmark
+{
+    private static final long CHALLENGE_ID = 1234L;
+    private static final int TASK_COUNT = 2000;
+    private static final int POINT_COUNT = 10;
+
+    private final List<Task> tasks = new ArrayList<>();
+    private StubServer server;
+    private MapRouletteConfiguration configuration;
+    private MapRouletteConnection connection;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.server = StubServer.start();
+        this.configuration = this.server.configuration();
+        this.connection = new MapRouletteConnection(this.configuration);
+        for (int index = 0; index < TASK_COUNT; index++)
+        {
+            final var builder = Task.taskBuilder().parent(CHALLENGE_ID).name("Task" + index)
+                    .instruction("Instruction");
+            for (int point = 0; point < POINT_COUNT; point++)
+            {
+                builder.addPoint(new PointInformation(index / 1000.0, point / 1000.0));
+            }
+            this.tasks.add(builder.build());
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        this.connection.close();
+        this.server.close();
+    }
+
+    @Benchmark
+    public FlushResult flush() throws MapRouletteException
+    {
+        final var batch = new ChallengeBatch(this.connection, this.configuration, CHALLENGE_ID);
+        batch.addTasks(this.tasks);
+        batch.flush();
+        return batch.getLastFlushResult();
+    }
+}
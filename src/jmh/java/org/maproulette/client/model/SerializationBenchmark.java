@@ -0,0 +1,99 @@
+package org.maproulette.client.model;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.serializer.SerializerUtilities;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks the serialization and deserialization of the model objects through the shared
+ * {@link ObjectMapper}, using the challenge and rule list fixtures of the unit tests
+ *
+ * @author mcuthbert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark
+{
+    private static final int POINT_COUNT = 100;
+
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private Task task;
+    private String taskJson;
+    private Challenge challenge;
+    private String challengeJson;
+    private RuleList ruleList;
+    private String ruleListJson;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        final var builder = Task.taskBuilder().id(1).parent(2).name("Task")
+                .instruction("Instruction").status(TaskStatus.CREATED);
+        for (int index = 0; index < POINT_COUNT; index++)
+        {
+            builder.addPoint(new PointInformation(index / 100.0, -index / 100.0));
+        }
+        this.task = builder.build();
+        this.taskJson = this.mapper.writeValueAsString(this.task);
+        this.challengeJson = SerializerUtilities
+                .getResourceAsString("challenges/testChallenge.json");
+        this.challenge = this.mapper.readValue(this.challengeJson, Challenge.class);
+        this.ruleListJson = SerializerUtilities
+                .getResourceAsString("rulelist/rulelist_priorityrule_with_nested_rulelist.json");
+        this.ruleList = this.mapper.readValue(this.ruleListJson, RuleList.class);
+    }
+
+    @Benchmark
+    public Challenge readChallenge() throws IOException
+    {
+        return this.mapper.readValue(this.challengeJson, Challenge.class);
+    }
+
+    @Benchmark
+    public RuleList readRuleList() throws IOException
+    {
+        return this.mapper.readValue(this.ruleListJson, RuleList.class);
+    }
+
+    @Benchmark
+    public Task readTask() throws IOException
+    {
+        return this.mapper.readValue(this.taskJson, Task.class);
+    }
+
+    @Benchmark
+    public byte[] writeChallenge() throws IOException
+    {
+        return this.mapper.writeValueAsBytes(this.challenge);
+    }
+
+    @Benchmark
+    public byte[] writeRuleList() throws IOException
+    {
+        return this.mapper.writeValueAsBytes(this.ruleList);
+    }
+
+    @Benchmark
+    public byte[] writeTask() throws IOException
+    {
+        return this.mapper.writeValueAsBytes(this.task);
+    }
+}
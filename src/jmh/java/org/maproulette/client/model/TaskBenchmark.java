@@ -0,0 +1,84 @@
+package org.maproulette.client.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+/**
+ * Benchmarks building tasks from points and GeoJSON features
+ *
+ * @author mcuthbert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskBenchmark
+{
+    private static final int POINT_COUNT = 1000;
+    private static final int FEATURE_COUNT = 100;
+    private static final String FEATURE = "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\","
+            + "\"coordinates\":[-122.41,37.77]},\"properties\":{\"name\":\"test\"}}";
+
+    private final List<PointInformation> pointList = new ArrayList<>();
+    private final Set<PointInformation> points = new HashSet<>();
+    private Task.TaskBuilder builder;
+    private ArrayNode emptyGeojson;
+
+    @Setup
+    public void setup()
+    {
+        for (int index = 0; index < POINT_COUNT; index++)
+        {
+            this.pointList.add(new PointInformation(37.77 + index / 10_000.0,
+                    -122.41 - index / 10_000.0));
+        }
+        this.points.addAll(this.pointList);
+        this.builder = Task.taskBuilder();
+        this.emptyGeojson = ObjectMapperSingleton.getMapper().createArrayNode();
+    }
+
+    @Benchmark
+    public Task buildFromGeojson()
+    {
+        final var taskBuilder = Task.taskBuilder().parent(1).name("Task")
+                .instruction("Instruction");
+        for (int index = 0; index < FEATURE_COUNT; index++)
+        {
+            taskBuilder.addGeojson(FEATURE);
+        }
+        return taskBuilder.build();
+    }
+
+    @Benchmark
+    public Task buildFromPoints()
+    {
+        return Task.taskBuilder().parent(1).name("Task").instruction("Instruction")
+                .addPoints(this.pointList).build();
+    }
+
+    @Benchmark
+    public ArrayNode generateTaskFeatures() throws MapRouletteException
+    {
+        return this.builder.generateTaskFeatures(this.points, this.emptyGeojson);
+    }
+}
@@ -0,0 +1,161 @@
+package org.maproulette.client;
+
+import java.io.Closeable;
+
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.IdentifierCache;
+import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.api.TaskAPI;
+import org.maproulette.client.api.UserAPI;
+import org.maproulette.client.batch.AsyncBatchUploader;
+import org.maproulette.client.batch.BatchUploader;
+import org.maproulette.client.batch.ChallengeBatch;
+import org.maproulette.client.batch.ProjectBatch;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Project;
+
+import lombok.Getter;
+
+/**
+ * The entry point for working with a MapRoulette server. The client owns a single connection, and
+ * with it a single http connection pool, that is shared by all the API and batch objects created
+ * from it. So a large upload job only ever allocates one http stack. The project and challenge
+ * identifier caches are shared in the same way. Closing the client closes the connection, after
+ * which none of the objects created from it can be used.
+ *
+ * <pre>
+ * try (var client = new MapRouletteClient(configuration))
+ * {
+ *     final var project = client.projects().get(PROJECT_ID);
+ *     final var uploader = client.batchUploader();
+ * }
+ * </pre>
+ *
+ * @author mcuthbert
+ */
+public class MapRouletteClient implements Closeable
+{
+    @Getter
+    private final MapRouletteConfiguration configuration;
+    @Getter
+    private final IMapRouletteConnection connection;
+    private final ProjectAPI projectAPI;
+    private final ChallengeAPI challengeAPI;
+    private final TaskAPI taskAPI;
+    private final UserAPI userAPI;
+
+    public MapRouletteClient(final MapRouletteConfiguration configuration)
+    {
+        this(configuration, new MapRouletteConnection(configuration));
+    }
+
+    /**
+     * @param configuration
+     *            The configuration for the MapRoulette server
+     * @param connection
+     *            The connection that will be shared by everything created from this client, it is
+     *            closed when the client is closed
+     */
+    public MapRouletteClient(final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection)
+    {
+        this.configuration = configuration;
+        this.connection = connection;
+        this.projectAPI = new ProjectAPI(connection, new IdentifierCache(configuration));
+        this.challengeAPI = new ChallengeAPI(connection, new IdentifierCache(configuration));
+        this.taskAPI = new TaskAPI(connection);
+        this.userAPI = new UserAPI(connection);
+    }
+
+    /**
+     * @return A new asynchronous batch uploader sharing the connection of this client, it must be
+     *         closed before the client is closed
+     */
+    public AsyncBatchUploader asyncBatchUploader()
+    {
+        return new AsyncBatchUploader(this.batchUploader(), this.configuration);
+    }
+
+    /**
+     * @return A new batch uploader sharing the connection of this client
+     */
+    public BatchUploader batchUploader()
+    {
+        return new BatchUploader(this.configuration, this.connection, this.projectAPI,
+                this.challengeAPI);
+    }
+
+    /**
+     * @param challenge
+     *            The challenge for the batch, it will be created if it doesn't exist
+     * @return A new batch for the challenge sharing the connection of this client
+     */
+    public ChallengeBatch challengeBatch(final Challenge challenge)
+    {
+        return new ChallengeBatch(this.connection, this.configuration,
+                ChallengeBatch.getChallengeId(this.challengeAPI, challenge));
+    }
+
+    /**
+     * @return The API for challenges
+     */
+    public ChallengeAPI challenges()
+    {
+        return this.challengeAPI;
+    }
+
+    @Override
+    public void close()
+    {
+        this.connection.close();
+    }
+
+    /**
+     * @param projectId
+     *            The identifier of the project for the batch
+     * @return A new batch for the project sharing the connection of this client
+     */
+    public ProjectBatch projectBatch(final long projectId)
+    {
+        return new ProjectBatch(projectId, this.configuration, this.connection,
+                this.challengeAPI);
+    }
+
+    /**
+     * @param project
+     *            The project for the batch, it will be created if it doesn't exist
+     * @return A new batch for the project sharing the connection of this client
+     */
+    public ProjectBatch projectBatch(final Project project)
+    {
+        return new ProjectBatch(project, this.configuration, this.connection, this.projectAPI,
+                this.challengeAPI);
+    }
+
+    /**
+     * @return The API for projects
+     */
+    public ProjectAPI projects()
+    {
+        return this.projectAPI;
+    }
+
+    /**
+     * @return The API for tasks
+     */
+    public TaskAPI tasks()
+    {
+        return this.taskAPI;
+    }
+
+    /**
+     * @return The API for users
+     */
+    public UserAPI users()
+    {
+        return this.userAPI;
+    }
+}
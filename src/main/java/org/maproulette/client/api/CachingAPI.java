@@ -0,0 +1,329 @@
+package org.maproulette.client.api;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.maproulette.client.connection.CircuitBreaker;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.connection.Query;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.IMapRouletteObject;
+import org.maproulette.client.model.Project;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A read through cache for {@link IAPI#get(long)} that decorates another API. Objects are cached by
+ * identifier for the TTL and the least recently used objects are evicted once the cache is full.
+ * When a cached object expires and the server provided an ETag or Last-Modified header for it, the
+ * object is revalidated with a conditional request, so an unchanged object only costs a not
+ * modified response and is not parsed again. All the other calls are passed through to the
+ * decorated API, updating or invalidating the cached objects where needed.
+ *
+ * <pre>
+ * final var challenges = CachingAPI.challenges(connection, 500, 60_000L);
+ * final var challenge = challenges.get(CHALLENGE_ID);
+ * </pre>
+ *
+ * @param <T>
+ *            The type of object being cached
+ * @author mcuthbert
+ */
+public class CachingAPI<T extends IMapRouletteObject> implements IAPI<T>
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * A cached object along with the validators the server provided for it
+     *
+     * @param <T>
+     *            The type of object being cached
+     */
+    private static final class CachedObject<T>
+    {
+        private final T value;
+        private final String entityTag;
+        private final String lastModified;
+        private volatile long expiry;
+
+        CachedObject(final T value, final String entityTag, final String lastModified,
+                final long expiry)
+        {
+            this.value = value;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.expiry = expiry;
+        }
+
+        boolean isRevalidatable()
+        {
+            return this.entityTag != null || this.lastModified != null;
+        }
+    }
+
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final IAPI<T> delegate;
+    private final IMapRouletteConnection connection;
+    private final String uriFormat;
+    private final Class<T> type;
+    private final int maximumSize;
+    private final long ttl;
+    private final Map<Long, CachedObject<T>> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public static CachingAPI<Challenge> challenges(final IMapRouletteConnection connection,
+            final int maximumSize, final long ttl)
+    {
+        return new CachingAPI<>(new ChallengeAPI(connection), connection,
+                QueryConstants.URI_CHALLENGE_BASE, Challenge.class, maximumSize, ttl);
+    }
+
+    public static CachingAPI<Project> projects(final IMapRouletteConnection connection,
+            final int maximumSize, final long ttl)
+    {
+        return new CachingAPI<>(new ProjectAPI(connection), connection,
+                QueryConstants.URI_PROJECT_BASE, Project.class, maximumSize, ttl);
+    }
+
+    public static CachingAPI<Task> tasks(final IMapRouletteConnection connection,
+            final int maximumSize, final long ttl)
+    {
+        return new CachingAPI<>(new TaskAPI(connection), connection,
+                QueryConstants.URI_TASK_BASE, Task.class, maximumSize, ttl);
+    }
+
+    /**
+     * @param delegate
+     *            The API that all calls other than conditional revalidation are passed to
+     * @param connection
+     *            The connection used for the conditional revalidation requests
+     * @param uriFormat
+     *            The format of the URI to get a single object by identifier
+     * @param type
+     *            The type of object being cached
+     * @param maximumSize
+     *            The maximum number of objects cached
+     * @param ttl
+     *            The time in milliseconds before a cached object needs to be revalidated
+     */
+    public CachingAPI(final IAPI<T> delegate, final IMapRouletteConnection connection,
+            final String uriFormat, final Class<T> type, final int maximumSize, final long ttl)
+    {
+        this.delegate = delegate;
+        this.connection = connection;
+        this.uriFormat = uriFormat;
+        this.type = type;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.cache = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+        {
+            private static final long serialVersionUID = -2817361062725463010L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, CachedObject<T>> eldest)
+            {
+                if (this.size() > CachingAPI.this.maximumSize)
+                {
+                    CachingAPI.this.evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public T create(final T object) throws MapRouletteException
+    {
+        final var created = this.delegate.create(object);
+        this.put(created, null, null);
+        return created;
+    }
+
+    @Override
+    public boolean delete(final long identifier) throws MapRouletteException
+    {
+        this.invalidate(identifier);
+        return this.delegate.delete(identifier);
+    }
+
+    @Override
+    public List<T> find(final String matcher, final long parent, final int limit, final int page)
+            throws MapRouletteException
+    {
+        return this.delegate.find(matcher, parent, limit, page);
+    }
+
+    @Override
+    public boolean forceDelete(final long identifier) throws MapRouletteException
+    {
+        this.invalidate(identifier);
+        return this.delegate.forceDelete(identifier);
+    }
+
+    @Override
+    public Optional<T> get(final long identifier, final String name) throws MapRouletteException
+    {
+        return this.delegate.get(identifier, name);
+    }
+
+    @Override
+    public Optional<T> get(final long identifier) throws MapRouletteException
+    {
+        final var entry = this.entry(identifier);
+        if (entry != null && entry.expiry > System.currentTimeMillis())
+        {
+            this.hits.incrementAndGet();
+            return Optional.of(entry.value);
+        }
+        this.misses.incrementAndGet();
+        final var query = Query.builder().get(String.format(this.uriFormat, identifier)).build();
+        if (entry != null && entry.entityTag != null)
+        {
+            query.addHeader(HttpHeaders.IF_NONE_MATCH, entry.entityTag);
+        }
+        if (entry != null && entry.lastModified != null)
+        {
+            query.addHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+        final Optional<HttpResource> response;
+        try
+        {
+            response = this.connection.open(query);
+        }
+        catch (final UnsupportedOperationException e)
+        {
+            // without an open response the object can't be revalidated, so it is fetched again
+            final var value = this.delegate.get(identifier);
+            if (value.isEmpty())
+            {
+                this.invalidate(identifier);
+                return value;
+            }
+            this.put(value.get(), null, null);
+            return value;
+        }
+        if (response.isEmpty())
+        {
+            this.invalidate(identifier);
+            return Optional.empty();
+        }
+        try (var resource = response.get())
+        {
+            if (resource.getStatusCode() == HttpStatus.SC_NOT_MODIFIED && entry != null
+                    && entry.isRevalidatable())
+            {
+                this.revalidations.incrementAndGet();
+                entry.expiry = System.currentTimeMillis() + this.ttl;
+                return Optional.of(entry.value);
+            }
+            final var value = this.mapper.readValue(resource.getResponseBodyAsStream(),
+                    this.type);
+            this.put(value, this.header(resource, HttpHeaders.ETAG),
+                    this.header(resource, HttpHeaders.LAST_MODIFIED));
+            return Optional.of(value);
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(e);
+        }
+    }
+
+    @Override
+    public CircuitBreaker.State getCircuitState()
+    {
+        return this.delegate.getCircuitState();
+    }
+
+    public long getEvictionCount()
+    {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return The fraction of calls to {@link #get(long)} that were answered from the cache or
+     *         with a not modified response
+     */
+    public double getHitRate()
+    {
+        final var total = this.hits.get() + this.misses.get();
+        return total == 0 ? 0 : (this.hits.get() + this.revalidations.get()) / (double) total;
+    }
+
+    public long getHitCount()
+    {
+        return this.hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return The number of expired objects that were confirmed unchanged by the server
+     */
+    public long getRevalidationCount()
+    {
+        return this.revalidations.get();
+    }
+
+    public synchronized void invalidate(final long identifier)
+    {
+        this.cache.remove(identifier);
+    }
+
+    public synchronized void invalidateAll()
+    {
+        this.cache.clear();
+    }
+
+    public synchronized int size()
+    {
+        return this.cache.size();
+    }
+
+    @Override
+    public T update(final T object) throws MapRouletteException
+    {
+        final var updated = this.delegate.update(object);
+        this.put(updated, null, null);
+        return updated;
+    }
+
+    private synchronized CachedObject<T> entry(final long identifier)
+    {
+        return this.cache.get(identifier);
+    }
+
+    private String header(final HttpResource resource, final String name)
+            throws MapRouletteException
+    {
+        final var headers = resource.getHeader(name);
+        return headers == null || headers.length == 0 ? null : headers[0].getValue();
+    }
+
+    private synchronized void put(final T value, final String entityTag,
+            final String lastModified)
+    {
+        if (this.maximumSize > 0)
+        {
+            this.cache.put(value.getId(), new CachedObject<>(value, entityTag, lastModified,
+                    System.currentTimeMillis() + this.ttl));
+        }
+    }
+}
@@ -4,8 +4,11 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
+import org.maproulette.client.connection.CircuitBreaker;
 import org.maproulette.client.connection.IMapRouletteConnection;
 import org.maproulette.client.connection.MapRouletteConfiguration;
 import org.maproulette.client.connection.MapRouletteConnection;
@@ -18,6 +21,7 @@ import org.maproulette.client.utilities.ObjectMapperSingleton;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -30,10 +34,17 @@ public class ChallengeAPI implements IAPI<Challenge>
 {
     private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
     private final IMapRouletteConnection connection;
+    @Getter
+    private final IdentifierCache identifierCache;
 
     public ChallengeAPI(final MapRouletteConfiguration configuration)
     {
-        this(new MapRouletteConnection(configuration));
+        this(new MapRouletteConnection(configuration), new IdentifierCache(configuration));
+    }
+
+    public ChallengeAPI(final IMapRouletteConnection connection)
+    {
+        this(connection, new IdentifierCache());
     }
 
     /**
@@ -101,20 +112,68 @@ public class ChallengeAPI implements IAPI<Challenge>
      */
     public List<Task> children(final long identifier, final int limit, final int page)
             throws MapRouletteException
+    {
+        try (var stream = this.childrenAsStream(identifier, limit, page))
+        {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Same as {@link #children(long, int, int)} but the response is parsed lazily as the stream is
+     * consumed, so the full page never needs to be held in memory. The stream must be closed if it
+     * isn't fully consumed.
+     *
+     * @param identifier
+     *            The identifier of the parent
+     * @param limit
+     *            The limit of objects returned
+     * @param page
+     *            The page of results to return
+     * @return A lazy stream of the tasks in the challenge
+     * @throws MapRouletteException
+     *             If there is any exceptions thrown while executing the request
+     */
+    public Stream<Task> childrenAsStream(final long identifier, final int limit,
+            final int page) throws MapRouletteException
     {
         final var query = Query.builder()
                 .get(String.format(QueryConstants.URI_CHALLENGE_CHILDREN, identifier)).build();
         query.addParameter(QueryConstants.QUERY_PARAMETER_LIMIT, "" + limit);
         query.addParameter(QueryConstants.QUERY_PARAMETER_PAGE, "" + page);
-        final var response = this.connection.execute(query).orElse("[]");
-        try
-        {
-            return Arrays.asList(this.mapper.readValue(response, Task[].class));
-        }
-        catch (final IOException e)
-        {
-            throw new MapRouletteException(e);
-        }
+        return this.connection.stream(query, Task.class);
+    }
+
+    /**
+     * Retrieves all the tasks in the challenge, automatically paging through the results. Pages are
+     * fetched lazily as the stream is consumed, with the next page prefetched in the background.
+     *
+     * @param identifier
+     *            The identifier of the parent
+     * @return A lazy stream of all the tasks in the challenge
+     */
+    public Stream<Task> streamChildren(final long identifier)
+    {
+        return this.streamChildren(identifier, PagedIterator.DEFAULT_PAGE_SIZE,
+                PagedIterator.DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Retrieves all the tasks in the challenge, automatically paging through the results.
+     *
+     * @param identifier
+     *            The identifier of the parent
+     * @param pageSize
+     *            How many elements to request per page
+     * @param lookahead
+     *            How many pages to prefetch in the background
+     * @return A lazy stream of all the tasks in the challenge
+     */
+    public Stream<Task> streamChildren(final long identifier, final int pageSize,
+            final int lookahead)
+    {
+        return new PagedIterator<Task>(page -> this.children(identifier, pageSize, page), pageSize,
+                lookahead).stream();
     }
 
     @Override
@@ -161,6 +220,7 @@ public class ChallengeAPI implements IAPI<Challenge>
         final var query = Query.builder()
                 .delete(String.format(QueryConstants.URI_CHALLENGE_BASE, identifier)).build();
         this.connection.execute(query);
+        this.identifierCache.invalidate(identifier);
         return true;
     }
 
@@ -171,9 +231,32 @@ public class ChallengeAPI implements IAPI<Challenge>
                 .delete(String.format(QueryConstants.URI_CHALLENGE_BASE, identifier)).build();
         query.addParameter(QueryConstants.FLAG_IMMEDIATE_DELETE, "true");
         this.connection.execute(query);
+        this.identifierCache.invalidate(identifier);
         return true;
     }
 
+    /**
+     * Gets the identifier of the challenge by its parent and name, creating it if it doesn't exist
+     * yet. The identifier is cached, so resolving the same challenge again doesn't require a
+     * request.
+     *
+     * @param challenge
+     *            The challenge to resolve
+     * @return The identifier of the existing or newly created challenge
+     * @throws MapRouletteException
+     *             If there are any exceptions while retrieving or creating the challenge
+     */
+    public long resolveIdentifier(final Challenge challenge) throws MapRouletteException
+    {
+        return this.identifierCache.resolve(this, challenge);
+    }
+
+    @Override
+    public CircuitBreaker.State getCircuitState()
+    {
+        return this.connection.getCircuitState();
+    }
+
     private Optional<Challenge> parseResponse(final String response) throws MapRouletteException
     {
         if (StringUtils.isEmpty(response))
@@ -2,7 +2,9 @@ package org.maproulette.client.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.maproulette.client.connection.CircuitBreaker;
 import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.model.IMapRouletteObject;
 
@@ -58,6 +60,43 @@ public interface IAPI<T extends IMapRouletteObject>
      */
     List<T> find(String matcher, long parent, int limit, int page) throws MapRouletteException;
 
+    /**
+     * Finds all the matching elements, automatically paging through the results. Pages are fetched
+     * lazily as the stream is consumed, with the next page prefetched in the background.
+     *
+     * @param matcher
+     *            A string query to match based on names
+     * @param parent
+     *            The parent identifier, use -1 if want to ignore it.
+     * @return A lazy stream of all the matching elements
+     */
+    default Stream<T> streamFind(final String matcher, final long parent)
+    {
+        return this.streamFind(matcher, parent, PagedIterator.DEFAULT_PAGE_SIZE,
+                PagedIterator.DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Finds all the matching elements, automatically paging through the results. Any failure while
+     * fetching a page is thrown as a runtime exception when the stream is consumed.
+     *
+     * @param matcher
+     *            A string query to match based on names
+     * @param parent
+     *            The parent identifier, use -1 if want to ignore it.
+     * @param pageSize
+     *            How many elements to request per page
+     * @param lookahead
+     *            How many pages to prefetch in the background
+     * @return A lazy stream of all the matching elements
+     */
+    default Stream<T> streamFind(final String matcher, final long parent, final int pageSize,
+            final int lookahead)
+    {
+        return new PagedIterator<T>(page -> this.find(matcher, parent, pageSize, page), pageSize,
+                lookahead).stream();
+    }
+
     /**
      * Creates an object in MapRoulette. For creation if the object is in the cache it will just
      * respond with the cached object.
@@ -126,4 +165,15 @@ public interface IAPI<T extends IMapRouletteObject>
      *             if there are any exceptions while deleting the object
      */
     boolean forceDelete(long identifier) throws MapRouletteException;
+
+    /**
+     * Gets the state of the circuit breaker for the server this API talks to. While the circuit is
+     * open all calls fail fast with a {@link MapRouletteException}.
+     *
+     * @return The state of the circuit breaker
+     */
+    default CircuitBreaker.State getCircuitState()
+    {
+        return CircuitBreaker.State.CLOSED;
+    }
 }
@@ -0,0 +1,251 @@
+package org.maproulette.client.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.IMapRouletteObject;
+
+/**
+ * A bounded cache that maps the parent identifier and name of an object to the identifier of the
+ * object on the MapRoulette server, so that resolving the same project or challenge by name doesn't
+ * require a request every time. Entries expire after the TTL and the least recently used entries
+ * are evicted once the cache is full. If negative caching is enabled the fact that an object
+ * doesn't exist is cached as well. The cache is thread safe.
+ *
+ * @author mcuthbert
+ */
+public class IdentifierCache
+{
+    /**
+     * The value returned by {@link #get(long, String)} for objects that are cached as not existing
+     */
+    public static final long NOT_FOUND = -1L;
+    public static final int DEFAULT_SIZE = 1000;
+    public static final long DEFAULT_TTL = 600_000L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The key for an entry in the cache
+     */
+    private static final class Key
+    {
+        private final long parent;
+        private final String name;
+
+        Key(final long parent, final String name)
+        {
+            this.parent = parent;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object other)
+        {
+            if (this == other)
+            {
+                return true;
+            }
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+            final var key = (Key) other;
+            return this.parent == key.parent && Objects.equals(this.name, key.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.parent, this.name);
+        }
+    }
+
+    /**
+     * A cached identifier and the time it expires
+     */
+    private static final class CachedIdentifier
+    {
+        private final long identifier;
+        private final long expiry;
+
+        CachedIdentifier(final long identifier, final long expiry)
+        {
+            this.identifier = identifier;
+            this.expiry = expiry;
+        }
+    }
+
+    private final int maximumSize;
+    private final long ttl;
+    private final boolean negativeCaching;
+    private final Map<Key, CachedIdentifier> cache;
+
+    /**
+     * @return A cache that never stores anything
+     */
+    public static IdentifierCache disabled()
+    {
+        return new IdentifierCache(0, 0, false);
+    }
+
+    public IdentifierCache()
+    {
+        this(DEFAULT_SIZE, DEFAULT_TTL, false);
+    }
+
+    public IdentifierCache(final MapRouletteConfiguration configuration)
+    {
+        this(configuration.getIdentifierCacheSize(), configuration.getIdentifierCacheTTL(),
+                configuration.isIdentifierNegativeCaching());
+    }
+
+    /**
+     * @param maximumSize
+     *            The maximum number of entries in the cache, 0 disables the cache
+     * @param ttl
+     *            The time in milliseconds that an entry is valid for
+     * @param negativeCaching
+     *            Whether objects that don't exist are cached as well
+     */
+    public IdentifierCache(final int maximumSize, final long ttl, final boolean negativeCaching)
+    {
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.negativeCaching = negativeCaching;
+        this.cache = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+        {
+            private static final long serialVersionUID = 6012875412338735721L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, CachedIdentifier> eldest)
+            {
+                return this.size() > IdentifierCache.this.maximumSize;
+            }
+        };
+    }
+
+    public synchronized void clear()
+    {
+        this.cache.clear();
+    }
+
+    /**
+     * Gets the cached identifier of an object
+     *
+     * @param parent
+     *            The identifier of the parent of the object
+     * @param name
+     *            The name of the object
+     * @return The identifier, {@link #NOT_FOUND} if the object is cached as not existing or empty
+     *         if the object isn't cached
+     */
+    public synchronized Optional<Long> get(final long parent, final String name)
+    {
+        final var key = new Key(parent, name);
+        final var entry = this.cache.get(key);
+        if (entry == null)
+        {
+            return Optional.empty();
+        }
+        if (entry.expiry <= System.currentTimeMillis())
+        {
+            this.cache.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.identifier);
+    }
+
+    /**
+     * Removes any entries for the object with the given identifier, this should be called whenever
+     * the object is deleted
+     *
+     * @param identifier
+     *            The identifier of the object
+     */
+    public synchronized void invalidate(final long identifier)
+    {
+        this.cache.values().removeIf(entry -> entry.identifier == identifier);
+    }
+
+    /**
+     * Looks up the identifier of an object by its parent and name, only making a request if the
+     * object isn't cached
+     *
+     * @param api
+     *            The API used to look up the object
+     * @param parent
+     *            The identifier of the parent of the object
+     * @param name
+     *            The name of the object
+     * @param <T>
+     *            The type of object
+     * @return The identifier of the object, or empty if the object doesn't exist
+     * @throws MapRouletteException
+     *             If there are any exceptions while retrieving the object
+     */
+    public <T extends IMapRouletteObject> Optional<Long> lookup(final IAPI<T> api,
+            final long parent, final String name) throws MapRouletteException
+    {
+        final var cached = this.get(parent, name);
+        if (cached.isPresent())
+        {
+            return cached.filter(identifier -> identifier != NOT_FOUND);
+        }
+        final var object = api.get(parent, name);
+        if (object.isPresent())
+        {
+            this.put(parent, name, object.get().getId());
+            return Optional.of(object.get().getId());
+        }
+        if (this.negativeCaching)
+        {
+            this.put(parent, name, NOT_FOUND);
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void put(final long parent, final String name, final long identifier)
+    {
+        if (this.maximumSize > 0)
+        {
+            this.cache.put(new Key(parent, name),
+                    new CachedIdentifier(identifier, System.currentTimeMillis() + this.ttl));
+        }
+    }
+
+    /**
+     * Gets the identifier of an object, creating the object if it doesn't exist yet
+     *
+     * @param api
+     *            The API used to look up and create the object
+     * @param object
+     *            The object to resolve
+     * @param <T>
+     *            The type of object
+     * @return The identifier of the existing or newly created object
+     * @throws MapRouletteException
+     *             If there are any exceptions while retrieving or creating the object
+     */
+    public <T extends IMapRouletteObject> long resolve(final IAPI<T> api, final T object)
+            throws MapRouletteException
+    {
+        final var identifier = this.lookup(api, object.getParent(), object.getName());
+        if (identifier.isPresent())
+        {
+            return identifier.get();
+        }
+        final var created = api.create(object);
+        this.put(object.getParent(), object.getName(), created.getId());
+        return created.getId();
+    }
+
+    public synchronized int size()
+    {
+        return this.cache.size();
+    }
+}
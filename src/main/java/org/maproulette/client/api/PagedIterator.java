@@ -0,0 +1,159 @@
+package org.maproulette.client.api;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.utilities.ThrowingFunction;
+
+/**
+ * Iterates over all the elements of a paged API call, fetching the pages lazily as the iterator is
+ * consumed. While the current page is being consumed the next pages, up to the lookahead, are
+ * fetched in the background so that the latency of each request is hidden. Iteration stops at the
+ * first page that contains fewer elements than the page size. Pages start at 0.
+ *
+ * @param <T>
+ *            The type of the elements in the pages
+ * @author mcuthbert
+ */
+public class PagedIterator<T> implements Iterator<T>, Closeable
+{
+    /**
+     * The default number of elements requested per page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    /**
+     * The default number of pages that are fetched ahead of the page being consumed
+     */
+    public static final int DEFAULT_LOOKAHEAD = 1;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(runnable ->
+    {
+        final var thread = new Thread(runnable,
+                "maproulette-page-prefetch-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ThrowingFunction<Integer, List<T>> fetcher;
+    private final int pageSize;
+    private final int lookahead;
+    private final Deque<CompletableFuture<List<T>>> pending = new ArrayDeque<>();
+    private Iterator<T> current = Collections.emptyIterator();
+    private int nextPage = 0;
+    private boolean lastPage = false;
+
+    /**
+     * @param fetcher
+     *            Fetches a single page, the page number is passed to the function
+     * @param pageSize
+     *            The number of elements requested per page, the fetcher is expected to use the
+     *            same limit
+     * @param lookahead
+     *            The number of pages to prefetch in the background, 0 fetches each page when it is
+     *            needed
+     */
+    public PagedIterator(final ThrowingFunction<Integer, List<T>> fetcher, final int pageSize,
+            final int lookahead)
+    {
+        if (pageSize < 1)
+        {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.lookahead = Math.max(0, lookahead);
+    }
+
+    /**
+     * Cancels any pages that are being prefetched, any requests that are already in flight will
+     * still complete but their results are discarded.
+     */
+    @Override
+    public void close()
+    {
+        this.lastPage = true;
+        this.current = Collections.emptyIterator();
+        this.pending.forEach(future -> future.cancel(false));
+        this.pending.clear();
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!this.current.hasNext() && !this.lastPage)
+        {
+            final var page = this.nextPage();
+            this.lastPage = page.size() < this.pageSize;
+            this.current = page.iterator();
+        }
+        if (!this.current.hasNext())
+        {
+            this.close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T next()
+    {
+        if (!this.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        return this.current.next();
+    }
+
+    /**
+     * @return A sequential stream over all the elements, closing the stream cancels any prefetched
+     *         pages
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    private List<T> nextPage()
+    {
+        if (this.lookahead == 0)
+        {
+            return this.fetcher.apply(this.nextPage++);
+        }
+        while (this.pending.size() <= this.lookahead)
+        {
+            final var page = this.nextPage++;
+            this.pending.add(CompletableFuture.supplyAsync(() -> this.fetcher.apply(page),
+                    PREFETCHER));
+        }
+        try
+        {
+            return this.pending.poll().join();
+        }
+        catch (final CompletionException e)
+        {
+            this.close();
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MapRouletteRuntimeException(e.getCause());
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package org.maproulette.client.api;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
+import org.maproulette.client.connection.CircuitBreaker;
 import org.maproulette.client.connection.IMapRouletteConnection;
 import org.maproulette.client.connection.MapRouletteConfiguration;
 import org.maproulette.client.connection.MapRouletteConnection;
@@ -56,6 +58,32 @@ public class TaskAPI implements IAPI<Task>
     @Override
     public List<Task> find(final String matcher, final long parent, final int limit, final int page)
             throws MapRouletteException
+    {
+        try (var stream = this.findAsStream(matcher, parent, limit, page))
+        {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Same as {@link #find(String, long, int, int)} but the response is parsed lazily as the
+     * stream is consumed, so the full page never needs to be held in memory. The stream must be
+     * closed if it isn't fully consumed.
+     *
+     * @param matcher
+     *            The matcher used to find the objects
+     * @param parent
+     *            The parent identifier of the objects
+     * @param limit
+     *            The limit of objects returned
+     * @param page
+     *            The page of results to return
+     * @return A lazy stream of the matching tasks
+     * @throws MapRouletteException
+     *             If there is any exceptions thrown while executing the request
+     */
+    public Stream<Task> findAsStream(final String matcher, final long parent, final int limit,
+            final int page) throws MapRouletteException
     {
         final var query = Query.builder().get(QueryConstants.URI_TASK_FIND).build();
         query.addParameter(QueryConstants.QUERY_PARAMETER_Q, matcher + "%");
@@ -63,15 +91,7 @@ public class TaskAPI implements IAPI<Task>
         query.addParameter(QueryConstants.QUERY_PARAMETER_LIMIT, "" + limit);
         query.addParameter(QueryConstants.QUERY_PARAMETER_PAGE, "" + page);
         query.addParameter(QueryConstants.QUERY_PARAMETER_ONLY_ENABLED, "false");
-        final var response = this.connection.execute(query).orElse("[]");
-        try
-        {
-            return Arrays.asList(this.mapper.readValue(response, Task[].class));
-        }
-        catch (final IOException e)
-        {
-            throw new MapRouletteException(e);
-        }
+        return this.connection.stream(query, Task.class);
     }
 
     @Override
@@ -132,6 +152,12 @@ public class TaskAPI implements IAPI<Task>
         return this.delete(identifier);
     }
 
+    @Override
+    public CircuitBreaker.State getCircuitState()
+    {
+        return this.connection.getCircuitState();
+    }
+
     private Optional<Task> parseResponse(final String response) throws MapRouletteException
     {
         if (StringUtils.isEmpty(response))
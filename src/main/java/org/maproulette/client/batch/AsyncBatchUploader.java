@@ -0,0 +1,302 @@
+package org.maproulette.client.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking wrapper around the {@link BatchUploader}. Tasks are added to a bounded queue and a
+ * background flusher thread adds them to the underlying uploader, flushing whenever the number of
+ * tasks since the last flush hits the flush size, when the flush interval elapses or when a flush
+ * is requested. Producers only block when the queue is full. The uploader must be closed to make
+ * sure that all the queued tasks are uploaded.
+ *
+ * @author mcuthbert
+ */
+public class AsyncBatchUploader implements AutoCloseable
+{
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBatchUploader.class);
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final long DEFAULT_FLUSH_INTERVAL = 30_000L;
+    private static final long POLL_TIMEOUT = 100L;
+    private final BatchUploader uploader;
+    private final BlockingQueue<Tuple<Challenge, Task>> queue;
+    private final Queue<CompletableFuture<Void>> flushRequests = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final int flushSize;
+    private final long flushInterval;
+    private final Thread flusher;
+    private volatile boolean closed = false;
+    // only accessed by the flusher thread
+    private Exception failure = null;
+
+    public AsyncBatchUploader(final MapRouletteConfiguration configuration)
+    {
+        this(new BatchUploader(configuration), configuration);
+    }
+
+    public AsyncBatchUploader(final BatchUploader uploader,
+            final MapRouletteConfiguration configuration)
+    {
+        this(uploader, DEFAULT_QUEUE_CAPACITY, configuration.getBatchSize(),
+                DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param uploader
+     *            The uploader that the queued tasks are added to
+     * @param queueCapacity
+     *            The maximum number of tasks that can be queued before producers block
+     * @param flushSize
+     *            The number of tasks added since the last flush that will trigger a flush
+     * @param flushInterval
+     *            The time in milliseconds after which any tasks added since the last flush will be
+     *            flushed
+     */
+    public AsyncBatchUploader(final BatchUploader uploader, final int queueCapacity,
+            final int flushSize, final long flushInterval)
+    {
+        this.uploader = uploader;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.flusher = new Thread(this::run, "maproulette-batch-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a task to be uploaded, this will only block if the queue is full.
+     *
+     * @param challenge
+     *            The Challenge you are adding the task too, see
+     *            {@link BatchUploader#addTask(Challenge, Task)}
+     * @param task
+     *            The task to add to the batch
+     * @throws MapRouletteException
+     *             If the uploader has been closed or the thread is interrupted while waiting for
+     *             space in the queue
+     */
+    public void addTask(final Challenge challenge, final Task task) throws MapRouletteException
+    {
+        this.closeLock.readLock().lock();
+        try
+        {
+            if (this.closed)
+            {
+                throw new MapRouletteException("Can't add tasks to a closed uploader.");
+            }
+            this.queue.put(new Tuple<>(challenge, task));
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MapRouletteException("Interrupted while queueing task", e);
+        }
+        finally
+        {
+            this.closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues a set of tasks to be uploaded
+     *
+     * @param challenge
+     *            The Challenge you are adding the tasks too
+     * @param tasks
+     *            The tasks to add to the batch
+     * @throws MapRouletteException
+     *             If the uploader has been closed or the thread is interrupted
+     */
+    public void addTasks(final Challenge challenge, final List<Task> tasks)
+            throws MapRouletteException
+    {
+        for (final Task task : tasks)
+        {
+            this.addTask(challenge, task);
+        }
+    }
+
+    /**
+     * Requests a flush of all the tasks that have been queued up to this point.
+     *
+     * @return A future that completes once the tasks have been uploaded, or completes
+     *         exceptionally with any failure that occurred since the previous flush
+     */
+    public CompletableFuture<Void> flush()
+    {
+        final var future = new CompletableFuture<Void>();
+        if (this.closed)
+        {
+            future.completeExceptionally(
+                    new MapRouletteException("Can't flush a closed uploader."));
+        }
+        else
+        {
+            this.flushRequests.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Flushes all the queued tasks and stops the background flusher, blocking until the upload has
+     * completed.
+     *
+     * @throws MapRouletteException
+     *             If the final flush fails or the thread is interrupted while waiting for it
+     */
+    @Override
+    public void close() throws MapRouletteException
+    {
+        final CompletableFuture<Void> finalFlush;
+        this.closeLock.writeLock().lock();
+        try
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            finalFlush = this.flush();
+            this.closed = true;
+        }
+        finally
+        {
+            this.closeLock.writeLock().unlock();
+        }
+        try
+        {
+            finalFlush.get();
+            this.flusher.join();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MapRouletteException("Interrupted while closing uploader", e);
+        }
+        catch (final ExecutionException e)
+        {
+            throw new MapRouletteException(e.getCause());
+        }
+    }
+
+    private void run()
+    {
+        var lastFlush = System.currentTimeMillis();
+        var tasksSinceFlush = 0;
+        while (!this.closed || !this.queue.isEmpty() || !this.flushRequests.isEmpty())
+        {
+            try
+            {
+                final var next = this.queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (next != null)
+                {
+                    this.add(next);
+                    tasksSinceFlush++;
+                }
+                final var requests = this.pollFlushRequests();
+                final var elapsed = System.currentTimeMillis() - lastFlush;
+                if (!requests.isEmpty() || tasksSinceFlush >= this.flushSize
+                        || tasksSinceFlush > 0 && elapsed >= this.flushInterval)
+                {
+                    // any tasks queued before the flush was requested need to be part of it
+                    final var pending = new ArrayList<Tuple<Challenge, Task>>();
+                    this.queue.drainTo(pending);
+                    pending.forEach(this::add);
+                    this.flushAll(requests);
+                    lastFlush = System.currentTimeMillis();
+                    tasksSinceFlush = 0;
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                logger.warn("Batch flusher interrupted, remaining tasks will not be uploaded.");
+                this.pollFlushRequests().forEach(future -> future.completeExceptionally(e));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void add(final Tuple<Challenge, Task> next)
+    {
+        try
+        {
+            this.uploader.addTask(next.getFirst(), next.getSecond());
+        }
+        catch (final Exception e)
+        {
+            logger.error("Failed to add task {}", next.getSecond().getName(), e);
+            this.recordFailure(e);
+        }
+    }
+
+    private void flushAll(final List<CompletableFuture<Void>> requests)
+    {
+        try
+        {
+            this.uploader.flushAll();
+        }
+        catch (final Exception e)
+        {
+            logger.error("Failed to flush batch", e);
+            this.recordFailure(e);
+        }
+        if (!requests.isEmpty())
+        {
+            final var result = this.failure;
+            this.failure = null;
+            requests.forEach(future ->
+            {
+                if (result == null)
+                {
+                    future.complete(null);
+                }
+                else
+                {
+                    future.completeExceptionally(result);
+                }
+            });
+        }
+    }
+
+    private List<CompletableFuture<Void>> pollFlushRequests()
+    {
+        final var requests = new ArrayList<CompletableFuture<Void>>();
+        var request = this.flushRequests.poll();
+        while (request != null)
+        {
+            requests.add(request);
+            request = this.flushRequests.poll();
+        }
+        return requests;
+    }
+
+    private void recordFailure(final Exception exception)
+    {
+        if (this.failure == null)
+        {
+            this.failure = exception;
+        }
+        else if (this.failure != exception)
+        {
+            this.failure.addSuppressed(exception);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.maproulette.client.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Splits the tasks of a flush into chunks that are bounded by their serialized size as well as by
+ * the maximum number of tasks the server accepts in a single request. The byte budget of a chunk
+ * adapts to how long the server takes to respond, it is halved whenever a chunk is slower than the
+ * target latency or fails, and grows again while chunks are well within the target. This keeps
+ * chunks of heavy geometries from timing out while chunks of light ones stay full.
+ *
+ * @author mcuthbert
+ */
+@Slf4j
+public class BatchSizer
+{
+    /**
+     * The maximum number of tasks that the server accepts in a single batch request
+     */
+    public static final int MAXIMUM_TASKS = 500;
+    public static final long DEFAULT_MAXIMUM_BYTES = 8L * 1024 * 1024;
+    public static final long DEFAULT_TARGET_LATENCY = 10_000L;
+    private static final long MINIMUM_BYTES = 64L * 1024;
+    private static final double GROWTH_RATIO = 1.25;
+
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final int maximumTasks;
+    private final long maximumBytes;
+    private final long targetLatency;
+    private long byteBudget;
+
+    /**
+     * A stream that only counts the bytes written to it
+     */
+    private static final class CountingOutputStream extends OutputStream
+    {
+        private long count = 0;
+
+        @Override
+        public void write(final int value)
+        {
+            this.count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length)
+        {
+            this.count += length;
+        }
+    }
+
+    public BatchSizer()
+    {
+        this(MAXIMUM_TASKS, DEFAULT_MAXIMUM_BYTES, DEFAULT_TARGET_LATENCY);
+    }
+
+    /**
+     * @param maximumTasks
+     *            The maximum number of tasks in a chunk, capped at {@link #MAXIMUM_TASKS}
+     * @param maximumBytes
+     *            The maximum serialized size of a chunk in bytes
+     * @param targetLatency
+     *            The time in milliseconds that uploading a chunk should stay below
+     */
+    public BatchSizer(final int maximumTasks, final long maximumBytes, final long targetLatency)
+    {
+        this.maximumTasks = Math.max(1, Math.min(maximumTasks, MAXIMUM_TASKS));
+        this.maximumBytes = Math.max(1, maximumBytes);
+        this.targetLatency = targetLatency;
+        this.byteBudget = this.maximumBytes;
+    }
+
+    /**
+     * @return The current maximum serialized size of a chunk in bytes
+     */
+    public synchronized long getByteBudget()
+    {
+        return this.byteBudget;
+    }
+
+    /**
+     * Records the outcome of uploading a chunk, adapting the byte budget of later chunks
+     *
+     * @param latency
+     *            The time in milliseconds the upload took
+     * @param successful
+     *            Whether the upload succeeded
+     */
+    public synchronized void record(final long latency, final boolean successful)
+    {
+        if (this.targetLatency <= 0)
+        {
+            return;
+        }
+        final var previous = this.byteBudget;
+        if (!successful || latency > this.targetLatency)
+        {
+            this.byteBudget = Math.max(Math.min(MINIMUM_BYTES, this.maximumBytes),
+                    this.byteBudget / 2);
+        }
+        else if (latency < this.targetLatency / 2)
+        {
+            this.byteBudget = Math.min(this.maximumBytes,
+                    (long) Math.ceil(this.byteBudget * GROWTH_RATIO));
+        }
+        if (previous != this.byteBudget)
+        {
+            log.debug("Chunk byte budget changed from {} to {} after a {} ms upload", previous,
+                    this.byteBudget, latency);
+        }
+    }
+
+    /**
+     * Splits the tasks into chunks, keeping the order of the tasks. Every task is serialized to
+     * measure its size, use {@link #split(List, long[])} when the sizes are already known.
+     *
+     * @param tasks
+     *            The tasks to split
+     * @return The chunks of tasks
+     * @throws MapRouletteException
+     *             if a task can't be serialized
+     */
+    public List<List<Task>> split(final List<Task> tasks) throws MapRouletteException
+    {
+        final var sizes = new long[tasks.size()];
+        for (int index = 0; index < sizes.length; index++)
+        {
+            sizes[index] = this.size(tasks.get(index));
+        }
+        return this.split(tasks, sizes);
+    }
+
+    /**
+     * Splits the tasks into chunks, keeping the order of the tasks. A task that is larger than the
+     * byte budget on its own is uploaded in a chunk by itself.
+     *
+     * @param tasks
+     *            The tasks to split
+     * @param sizes
+     *            The serialized size in bytes of every task, as measured by {@link #size(Task)}
+     * @return The chunks of tasks
+     */
+    public List<List<Task>> split(final List<Task> tasks, final long[] sizes)
+    {
+        final var budget = this.getByteBudget();
+        final var chunks = new ArrayList<List<Task>>();
+        var start = 0;
+        var bytes = 0L;
+        for (int index = 0; index < tasks.size(); index++)
+        {
+            final var size = sizes[index];
+            if (index > start && (index - start >= this.maximumTasks || bytes + size > budget))
+            {
+                chunks.add(tasks.subList(start, index));
+                start = index;
+                bytes = 0;
+            }
+            bytes += size;
+        }
+        if (start < tasks.size())
+        {
+            chunks.add(tasks.subList(start, tasks.size()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Estimates the size of a task by serializing it without keeping the serialized form
+     *
+     * @param task
+     *            The task to measure
+     * @return The serialized size of the task in bytes
+     * @throws MapRouletteException
+     *             if the task can't be serialized
+     */
+    long size(final Task task) throws MapRouletteException
+    {
+        try
+        {
+            final var counter = new CountingOutputStream();
+            this.mapper.writeValue(counter, task);
+            return counter.count;
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(e);
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package org.maproulette.client.batch;
 
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.IdentifierCache;
 import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.api.TaskAPI;
+import org.maproulette.client.connection.CircuitBreaker;
+import org.maproulette.client.connection.IMapRouletteConnection;
 import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
 import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
 import org.maproulette.client.model.Challenge;
 import org.maproulette.client.model.Project;
 import org.maproulette.client.model.Task;
+import org.maproulette.client.model.TaskStatus;
 import org.maproulette.client.utilities.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +33,11 @@ public class BatchUploader
 {
     private static final Logger logger = LoggerFactory.getLogger(BatchUploader.class);
     private final Map<Long, ProjectBatch> projectBatchMap = new HashMap<>();
+    private final IMapRouletteConnection connection;
     private final ProjectAPI projectAPI;
+    private final ChallengeAPI challengeAPI;
+    private final TaskManifest manifest;
+    private final MemoryBudget memoryBudget;
     private MapRouletteConfiguration configuration;
     private long defaultProjectIdentifier = -1;
 
@@ -36,9 +48,60 @@ public class BatchUploader
      *            The configuration to connect to MapRoulette
      */
     public BatchUploader(final MapRouletteConfiguration configuration)
+    {
+        this(configuration, new MapRouletteConnection(configuration));
+    }
+
+    /**
+     * Creates the uploader using an existing connection, the connection is shared with all the
+     * project and challenge batches created by the uploader.
+     *
+     * @param configuration
+     *            The configuration to connect to MapRoulette
+     * @param connection
+     *            The connection to the MapRoulette server
+     */
+    public BatchUploader(final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection)
+    {
+        this(configuration, connection,
+                new ProjectAPI(connection, new IdentifierCache(configuration)),
+                new ChallengeAPI(connection, new IdentifierCache(configuration)));
+    }
+
+    /**
+     * Creates the uploader using existing API objects, so that their identifier caches are shared
+     * with the uploader.
+     *
+     * @param configuration
+     *            The configuration to connect to MapRoulette
+     * @param connection
+     *            The connection to the MapRoulette server
+     * @param projectAPI
+     *            The API used to resolve the default project
+     * @param challengeAPI
+     *            The API used to resolve the challenges of the tasks
+     */
+    public BatchUploader(final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection, final ProjectAPI projectAPI,
+            final ChallengeAPI challengeAPI)
     {
         this.configuration = configuration;
-        this.projectAPI = new ProjectAPI(configuration);
+        this.connection = connection;
+        this.projectAPI = projectAPI;
+        this.challengeAPI = challengeAPI;
+        this.memoryBudget = new MemoryBudget(configuration.getMaxPendingTasks(),
+                configuration.getMaxPendingBytes(), configuration.getMemoryBudgetPolicy(),
+                configuration.getMemoryBudgetFlushOrder());
+        try
+        {
+            this.manifest = configuration.getDeltaSyncManifest() == null ? null
+                    : TaskManifest.load(Path.of(configuration.getDeltaSyncManifest()));
+        }
+        catch (final MapRouletteException e)
+        {
+            throw new MapRouletteRuntimeException(e);
+        }
     }
 
     /**
@@ -83,6 +146,16 @@ public class BatchUploader
     public Tuple<Long, Long> addTask(final Challenge challenge, final Task task)
             throws MapRouletteException
     {
+        if (this.memoryBudget.isExceeded())
+        {
+            if (this.memoryBudget.getPolicy() == MemoryBudget.Policy.REJECT)
+            {
+                throw new MapRouletteException(String.format(
+                        "Memory budget exceeded with %d queued tasks (%d bytes), flush first",
+                        this.memoryBudget.getTasks(), this.memoryBudget.getBytes()));
+            }
+            this.flushUntilWithinBudget();
+        }
         var identifier = challenge.getParent();
         if (identifier == -1)
         {
@@ -90,8 +163,14 @@ public class BatchUploader
         }
 
         final long finalIdentifier = identifier;
-        final var projectBatch = this.projectBatchMap.computeIfAbsent(identifier,
-                k -> new ProjectBatch(finalIdentifier, this.configuration));
+        final var projectBatch = this.projectBatchMap.computeIfAbsent(identifier, k ->
+        {
+            final var batch = new ProjectBatch(finalIdentifier, this.configuration,
+                    this.connection, this.challengeAPI);
+            batch.setManifest(this.manifest);
+            batch.setMemoryBudget(this.memoryBudget);
+            return batch;
+        });
 
         final var challengeId = projectBatch.addTask(challenge, task);
         this.projectBatchMap.put(identifier, projectBatch);
@@ -134,6 +213,128 @@ public class BatchUploader
         });
     }
 
+    /**
+     * Uploads the tasks left in the spool directory by a previous run that didn't finish, resuming
+     * after the last chunk that was uploaded. This needs to be called before any tasks are added,
+     * and does nothing if spooling isn't enabled.
+     *
+     * @throws MapRouletteException
+     *             if the spooled tasks can't be uploaded
+     */
+    public void recover() throws MapRouletteException
+    {
+        if (this.configuration.getSpoolDirectory() == null)
+        {
+            return;
+        }
+        for (final var challengeId : TaskSpool
+                .challenges(Path.of(this.configuration.getSpoolDirectory())))
+        {
+            final var challengeBatch = new ChallengeBatch(this.connection, this.configuration,
+                    challengeId);
+            // the spooled tasks are queued through the same duplicate index and memory budget as
+            // the tasks added to the uploader
+            challengeBatch.setManifest(this.manifest);
+            challengeBatch.setMemoryBudget(this.memoryBudget);
+            try
+            {
+                if (challengeBatch.getSpool().getPendingCount() > 0)
+                {
+                    logger.info("Recovering {} spooled tasks for challenge {}",
+                            challengeBatch.getSpool().getPendingCount(), challengeId);
+                    challengeBatch.flush();
+                }
+            }
+            finally
+            {
+                challengeBatch.close();
+            }
+        }
+    }
+
+    /**
+     * Completes a delta sync run. All the batches are flushed, the tasks that were uploaded by a
+     * previous run but not added in this run are marked as deleted if the configuration asks for
+     * it, and the manifest is saved so the next run only uploads what changed. Only the challenges
+     * that tasks were added to in this run are checked for missing tasks. Does nothing more than
+     * {@link #flushAll()} if delta sync isn't enabled.
+     *
+     * @throws MapRouletteException
+     *             if the missing tasks can't be marked as deleted or the manifest can't be saved
+     */
+    public void finishSync() throws MapRouletteException
+    {
+        this.flushAll();
+        if (this.manifest == null)
+        {
+            return;
+        }
+        if (this.configuration.isDeltaSyncDeleteMissing())
+        {
+            final var taskAPI = new TaskAPI(this.connection);
+            for (final var challengeId : this.manifest.getSeenChallenges())
+            {
+                for (final var name : this.manifest.getMissing(challengeId))
+                {
+                    final var task = taskAPI.get(challengeId, name);
+                    if (task.isPresent())
+                    {
+                        logger.debug("Marking missing task {} in challenge {} as deleted", name,
+                                challengeId);
+                        task.get().setStatus(TaskStatus.DELETED);
+                        taskAPI.update(task.get());
+                    }
+                    this.manifest.remove(challengeId, name);
+                }
+            }
+        }
+        this.manifest.save();
+    }
+
+    /**
+     * Gets the state of the circuit breaker for the server, while it is open flushing fails fast
+     * instead of waiting on a server that is down
+     *
+     * @return The state of the circuit breaker
+     */
+    public CircuitBreaker.State getCircuitState()
+    {
+        return this.connection.getCircuitState();
+    }
+
+    /**
+     * @return The budget that the tasks queued in memory by all the batches are accounted against
+     */
+    public MemoryBudget getMemoryBudget()
+    {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Flushes challenge batches, in the order of the memory budget, until the budget is met again
+     */
+    private void flushUntilWithinBudget() throws MapRouletteException
+    {
+        final Comparator<ChallengeBatch> order = this.memoryBudget
+                .getFlushOrder() == MemoryBudget.FlushOrder.OLDEST
+                        ? Comparator.comparingLong(ChallengeBatch::getOldestPending)
+                        : Comparator.comparingLong(ChallengeBatch::getPendingBytes)
+                                .thenComparingInt(batch -> batch.getBatch().size()).reversed();
+        while (this.memoryBudget.isExceeded())
+        {
+            final var next = this.projectBatchMap.values().stream()
+                    .flatMap(batch -> batch.getChallengeBatches().stream())
+                    .filter(batch -> !batch.getBatch().isEmpty()).min(order);
+            if (next.isEmpty())
+            {
+                return;
+            }
+            logger.debug("Flushing challenge {} to stay within the memory budget",
+                    next.get().getChallengeId());
+            next.get().flush();
+        }
+    }
+
     /**
      * Get the project id for the configuration's default project name. If the project id is not yet
      * known, HTTP requests will be make to (1) get the default project and (2) if the default
@@ -148,18 +349,8 @@ public class BatchUploader
     {
         if (this.defaultProjectIdentifier == -1)
         {
-            final Optional<Project> defaultProject = this.projectAPI
-                    .get(this.configuration.getDefaultProjectName());
-            if (defaultProject.isEmpty())
-            {
-                this.defaultProjectIdentifier = this.projectAPI.create(
-                        Project.builder().name(this.configuration.getDefaultProjectName()).build())
-                        .getId();
-            }
-            else
-            {
-                this.defaultProjectIdentifier = defaultProject.get().getId();
-            }
+            this.defaultProjectIdentifier = this.projectAPI.resolveIdentifier(
+                    Project.builder().name(this.configuration.getDefaultProjectName()).build());
         }
         return this.defaultProjectIdentifier;
     }
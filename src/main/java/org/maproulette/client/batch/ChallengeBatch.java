@@ -2,8 +2,21 @@ package org.maproulette.client.batch;
 
 import static org.maproulette.client.utilities.ThrowingConsumer.throwingConsumerWrapper;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.maproulette.client.api.ChallengeAPI;
 import org.maproulette.client.api.QueryConstants;
@@ -13,18 +26,21 @@ import org.maproulette.client.connection.MapRouletteConnection;
 import org.maproulette.client.connection.Query;
 import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.http.JsonEntity;
+import org.maproulette.client.metrics.IMetricsRegistry;
+import org.maproulette.client.metrics.MetricNames;
 import org.maproulette.client.model.Challenge;
 import org.maproulette.client.model.Task;
 import org.maproulette.client.utilities.ObjectMapperSingleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 /**
  * Batches tasks for a challenge
@@ -35,30 +51,120 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ChallengeBatch
 {
-    private static final int MAXIMUM_BATCH_SIZE = 500;
+    private static final long UPLOAD_THREAD_KEEP_ALIVE = 60_000L;
     private final Logger logger = LoggerFactory.getLogger(ChallengeBatch.class);
     private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
     private final IMapRouletteConnection connection;
     private final long challengeId;
     private final int maxBatchSize;
     private final List<Task> batch = new ArrayList<>();
+    /**
+     * Indexes the queued tasks, so that a task that is added twice is only uploaded once
+     */
+    private TaskIndex taskIndex = new TaskIndex(TaskIndex.Policy.LAST_WRITE_WINS, this.batch);
+    /**
+     * If set only tasks that are new or changed since they were last uploaded are queued
+     */
+    @Setter
+    private TaskManifest manifest;
+    /**
+     * If set the queued tasks are appended to the spool instead of being kept in memory
+     */
+    @Setter
+    private TaskSpool spool;
+    /**
+     * If set the tasks queued in memory are accounted against the budget shared by all batches
+     */
+    @Setter
+    private MemoryBudget memoryBudget;
+    /**
+     * The estimated size in bytes of the tasks queued in memory, only tracked with a memory budget
+     * that limits bytes
+     */
+    private long pendingBytes = 0;
+    /**
+     * The time that the oldest task queued in memory was added
+     */
+    private long oldestPending = 0;
+    /**
+     * The maximum number of chunks that will be uploaded concurrently during a flush, a value of 1
+     * uploads the chunks one after another on the calling thread
+     */
+    @Setter
+    private int uploadConcurrency = 1;
+    /**
+     * Splits the tasks of a flush into chunks by their serialized size and the observed upload
+     * latency
+     */
+    @Setter
+    private BatchSizer batchSizer = new BatchSizer();
+    /**
+     * The registry that the queue depth, flush durations and uploaded tasks are reported to
+     */
+    @Setter
+    private IMetricsRegistry metrics = IMetricsRegistry.none();
+    private FlushResult lastFlushResult;
+    // the serialized size of the tasks queued in memory, so that every task is only measured once
+    @Getter(AccessLevel.NONE)
+    private final Map<Task, Long> taskSizes = new IdentityHashMap<>();
+    // the threads that upload chunks concurrently, created on the first concurrent upload
+    @Getter(AccessLevel.NONE)
+    private ThreadPoolExecutor uploadExecutor;
 
     public static long getChallengeId(final MapRouletteConfiguration configuration,
             final Challenge challenge)
     {
-        final var challengeAPI = new ChallengeAPI(configuration);
+        return getChallengeId(new MapRouletteConnection(configuration), challenge);
+    }
+
+    /**
+     * Gets the identifier of the challenge, creating the challenge if it doesn't exist yet
+     *
+     * @param connection
+     *            The connection used to look up or create the challenge
+     * @param challenge
+     *            The challenge to look up
+     * @return The identifier of the challenge
+     */
+    public static long getChallengeId(final IMapRouletteConnection connection,
+            final Challenge challenge)
+    {
+        return getChallengeId(new ChallengeAPI(connection), challenge);
+    }
+
+    /**
+     * Gets the identifier of the challenge, creating the challenge if it doesn't exist yet. The
+     * identifier cache of the API is used, so repeated calls for the same challenge don't make any
+     * requests.
+     *
+     * @param challengeAPI
+     *            The API used to look up or create the challenge
+     * @param challenge
+     *            The challenge to look up
+     * @return The identifier of the challenge
+     */
+    public static long getChallengeId(final ChallengeAPI challengeAPI, final Challenge challenge)
+    {
         try
         {
-            final var batchChallenge = challengeAPI.get(challenge.getParent(), challenge.getName());
-            if (batchChallenge.isEmpty())
-            {
-                final var newChallenge = challengeAPI.create(challenge);
-                return newChallenge.getId();
-            }
-            else
-            {
-                return batchChallenge.get().getId();
-            }
+            return challengeAPI.resolveIdentifier(challenge);
+        }
+        catch (final MapRouletteException e)
+        {
+            throw new MapRouletteRuntimeException(e);
+        }
+    }
+
+    private static TaskSpool spool(final MapRouletteConfiguration configuration,
+            final long challengeId)
+    {
+        if (configuration.getSpoolDirectory() == null)
+        {
+            return null;
+        }
+        try
+        {
+            return TaskSpool.open(Path.of(configuration.getSpoolDirectory()), challengeId);
         }
         catch (final MapRouletteException e)
         {
@@ -66,9 +172,36 @@ public class ChallengeBatch
         }
     }
 
+    private static BatchSizer batchSizer(final MapRouletteConfiguration configuration)
+    {
+        return new BatchSizer(BatchSizer.MAXIMUM_TASKS, configuration.getMaxChunkBytes(),
+                configuration.getChunkTargetLatency());
+    }
+
     public ChallengeBatch(final MapRouletteConfiguration configuration, final long challengeId)
     {
-        this(new MapRouletteConnection(configuration), challengeId, configuration.getBatchSize());
+        this(new MapRouletteConnection(configuration), configuration, challengeId);
+    }
+
+    /**
+     * Creates the batch for an existing challenge using an existing connection
+     *
+     * @param connection
+     *            The connection to the MapRoulette Server
+     * @param configuration
+     *            {@link MapRouletteConfiguration} object for the MapRoulette Server
+     * @param challengeId
+     *            The identifier of the challenge
+     */
+    public ChallengeBatch(final IMapRouletteConnection connection,
+            final MapRouletteConfiguration configuration, final long challengeId)
+    {
+        this(connection, challengeId, configuration.getBatchSize());
+        this.uploadConcurrency = configuration.getUploadConcurrency();
+        this.batchSizer = batchSizer(configuration);
+        this.taskIndex = new TaskIndex(configuration.getDuplicateTaskPolicy(), this.batch);
+        this.spool = spool(configuration, challengeId);
+        this.metrics = configuration.getMetricsRegistry();
     }
 
     /**
@@ -81,9 +214,31 @@ public class ChallengeBatch
      */
     public ChallengeBatch(final MapRouletteConfiguration configuration, final Challenge challenge)
     {
-        this.connection = new MapRouletteConnection(configuration);
+        this(new MapRouletteConnection(configuration), configuration, challenge);
+    }
+
+    /**
+     * Creates the batch using an existing connection, so that a single connection can be shared by
+     * all the batches in an upload.
+     *
+     * @param connection
+     *            The connection to the MapRoulette Server
+     * @param configuration
+     *            {@link MapRouletteConfiguration} object for the MapRoulette Server
+     * @param challenge
+     *            The challenge to create if not exists on the server
+     */
+    public ChallengeBatch(final IMapRouletteConnection connection,
+            final MapRouletteConfiguration configuration, final Challenge challenge)
+    {
+        this.connection = connection;
         this.maxBatchSize = configuration.getBatchSize();
-        this.challengeId = getChallengeId(configuration, challenge);
+        this.uploadConcurrency = configuration.getUploadConcurrency();
+        this.batchSizer = batchSizer(configuration);
+        this.taskIndex = new TaskIndex(configuration.getDuplicateTaskPolicy(), this.batch);
+        this.challengeId = getChallengeId(connection, challenge);
+        this.spool = spool(configuration, this.challengeId);
+        this.metrics = configuration.getMetricsRegistry();
     }
 
     /**
@@ -103,10 +258,11 @@ public class ChallengeBatch
 
     /**
      * Adds a task to the Challenge batch. If the batch hits the maximum size it will automatially
-     * flush the batch.
+     * flush the batch. A task that is already queued is replaced or merged, depending on the
+     * duplicate task policy, instead of being queued twice.
      *
      * @param task
-     *            Tasks are unique based on the Task identifier.
+     *            Tasks are unique based on the Task identifier, or name within the challenge.
      * @throws MapRouletteException
      *             If it flushes, it may through a MapRouletteException when pushing data to
      *             MapRoulette
@@ -114,7 +270,22 @@ public class ChallengeBatch
     public synchronized void addTask(final Task task) throws MapRouletteException
     {
         task.setParent(this.challengeId);
-        this.batch.add(task);
+        if (this.manifest != null && !this.manifest.isChanged(this.challengeId, task))
+        {
+            return;
+        }
+        if (this.spool != null)
+        {
+            this.spool.append(task);
+            this.reportQueueDepth();
+            if (this.spool.getPendingCount() >= this.maxBatchSize)
+            {
+                this.flush();
+            }
+            return;
+        }
+        this.enqueue(task);
+        this.reportQueueDepth();
         if (this.batch.size() >= this.maxBatchSize)
         {
             this.logger.debug("FLUSHING queued tasks as batch size {} meets max {}",
@@ -124,39 +295,365 @@ public class ChallengeBatch
     }
 
     /**
-     * Flushes all the tasks from the Challenge batch
+     * Closes the spool of the batch, if it has one, and stops the upload threads. Tasks that
+     * haven't been flushed stay in the spool and are uploaded by the next batch that opens it.
+     *
+     * @throws MapRouletteException
+     *             if the spool can't be closed
+     */
+    public synchronized void close() throws MapRouletteException
+    {
+        if (this.uploadExecutor != null)
+        {
+            this.uploadExecutor.shutdownNow();
+            this.uploadExecutor = null;
+        }
+        if (this.spool != null)
+        {
+            try
+            {
+                this.spool.close();
+            }
+            catch (final IOException e)
+            {
+                throw new MapRouletteException(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes all the tasks from the Challenge batch. Tasks of any chunks that fail to upload are
+     * kept in the batch, so that a later flush will only retry those tasks.
      *
      * @throws MapRouletteException
      *             If there are any failures during the upload
      */
     public synchronized void flush() throws MapRouletteException
     {
-        if (!this.batch.isEmpty())
+        if (!this.metrics.isEnabled() || this.getQueueDepth() == 0)
+        {
+            this.flushQueued();
+            return;
+        }
+        final var start = System.currentTimeMillis();
+        var outcome = MetricNames.OUTCOME_FAILURE;
+        try
+        {
+            this.flushQueued();
+            outcome = MetricNames.OUTCOME_SUCCESS;
+        }
+        finally
+        {
+            this.metrics.record(MetricNames.BATCH_FLUSH_DURATION,
+                    System.currentTimeMillis() - start, MetricNames.TAG_CHALLENGE,
+                    String.valueOf(this.challengeId), MetricNames.TAG_OUTCOME, outcome);
+            this.reportQueueDepth();
+        }
+    }
+
+    /**
+     * @return The number of tasks waiting to be uploaded, in memory or in the spool
+     */
+    public synchronized long getQueueDepth()
+    {
+        return this.spool == null ? this.batch.size() : this.spool.getPendingCount();
+    }
+
+    private void flushQueued() throws MapRouletteException
+    {
+        if (this.spool != null)
+        {
+            this.flushSpool();
+        }
+        else if (!this.batch.isEmpty())
+        {
+            final var result = this.uploadBatchTasks(this.challengeId, this.batch);
+            this.lastFlushResult = result;
+            if (this.memoryBudget != null)
+            {
+                this.memoryBudget.release(this.batch.size(), this.pendingBytes);
+            }
+            this.pendingBytes = 0;
+            final var remainingSizes = new IdentityHashMap<Task, Long>();
+            for (final var task : result.getRemainingTasks())
+            {
+                remainingSizes.put(task, this.taskSizes.get(task));
+            }
+            this.taskSizes.clear();
+            this.taskSizes.putAll(remainingSizes);
+            this.taskIndex.retain(result.getRemainingTasks());
+            for (final var task : this.batch)
+            {
+                this.reserve(task);
+            }
+            if (this.batch.isEmpty())
+            {
+                this.oldestPending = 0;
+            }
+            if (!result.isSuccessful())
+            {
+                throw result.toException();
+            }
+        }
+    }
+
+    private void reportQueueDepth()
+    {
+        if (this.metrics.isEnabled())
+        {
+            this.metrics.gauge(MetricNames.BATCH_QUEUE_DEPTH, this.getQueueDepth(),
+                    MetricNames.TAG_CHALLENGE, String.valueOf(this.challengeId));
+        }
+    }
+
+    /**
+     * Queues a task in memory, combining it with the queued task it duplicates and accounting for
+     * it in the memory budget
+     */
+    private void enqueue(final Task task) throws MapRouletteException
+    {
+        final var position = this.taskIndex.indexOf(task);
+        final var queued = position < 0 ? null : this.batch.get(position);
+        if (this.taskIndex.add(task))
+        {
+            if (this.batch.size() == 1)
+            {
+                this.oldestPending = System.currentTimeMillis();
+            }
+            this.reserve(task);
+        }
+        else
+        {
+            this.logger.trace("Task {} is already queued for challenge {}", task.getName(),
+                    this.challengeId);
+            this.replace(queued, this.batch.get(position));
+        }
+    }
+
+    /**
+     * Accounts for a task queued in memory
+     */
+    private void reserve(final Task task) throws MapRouletteException
+    {
+        if (this.memoryBudget != null)
+        {
+            final var bytes = this.memoryBudget.isAccountingBytes() ? this.size(task) : 0;
+            this.pendingBytes += bytes;
+            this.memoryBudget.add(1, bytes);
+        }
+    }
+
+    /**
+     * Accounts for a queued task that was replaced by the task it was combined with, the bytes of
+     * the replaced task are released as the bytes of the new one are added
+     */
+    private void replace(final Task queued, final Task combined) throws MapRouletteException
+    {
+        if (queued == combined)
+        {
+            return;
+        }
+        final var replacedSize = this.taskSizes.remove(queued);
+        if (this.memoryBudget != null && this.memoryBudget.isAccountingBytes())
+        {
+            final var bytes = this.size(combined)
+                    - (replacedSize == null ? this.batchSizer.size(queued) : replacedSize);
+            this.pendingBytes += bytes;
+            this.memoryBudget.add(0, bytes);
+        }
+    }
+
+    /**
+     * Gets the serialized size of a queued task, measuring it only the first time
+     */
+    private long size(final Task task) throws MapRouletteException
+    {
+        final var size = this.taskSizes.get(task);
+        if (size != null)
         {
-            this.uploadBatchTasks(this.challengeId, this.batch);
-            this.batch.clear();
+            return size;
         }
+        final var measured = this.batchSizer.size(task);
+        this.taskSizes.put(task, measured);
+        return measured;
     }
 
-    private boolean uploadBatchTasks(final long challengeId, final List<Task> data)
+    /**
+     * Uploads the spooled tasks in order. The spool is read in windows of at most the server
+     * maximum of tasks, so memory doesn't grow with the number of spooled tasks, and every window
+     * is queued through the same duplicate index and memory budget as the tasks added in memory.
+     * The records are acknowledged in the spool up to the first one whose task wasn't uploaded, so
+     * a restart resumes right after the tasks that were uploaded.
+     */
+    private void flushSpool() throws MapRouletteException
+    {
+        var spooled = this.spool.read(BatchSizer.MAXIMUM_TASKS);
+        while (!spooled.isEmpty())
+        {
+            final var positions = new int[spooled.size()];
+            for (int index = 0; index < positions.length; index++)
+            {
+                final var task = spooled.get(index).getTask();
+                // the record of a spooled task is its serialized form, so its size is known
+                this.taskSizes.put(task, (long) spooled.get(index).getSize());
+                this.enqueue(task);
+                positions[index] = this.taskIndex.indexOf(task);
+            }
+            final var result = this.uploadBatchTasks(this.challengeId, this.batch);
+            this.lastFlushResult = result;
+            final var remaining = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+            remaining.addAll(result.getRemainingTasks());
+            var uploaded = 0;
+            while (uploaded < positions.length
+                    && !remaining.contains(this.batch.get(positions[uploaded])))
+            {
+                uploaded++;
+            }
+            // the tasks that weren't uploaded are still in the spool
+            if (this.memoryBudget != null)
+            {
+                this.memoryBudget.release(this.batch.size(), this.pendingBytes);
+            }
+            this.pendingBytes = 0;
+            this.oldestPending = 0;
+            this.taskSizes.clear();
+            this.taskIndex.retain(List.of());
+            if (uploaded > 0)
+            {
+                this.spool.acknowledge(spooled.get(uploaded - 1).getEnd(), uploaded);
+            }
+            if (!result.isSuccessful())
+            {
+                throw result.toException();
+            }
+            spooled = this.spool.read(BatchSizer.MAXIMUM_TASKS);
+        }
+    }
+
+    private FlushResult uploadBatchTasks(final long challengeId, final List<Task> data)
             throws MapRouletteException
     {
+        // the tasks are unique as duplicates are combined when they are added, they are copied as
+        // the batch is cleared once the flush is done
         final var uniqueTasks = new ArrayList<Task>(data.size());
         uniqueTasks.addAll(data);
-        // MAXIMUM batch size is 500, so if greater than 500, we need to make multiple
-        // requests in groups of 500
-        var succeeded = true;
-        var startIndex = 0;
-        int endIndex;
-        do
+        // the server accepts at most 500 tasks per request, and large chunks of heavy geometries
+        // can time out, so the tasks are split by both count and size
+        final var sizes = new long[uniqueTasks.size()];
+        for (int index = 0; index < sizes.length; index++)
+        {
+            sizes[index] = this.size(uniqueTasks.get(index));
+        }
+        final var chunks = this.batchSizer.split(uniqueTasks, sizes);
+        final var result = new FlushResult(challengeId, chunks.size());
+        if (this.uploadConcurrency > 1 && chunks.size() > 1)
+        {
+            this.uploadChunksInParallel(challengeId, chunks, result);
+        }
+        else
+        {
+            this.uploadChunks(challengeId, chunks, result);
+        }
+        return result;
+    }
+
+    /**
+     * Uploads the chunks one after another, stopping at the first failure so that a server that is
+     * down isn't hit with every remaining chunk.
+     */
+    private void uploadChunks(final long challengeId, final List<List<Task>> chunks,
+            final FlushResult result)
+    {
+        for (int index = 0; index < chunks.size(); index++)
         {
-            endIndex = Math.min(startIndex + MAXIMUM_BATCH_SIZE, uniqueTasks.size());
-            final var uploadList = uniqueTasks.subList(startIndex, endIndex);
-            succeeded &= internalUploadBatchTasks(challengeId, uploadList);
-            startIndex += MAXIMUM_BATCH_SIZE;
+            final var chunk = chunks.get(index);
+            if (!result.getFailures().isEmpty())
+            {
+                result.chunkSkipped(chunk);
+                continue;
+            }
+            try
+            {
+                this.internalUploadBatchTasks(challengeId, chunk);
+                result.chunkUploaded(chunk);
+            }
+            catch (final MapRouletteException | MapRouletteRuntimeException e)
+            {
+                result.chunkFailed(index, chunk, e);
+            }
         }
-        while (endIndex != uniqueTasks.size() - 1 && startIndex < uniqueTasks.size());
-        return succeeded;
+    }
+
+    /**
+     * Uploads the chunks concurrently, with at most {@link #uploadConcurrency} requests in flight.
+     * Every chunk is attempted and the failures are aggregated in the result.
+     */
+    private void uploadChunksInParallel(final long challengeId, final List<List<Task>> chunks,
+            final FlushResult result)
+    {
+        final var executor = this.uploadExecutor();
+        final var futures = new ArrayList<Future<?>>(chunks.size());
+        chunks.forEach(chunk -> futures
+                .add(executor.submit(() -> this.internalUploadBatchTasks(challengeId, chunk))));
+        for (int index = 0; index < chunks.size(); index++)
+        {
+            try
+            {
+                futures.get(index).get();
+                result.chunkUploaded(chunks.get(index));
+            }
+            catch (final ExecutionException e)
+            {
+                result.chunkFailed(index, chunks.get(index),
+                        e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            }
+            catch (final CancellationException e)
+            {
+                result.chunkFailed(index, chunks.get(index), e);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                result.chunkFailed(index, chunks.get(index), e);
+            }
+        }
+    }
+
+    /**
+     * Gets the threads that upload chunks concurrently, which are kept for the following flushes
+     * instead of being created for every flush. The threads stop once they have been idle for a
+     * while, so a batch that is never closed doesn't hold on to them.
+     */
+    private ThreadPoolExecutor uploadExecutor()
+    {
+        // the threads are replaced if the upload concurrency was changed since they were created
+        if (this.uploadExecutor != null
+                && this.uploadExecutor.getMaximumPoolSize() != this.uploadConcurrency)
+        {
+            this.uploadExecutor.shutdown();
+            this.uploadExecutor = null;
+        }
+        if (this.uploadExecutor == null)
+        {
+            this.uploadExecutor = new ThreadPoolExecutor(this.uploadConcurrency,
+                    this.uploadConcurrency, UPLOAD_THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), this.uploadThreadFactory());
+            this.uploadExecutor.allowCoreThreadTimeOut(true);
+        }
+        return this.uploadExecutor;
+    }
+
+    private ThreadFactory uploadThreadFactory()
+    {
+        final var counter = new AtomicInteger();
+        return runnable ->
+        {
+            final var thread = new Thread(runnable, String.format("maproulette-upload-%d-%d",
+                    this.challengeId, counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     private boolean internalUploadBatchTasks(final long parentChallengeId, final List<Task> data)
@@ -168,19 +665,28 @@ public class ChallengeBatch
         }
         this.logger.debug("Uploading batch of {} tasks for challenge {}", data.size(),
                 parentChallengeId);
+        // the tasks are serialized straight to the request stream while it is being sent. Tasks
+        // are matched by name within the challenge, so repeating the upload after a failure
+        // updates the tasks instead of duplicating them and it is safe to retry
+        final Query query = Query.builder().post(QueryConstants.URI_TASK_POST + "s")
+                .dataEntity(new JsonEntity(this.mapper, data)).idempotent(true).build();
+        final var start = System.currentTimeMillis();
+        var successful = false;
         try
         {
-            final var postData = this.mapper.createArrayNode();
-            data.forEach(task -> postData.add(this.mapper.convertValue(task, JsonNode.class)));
-            final var postDataString = this.mapper.writeValueAsString(postData);
-            final Query query = Query.builder().post(QueryConstants.URI_TASK_POST + "s")
-                    .data(postDataString).build();
             this.connection.execute(query);
-            return true;
+            successful = true;
+            this.metrics.count(MetricNames.BATCH_UPLOADED_TASKS, data.size(),
+                    MetricNames.TAG_CHALLENGE, String.valueOf(parentChallengeId));
+            if (this.manifest != null)
+            {
+                this.manifest.update(parentChallengeId, data);
+            }
         }
-        catch (final JsonProcessingException e)
+        finally
         {
-            throw new MapRouletteException(e);
+            this.batchSizer.record(System.currentTimeMillis() - start, successful);
         }
+        return true;
     }
 }
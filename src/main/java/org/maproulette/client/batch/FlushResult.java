@@ -0,0 +1,106 @@
+package org.maproulette.client.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+
+import lombok.Getter;
+
+/**
+ * The aggregated result of flushing a {@link ChallengeBatch}. A flush is split into chunks that are
+ * uploaded individually, this keeps track of which of those chunks succeeded and which failed so
+ * that only the failed tasks need to be uploaded again.
+ *
+ * @author mcuthbert
+ */
+@Getter
+public class FlushResult
+{
+    /**
+     * A single chunk that failed to upload
+     */
+    @Getter
+    public static class ChunkFailure
+    {
+        private final int index;
+        private final List<Task> tasks;
+        private final Exception cause;
+
+        public ChunkFailure(final int index, final List<Task> tasks, final Exception cause)
+        {
+            this.index = index;
+            this.tasks = tasks;
+            this.cause = cause;
+        }
+    }
+
+    private final long challengeId;
+    private final int totalChunks;
+    private int uploadedChunks = 0;
+    private int uploadedTasks = 0;
+    private final List<ChunkFailure> failures = new ArrayList<>();
+    private final List<Task> remainingTasks = new ArrayList<>();
+
+    public FlushResult(final long challengeId, final int totalChunks)
+    {
+        this.challengeId = challengeId;
+        this.totalChunks = totalChunks;
+    }
+
+    public List<ChunkFailure> getFailures()
+    {
+        return Collections.unmodifiableList(this.failures);
+    }
+
+    /**
+     * @return All the tasks that were not uploaded, either because their chunk failed or because
+     *         the flush stopped before the chunk was attempted
+     */
+    public List<Task> getRemainingTasks()
+    {
+        return Collections.unmodifiableList(this.remainingTasks);
+    }
+
+    public boolean isSuccessful()
+    {
+        return this.failures.isEmpty() && this.remainingTasks.isEmpty();
+    }
+
+    /**
+     * Builds a single exception describing all the failed chunks, the first failure is used as the
+     * cause and the rest are added as suppressed exceptions.
+     *
+     * @return A {@link MapRouletteException} for the failed flush
+     */
+    public MapRouletteException toException()
+    {
+        final var exception = new MapRouletteException(String.format(
+                "Failed to upload %d of %d chunks (%d tasks) for challenge %d",
+                this.totalChunks - this.uploadedChunks, this.totalChunks,
+                this.remainingTasks.size(), this.challengeId),
+                this.failures.isEmpty() ? null : this.failures.get(0).getCause());
+        this.failures.stream().skip(1).map(ChunkFailure::getCause)
+                .forEach(exception::addSuppressed);
+        return exception;
+    }
+
+    void chunkUploaded(final List<Task> tasks)
+    {
+        this.uploadedChunks++;
+        this.uploadedTasks += tasks.size();
+    }
+
+    void chunkFailed(final int index, final List<Task> tasks, final Exception cause)
+    {
+        this.failures.add(new ChunkFailure(index, tasks, cause));
+        this.remainingTasks.addAll(tasks);
+    }
+
+    void chunkSkipped(final List<Task> tasks)
+    {
+        this.remainingTasks.addAll(tasks);
+    }
+}
@@ -0,0 +1,110 @@
+package org.maproulette.client.batch;
+
+import lombok.Getter;
+
+/**
+ * Accounts for the tasks, and their estimated serialized size, that are queued in memory across
+ * all the batches of an uploader. The uploader checks the budget whenever a task is added and
+ * either flushes batches until the budget is met again or rejects the task, so memory stays flat
+ * regardless of how many challenges an upload touches.
+ *
+ * @author mcuthbert
+ */
+@Getter
+public class MemoryBudget
+{
+    /**
+     * What happens when a task is added while the budget is exceeded
+     */
+    public enum Policy
+    {
+        /**
+         * The producer blocks while batches are flushed until the budget is met
+         */
+        BLOCK,
+        /**
+         * The task is rejected with an exception, the producer needs to flush
+         */
+        REJECT
+    }
+
+    /**
+     * Which batch is flushed first when the budget is exceeded
+     */
+    public enum FlushOrder
+    {
+        /**
+         * The batch with the most queued bytes, or tasks if bytes aren't accounted
+         */
+        LARGEST,
+        /**
+         * The batch whose oldest queued task has been waiting the longest
+         */
+        OLDEST
+    }
+
+    private final long maximumTasks;
+    private final long maximumBytes;
+    private final Policy policy;
+    private final FlushOrder flushOrder;
+    private long tasks = 0;
+    private long bytes = 0;
+
+    /**
+     * @param maximumTasks
+     *            The maximum number of tasks queued in memory, 0 for no limit
+     * @param maximumBytes
+     *            The maximum estimated size in bytes of the tasks queued in memory, 0 for no limit
+     * @param policy
+     *            What happens when a task is added while the budget is exceeded
+     * @param flushOrder
+     *            Which batch is flushed first when the budget is exceeded
+     */
+    public MemoryBudget(final long maximumTasks, final long maximumBytes, final Policy policy,
+            final FlushOrder flushOrder)
+    {
+        this.maximumTasks = maximumTasks;
+        this.maximumBytes = maximumBytes;
+        this.policy = policy;
+        this.flushOrder = flushOrder;
+    }
+
+    public synchronized long getTasks()
+    {
+        return this.tasks;
+    }
+
+    public synchronized long getBytes()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * @return true if the size of the queued tasks needs to be estimated
+     */
+    public boolean isAccountingBytes()
+    {
+        return this.maximumBytes > 0;
+    }
+
+    /**
+     * @return true if either the task or the byte limit has been reached
+     */
+    public synchronized boolean isExceeded()
+    {
+        return this.maximumTasks > 0 && this.tasks >= this.maximumTasks
+                || this.maximumBytes > 0 && this.bytes >= this.maximumBytes;
+    }
+
+    synchronized void add(final long taskCount, final long byteCount)
+    {
+        this.tasks += taskCount;
+        this.bytes += byteCount;
+    }
+
+    synchronized void release(final long taskCount, final long byteCount)
+    {
+        this.tasks = Math.max(0, this.tasks - taskCount);
+        this.bytes = Math.max(0, this.bytes - byteCount);
+    }
+}
@@ -2,17 +2,24 @@ package org.maproulette.client.batch;
 
 import static org.maproulette.client.utilities.ThrowingConsumer.throwingConsumerWrapper;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.IdentifierCache;
 import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.connection.IMapRouletteConnection;
 import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
 import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
 import org.maproulette.client.model.Challenge;
 import org.maproulette.client.model.Project;
 import org.maproulette.client.model.Task;
 
+import lombok.Setter;
+
 /**
  * A class wrapping all the {@link ChallengeBatch}s for a specific project. There can be multiple
  * challenges per project.
@@ -23,30 +30,108 @@ public class ProjectBatch
 {
     private final Map<Long, ChallengeBatch> batch = new ConcurrentHashMap<>();
     private final MapRouletteConfiguration configuration;
+    private final IMapRouletteConnection connection;
+    private final ChallengeAPI challengeAPI;
     private final long projectId;
+    /**
+     * The manifest passed on to the challenge batches for a delta sync
+     */
+    @Setter
+    private TaskManifest manifest;
+    /**
+     * The memory budget passed on to the challenge batches
+     */
+    @Setter
+    private MemoryBudget memoryBudget;
 
     public ProjectBatch(final long projectId, final MapRouletteConfiguration configuration)
+    {
+        this(projectId, configuration, new MapRouletteConnection(configuration));
+    }
+
+    /**
+     * @param projectId
+     *            The identifier of the project
+     * @param configuration
+     *            The configuration for the MapRoulette server
+     * @param connection
+     *            The connection shared by all the challenge batches in the project
+     */
+    public ProjectBatch(final long projectId, final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection)
+    {
+        this(projectId, configuration, connection,
+                new ChallengeAPI(connection, new IdentifierCache(configuration)));
+    }
+
+    /**
+     * @param projectId
+     *            The identifier of the project
+     * @param configuration
+     *            The configuration for the MapRoulette server
+     * @param connection
+     *            The connection shared by all the challenge batches in the project
+     * @param challengeAPI
+     *            The API used to resolve the challenge identifiers, its identifier cache can be
+     *            shared across projects
+     */
+    public ProjectBatch(final long projectId, final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection, final ChallengeAPI challengeAPI)
     {
         this.projectId = projectId;
         this.configuration = configuration;
+        this.connection = connection;
+        this.challengeAPI = challengeAPI;
     }
 
     public ProjectBatch(final Project project, final MapRouletteConfiguration configuration)
+    {
+        this(project, configuration, new MapRouletteConnection(configuration));
+    }
+
+    /**
+     * Creates the project if it doesn't exist yet
+     *
+     * @param project
+     *            The project to create if not exists on the server
+     * @param configuration
+     *            The configuration for the MapRoulette server
+     * @param connection
+     *            The connection shared by all the challenge batches in the project
+     */
+    public ProjectBatch(final Project project, final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection)
+    {
+        this(project, configuration, connection, new ProjectAPI(connection),
+                new ChallengeAPI(connection, new IdentifierCache(configuration)));
+    }
+
+    /**
+     * Creates the project if it doesn't exist yet
+     *
+     * @param project
+     *            The project to create if not exists on the server
+     * @param configuration
+     *            The configuration for the MapRoulette server
+     * @param connection
+     *            The connection shared by all the challenge batches in the project
+     * @param projectAPI
+     *            The API used to resolve the project identifier, its identifier cache can be shared
+     *            across projects
+     * @param challengeAPI
+     *            The API used to resolve the challenge identifiers, its identifier cache can be
+     *            shared across projects
+     */
+    public ProjectBatch(final Project project, final MapRouletteConfiguration configuration,
+            final IMapRouletteConnection connection, final ProjectAPI projectAPI,
+            final ChallengeAPI challengeAPI)
     {
         this.configuration = configuration;
-        final var projectAPI = new ProjectAPI(configuration);
+        this.connection = connection;
+        this.challengeAPI = challengeAPI;
         try
         {
-            final var batchProject = projectAPI.get(project.getName());
-            if (batchProject.isEmpty())
-            {
-                final var newProject = projectAPI.create(project);
-                this.projectId = newProject.getId();
-            }
-            else
-            {
-                this.projectId = batchProject.get().getId();
-            }
+            this.projectId = projectAPI.resolveIdentifier(project);
         }
         catch (final MapRouletteException e)
         {
@@ -76,7 +161,7 @@ public class ProjectBatch
         final long challengeId;
         if (challenge.getId() < 0)
         {
-            challengeId = ChallengeBatch.getChallengeId(this.configuration, challenge);
+            challengeId = ChallengeBatch.getChallengeId(this.challengeAPI, challenge);
             challenge.setId(challengeId);
         }
         else
@@ -85,7 +170,7 @@ public class ProjectBatch
         }
 
         final var challengeBatch = this.batch.computeIfAbsent(challengeId,
-                k -> new ChallengeBatch(this.configuration, challenge));
+                this::createChallengeBatch);
 
         task.setParent(challengeId);
         challengeBatch.addTask(task);
@@ -93,6 +178,14 @@ public class ProjectBatch
         return challengeId;
     }
 
+    /**
+     * @return The batches of all the challenges that tasks have been added to
+     */
+    public Collection<ChallengeBatch> getChallengeBatches()
+    {
+        return this.batch.values();
+    }
+
     /**
      * Flush a specific challenge found in the project to MapRoulette
      *
@@ -120,4 +213,13 @@ public class ProjectBatch
     {
         this.batch.keySet().forEach(throwingConsumerWrapper(key -> this.batch.get(key).flush()));
     }
+
+    private ChallengeBatch createChallengeBatch(final long challengeId)
+    {
+        final var challengeBatch = new ChallengeBatch(this.connection, this.configuration,
+                challengeId);
+        challengeBatch.setManifest(this.manifest);
+        challengeBatch.setMemoryBudget(this.memoryBudget);
+        return challengeBatch;
+    }
 }
@@ -0,0 +1,400 @@
+package org.maproulette.client.batch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.maproulette.client.model.Task;
+
+/**
+ * An index over the tasks queued in a batch, so that adding a task that is already queued replaces
+ * or merges it instead of uploading it twice. Tasks are matched with {@link Task#equals(Object)},
+ * so by identifier, or by name within the challenge when either task has no identifier. A task is
+ * therefore indexed under its identifier and under its name, and to keep the index small for
+ * batches of many tasks it only stores a 64 bit hash of each along with the position of the task
+ * in the batch, in primitive arrays with open addressing. Hash collisions are resolved by
+ * comparing the queued tasks themselves.
+ *
+ * @author mcuthbert
+ */
+public class TaskIndex
+{
+    /**
+     * How a task is combined with a queued task that it duplicates
+     */
+    public enum Policy
+    {
+        /**
+         * The new task replaces the queued task
+         */
+        LAST_WRITE_WINS,
+        /**
+         * The fields set on the new task overwrite those of the queued task and the tags of both
+         * are kept, in a copy that replaces the queued task
+         */
+        MERGE
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int EMPTY = -1;
+    private static final long NO_IDENTIFIER = -1;
+    private final Policy policy;
+    private final List<Task> tasks;
+    private long[] keys;
+    private int[] positions;
+    private int used = 0;
+    private long duplicates = 0;
+
+    /**
+     * @param policy
+     *            How duplicate tasks are combined
+     * @param tasks
+     *            The list of queued tasks that is indexed, tasks must only be added to it through
+     *            {@link #add(Task)}
+     */
+    public TaskIndex(final Policy policy, final List<Task> tasks)
+    {
+        this.policy = policy;
+        this.tasks = tasks;
+        this.rebuild();
+    }
+
+    /**
+     * Adds a task to the batch, or combines it with the queued task it duplicates
+     *
+     * @param task
+     *            The task to add
+     * @return true if the task was added, false if it was combined with a queued task
+     */
+    public boolean add(final Task task)
+    {
+        final var position = this.indexOf(task);
+        if (position != EMPTY)
+        {
+            this.duplicates++;
+            // the combined task may have another identifier or name than the queued task
+            final var combined = this.combine(this.tasks.get(position), task);
+            this.unindex(this.tasks.get(position));
+            this.tasks.set(position, combined);
+            this.index(combined, position);
+            return false;
+        }
+        this.index(task, this.tasks.size());
+        this.tasks.add(task);
+        return true;
+    }
+
+    /**
+     * @return The number of tasks that were combined with a queued task instead of being added
+     */
+    public long getDuplicateCount()
+    {
+        return this.duplicates;
+    }
+
+    /**
+     * @param task
+     *            The task to look up
+     * @return The position in the batch of the queued task that the task duplicates, or -1 if it
+     *         isn't queued
+     */
+    public int indexOf(final Task task)
+    {
+        if (hasIdentifierKey(task))
+        {
+            final var position = this.lookup(identifierKey(task), task);
+            if (position != EMPTY)
+            {
+                return position;
+            }
+        }
+        return this.lookup(nameKey(task), task);
+    }
+
+    /**
+     * Removes the tasks that aren't in the given list from the batch, for instance once they have
+     * been flushed. Only the keys of the removed tasks and the positions of the kept tasks are
+     * updated, so the index isn't rebuilt.
+     *
+     * @param remaining
+     *            The queued tasks to keep, in the order of the batch
+     */
+    public void retain(final List<Task> remaining)
+    {
+        if (remaining.isEmpty())
+        {
+            Arrays.fill(this.positions, EMPTY);
+            this.used = 0;
+            this.tasks.clear();
+            return;
+        }
+        final var kept = Collections.newSetFromMap(new IdentityHashMap<Task, Boolean>());
+        kept.addAll(remaining);
+        for (final var task : this.tasks)
+        {
+            if (!kept.contains(task))
+            {
+                this.unindex(task);
+            }
+        }
+        // the slots are all found before any position changes, as the lookup uses the positions
+        final var slots = new int[remaining.size() * 2];
+        for (int position = 0; position < remaining.size(); position++)
+        {
+            final var task = remaining.get(position);
+            slots[position * 2] = hasIdentifierKey(task)
+                    ? this.find(identifierKey(task), task) : EMPTY;
+            slots[position * 2 + 1] = this.find(nameKey(task), task);
+        }
+        for (int index = 0; index < slots.length; index++)
+        {
+            if (slots[index] != EMPTY)
+            {
+                this.positions[slots[index]] = index / 2;
+            }
+        }
+        this.tasks.clear();
+        this.tasks.addAll(remaining);
+    }
+
+    /**
+     * Rebuilds the index from the list of tasks, this needs to be called after the list was
+     * modified directly. Duplicates already in the list are kept.
+     */
+    public void rebuild()
+    {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.positions = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.positions, EMPTY);
+        this.used = 0;
+        for (int position = 0; position < this.tasks.size(); position++)
+        {
+            this.index(this.tasks.get(position), position);
+        }
+    }
+
+    /**
+     * @return The number of indexed tasks
+     */
+    public int size()
+    {
+        return this.tasks.size();
+    }
+
+    /**
+     * Every task has a name key, as it equals the tasks without an identifier that have the same
+     * name, and a task with an identifier also has an identifier key, as it equals the tasks with
+     * the same identifier whatever their name
+     */
+    private static boolean hasIdentifierKey(final Task task)
+    {
+        return task.getId() != NO_IDENTIFIER;
+    }
+
+    private static long identifierKey(final Task task)
+    {
+        return (FNV_OFFSET ^ task.getId()) * FNV_PRIME;
+    }
+
+    private static long nameKey(final Task task)
+    {
+        var hash = FNV_OFFSET ^ task.getParent();
+        final var name = task.getName() == null ? "" : task.getName();
+        for (int index = 0; index < name.length(); index++)
+        {
+            hash = (hash ^ name.charAt(index)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private void index(final Task task, final int position)
+    {
+        if (hasIdentifierKey(task))
+        {
+            this.insert(identifierKey(task), position);
+        }
+        this.insert(nameKey(task), position);
+    }
+
+    private void unindex(final Task task)
+    {
+        if (hasIdentifierKey(task))
+        {
+            this.delete(this.find(identifierKey(task), task));
+        }
+        this.delete(this.find(nameKey(task), task));
+    }
+
+    private int lookup(final long key, final Task task)
+    {
+        final var mask = this.keys.length - 1;
+        for (int slot = slot(key, mask); this.positions[slot] != EMPTY; slot = (slot + 1) & mask)
+        {
+            final var position = this.positions[slot];
+            if (this.keys[slot] == key && this.tasks.get(position).equals(task))
+            {
+                return position;
+            }
+        }
+        return EMPTY;
+    }
+
+    private Task combine(final Task queued, final Task task)
+    {
+        if (this.policy == Policy.LAST_WRITE_WINS)
+        {
+            return task;
+        }
+        final var merged = copy(queued);
+        if (task.getInstruction() != null)
+        {
+            merged.setInstruction(task.getInstruction());
+        }
+        if (task.getLocation() != null)
+        {
+            merged.setLocation(task.getLocation());
+        }
+        if (task.getStatus() != null)
+        {
+            merged.setStatus(task.getStatus());
+        }
+        if (task.getPriority() != null)
+        {
+            merged.setPriority(task.getPriority());
+        }
+        // the compact geometries are copied as they are, instead of being turned into a tree
+        final var compactGeometries = task.getCompactGeometries();
+        if (compactGeometries != null)
+        {
+            merged.setCompactGeometries(compactGeometries);
+        }
+        else if (task.getGeometries() != null)
+        {
+            merged.setGeometries(task.getGeometries());
+        }
+        if (task.getTags() != null)
+        {
+            final var tags = new LinkedHashSet<String>();
+            if (queued.getTags() != null)
+            {
+                tags.addAll(queued.getTags());
+            }
+            tags.addAll(task.getTags());
+            merged.setTags(List.copyOf(tags));
+        }
+        return merged;
+    }
+
+    /**
+     * Copies a queued task, as the caller that added it may still hold on to it. The fields are
+     * copied one by one, as the task builder would try to build geometries for a task that has
+     * none.
+     */
+    private static Task copy(final Task queued)
+    {
+        final var copy = new Task();
+        copy.setId(queued.getId());
+        copy.setParent(queued.getParent());
+        copy.setName(queued.getName());
+        copy.setInstruction(queued.getInstruction());
+        copy.setLocation(queued.getLocation());
+        copy.setStatus(queued.getStatus());
+        copy.setPriority(queued.getPriority());
+        final var compactGeometries = queued.getCompactGeometries();
+        if (compactGeometries != null)
+        {
+            copy.setCompactGeometries(compactGeometries);
+        }
+        else
+        {
+            copy.setGeometries(queued.getGeometries());
+        }
+        copy.setTags(queued.getTags());
+        copy.setCompletedBy(queued.getCompletedBy());
+        copy.setCompletedTimeSpent(queued.getCompletedTimeSpent());
+        copy.setMappedOn(queued.getMappedOn());
+        copy.setErrorTags(queued.getErrorTags());
+        return copy;
+    }
+
+    /**
+     * Removes the key in a slot, moving the keys that follow it back so that no lookup has to probe
+     * past an empty slot to find them
+     */
+    private void delete(final int slot)
+    {
+        final var mask = this.keys.length - 1;
+        var hole = slot;
+        for (int next = (slot + 1) & mask; this.positions[next] != EMPTY; next = (next + 1) & mask)
+        {
+            // a key can move back into the hole if the hole is between its slot and where it is
+            final var home = slot(this.keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask))
+            {
+                this.keys[hole] = this.keys[next];
+                this.positions[hole] = this.positions[next];
+                hole = next;
+            }
+        }
+        this.positions[hole] = EMPTY;
+        this.used--;
+    }
+
+    /**
+     * @return The slot of a key of a queued task, which is compared by reference
+     */
+    private int find(final long key, final Task task)
+    {
+        final var mask = this.keys.length - 1;
+        var slot = slot(key, mask);
+        while (this.positions[slot] == EMPTY || this.keys[slot] != key
+                || this.tasks.get(this.positions[slot]) != task)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(final long key, final int position)
+    {
+        if ((this.used + 1) * 2 > this.keys.length)
+        {
+            this.resize(this.keys.length * 2);
+        }
+        final var mask = this.keys.length - 1;
+        var slot = slot(key, mask);
+        while (this.positions[slot] != EMPTY)
+        {
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.positions[slot] = position;
+        this.used++;
+    }
+
+    private void resize(final int capacity)
+    {
+        final var oldKeys = this.keys;
+        final var oldPositions = this.positions;
+        this.keys = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.positions, EMPTY);
+        this.used = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++)
+        {
+            if (oldPositions[slot] != EMPTY)
+            {
+                this.insert(oldKeys[slot], oldPositions[slot]);
+            }
+        }
+    }
+
+    private static int slot(final long key, final int mask)
+    {
+        return (int) (key ^ (key >>> Integer.SIZE)) & mask;
+    }
+}
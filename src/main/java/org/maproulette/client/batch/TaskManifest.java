@@ -0,0 +1,212 @@
+package org.maproulette.client.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A local manifest of the content hash of every task uploaded per challenge, used to only upload
+ * the tasks that are new or changed since the previous run. The hash covers the geometries,
+ * instruction, tags and priority of a task. The manifest also keeps track of the tasks seen during
+ * the current run, so that tasks that were uploaded previously but are no longer produced can be
+ * found.
+ *
+ * @author mcuthbert
+ */
+public class TaskManifest
+{
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final Path path;
+    private final Map<Long, Map<String, Long>> hashes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> seen = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the manifest from a file, an empty manifest is created if the file doesn't exist yet
+     *
+     * @param path
+     *            The file the manifest is stored in
+     * @return The manifest
+     * @throws MapRouletteException
+     *             if the file can't be read
+     */
+    public static TaskManifest load(final Path path) throws MapRouletteException
+    {
+        final var manifest = new TaskManifest(path);
+        if (path != null && Files.exists(path))
+        {
+            try (var inputStream = Files.newInputStream(path))
+            {
+                final Map<Long, Map<String, Long>> stored = manifest.mapper.readValue(inputStream,
+                        new TypeReference<Map<Long, Map<String, Long>>>()
+                        {
+                        });
+                stored.forEach((challengeId, tasks) -> manifest.hashes.put(challengeId,
+                        new ConcurrentHashMap<>(tasks)));
+            }
+            catch (final IOException e)
+            {
+                throw new MapRouletteException(
+                        String.format("Failed to read task manifest %s", path), e);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @param path
+     *            The file the manifest is saved to, null for a manifest that is only kept in memory
+     */
+    public TaskManifest(final Path path)
+    {
+        this.path = path;
+    }
+
+    /**
+     * @return The challenges that tasks were seen for in the current run
+     */
+    public Set<Long> getSeenChallenges()
+    {
+        return Set.copyOf(this.seen.keySet());
+    }
+
+    /**
+     * Gets the tasks that were uploaded in a previous run but haven't been seen in the current run
+     *
+     * @param challengeId
+     *            The identifier of the challenge
+     * @return The names of the missing tasks
+     */
+    public Set<String> getMissing(final long challengeId)
+    {
+        final var missing = new HashSet<>(this.hashes.getOrDefault(challengeId, Map.of()).keySet());
+        missing.removeAll(this.seen.getOrDefault(challengeId, Set.of()));
+        return missing;
+    }
+
+    /**
+     * Checks whether a task is new or has changed since it was last uploaded, and marks it as seen
+     * in the current run
+     *
+     * @param challengeId
+     *            The identifier of the challenge of the task
+     * @param task
+     *            The task to check
+     * @return true if the task needs to be uploaded
+     * @throws MapRouletteException
+     *             if the task can't be hashed
+     */
+    public boolean isChanged(final long challengeId, final Task task) throws MapRouletteException
+    {
+        this.seen.computeIfAbsent(challengeId, key -> ConcurrentHashMap.newKeySet())
+                .add(task.getName());
+        final var previous = this.hashes.getOrDefault(challengeId, Map.of()).get(task.getName());
+        return previous == null || previous != this.hash(task);
+    }
+
+    /**
+     * Removes a task from the manifest, so that it will be uploaded again by the next run
+     *
+     * @param challengeId
+     *            The identifier of the challenge of the task
+     * @param name
+     *            The name of the task
+     */
+    public void remove(final long challengeId, final String name)
+    {
+        final var tasks = this.hashes.get(challengeId);
+        if (tasks != null)
+        {
+            tasks.remove(name);
+        }
+    }
+
+    /**
+     * Saves the manifest, the file is replaced atomically so that a failure while saving doesn't
+     * corrupt the previous manifest
+     *
+     * @throws MapRouletteException
+     *             if the file can't be written
+     */
+    public void save() throws MapRouletteException
+    {
+        if (this.path == null)
+        {
+            return;
+        }
+        try
+        {
+            final var temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+            try (var outputStream = Files.newOutputStream(temporary))
+            {
+                this.mapper.writeValue(outputStream, this.hashes);
+            }
+            Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(
+                    String.format("Failed to write task manifest %s", this.path), e);
+        }
+    }
+
+    /**
+     * Records the content of tasks that have been uploaded
+     *
+     * @param challengeId
+     *            The identifier of the challenge of the tasks
+     * @param tasks
+     *            The uploaded tasks
+     * @throws MapRouletteException
+     *             if a task can't be hashed
+     */
+    public void update(final long challengeId, final Collection<Task> tasks)
+            throws MapRouletteException
+    {
+        final var challengeHashes = this.hashes.computeIfAbsent(challengeId,
+                key -> new ConcurrentHashMap<>());
+        for (final var task : tasks)
+        {
+            challengeHashes.put(task.getName(), this.hash(task));
+        }
+    }
+
+    private long hash(final Task task) throws MapRouletteException
+    {
+        try
+        {
+            final var content = this.mapper.createObjectNode();
+            // both forms of the geometries serialize the same, so they hash the same
+            final var compactGeometries = task.getCompactGeometries();
+            content.putPOJO("geometries",
+                    compactGeometries == null ? task.getGeometries() : compactGeometries);
+            content.put("instruction", task.getInstruction());
+            content.set("tags", this.mapper.valueToTree(task.getTags()));
+            content.set("priority", this.mapper.valueToTree(task.getPriority()));
+            final var digest = MessageDigest.getInstance(HASH_ALGORITHM)
+                    .digest(this.mapper.writeValueAsBytes(content));
+            return ByteBuffer.wrap(digest).getLong();
+        }
+        catch (final IOException | NoSuchAlgorithmException e)
+        {
+            throw new MapRouletteException(e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.maproulette.client.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+
+/**
+ * An append only, memory mapped spool of the tasks queued for a challenge, so that queued tasks
+ * survive the JVM dying and don't need to be kept in memory. Every task is appended as a length
+ * prefixed json record followed by an empty record that marks the end of the spool. The length of
+ * a record is written last, so a record only becomes visible once it has been written completely.
+ * A separate memory mapped checkpoint holds the offset of the first record that hasn't been
+ * acknowledged as uploaded, reopening the spool resumes from that record. Once every record has
+ * been acknowledged the spool starts from the beginning of the file again.
+ *
+ * @author mcuthbert
+ */
+public final class TaskSpool implements Closeable
+{
+    /**
+     * A task read from the spool along with the offset where its record ends and the size of its
+     * record, which is the serialized size of the task
+     */
+    @Getter
+    public static final class SpooledTask
+    {
+        private final Task task;
+        private final long end;
+        private final int size;
+
+        SpooledTask(final Task task, final long end, final int size)
+        {
+            this.task = task;
+            this.end = end;
+            this.size = size;
+        }
+    }
+
+    private static final String SPOOL_FORMAT = "challenge-%d.spool";
+    private static final Pattern SPOOL_PATTERN = Pattern.compile("challenge-(\\d+)\\.spool");
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final long SEGMENT_SIZE = 16L * 1024 * 1024;
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final Path path;
+    private final FileChannel channel;
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long position;
+    private long pending;
+
+    /**
+     * Gets the challenges that have a spool in a directory, used to recover the tasks spooled by a
+     * previous run
+     *
+     * @param directory
+     *            The spool directory
+     * @return The identifiers of the challenges
+     * @throws MapRouletteException
+     *             if the directory can't be listed
+     */
+    public static List<Long> challenges(final Path directory) throws MapRouletteException
+    {
+        if (!Files.isDirectory(directory))
+        {
+            return List.of();
+        }
+        try (var files = Files.list(directory))
+        {
+            return files.map(file -> SPOOL_PATTERN.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches())
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .collect(Collectors.toList());
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(e);
+        }
+    }
+
+    /**
+     * Opens the spool of a challenge, creating it if it doesn't exist yet
+     *
+     * @param directory
+     *            The spool directory
+     * @param challengeId
+     *            The identifier of the challenge
+     * @return The spool
+     * @throws MapRouletteException
+     *             if the spool can't be opened
+     */
+    public static TaskSpool open(final Path directory, final long challengeId)
+            throws MapRouletteException
+    {
+        try
+        {
+            Files.createDirectories(directory);
+            return new TaskSpool(directory.resolve(String.format(SPOOL_FORMAT, challengeId)));
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(
+                    String.format("Failed to open the task spool for challenge %d", challengeId),
+                    e);
+        }
+    }
+
+    private TaskSpool(final Path path) throws IOException
+    {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.checkpointChannel = FileChannel.open(
+                path.resolveSibling(path.getFileName() + CHECKPOINT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpoint = this.checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Long.BYTES);
+        // find the end of the spool, counting the records that haven't been acknowledged yet
+        this.position = this.checkpoint.getLong(0);
+        var length = this.readLength(this.position);
+        while (length > 0)
+        {
+            this.position += Integer.BYTES + length;
+            this.pending++;
+            length = this.readLength(this.position);
+        }
+    }
+
+    /**
+     * Marks all the records up to an offset as uploaded
+     *
+     * @param offset
+     *            The offset where the last uploaded record ends
+     * @param count
+     *            The number of records that were uploaded
+     * @throws MapRouletteException
+     *             if the spool can't be reset once all the records have been uploaded
+     */
+    public synchronized void acknowledge(final long offset, final int count)
+            throws MapRouletteException
+    {
+        this.pending -= count;
+        if (offset >= this.position)
+        {
+            // everything has been uploaded, so the spool can start over
+            try
+            {
+                this.map(0, Integer.BYTES).putInt(0, 0);
+            }
+            catch (final IOException e)
+            {
+                throw new MapRouletteException(e);
+            }
+            this.position = 0;
+            this.pending = 0;
+            this.checkpoint.putLong(0, 0);
+        }
+        else
+        {
+            this.checkpoint.putLong(0, offset);
+        }
+        this.checkpoint.force();
+    }
+
+    /**
+     * Appends a task to the spool
+     *
+     * @param task
+     *            The task to append
+     * @throws MapRouletteException
+     *             if the task can't be serialized or written
+     */
+    public synchronized void append(final Task task) throws MapRouletteException
+    {
+        try
+        {
+            final var record = this.mapper.writeValueAsBytes(task);
+            final var buffer = this.map(this.position, Integer.BYTES * 2 + record.length);
+            final var offset = (int) (this.position - this.segmentStart);
+            final var payload = buffer.duplicate();
+            payload.position(offset + Integer.BYTES);
+            payload.put(record);
+            payload.putInt(0);
+            // the length is written last, replacing the end marker of the previous record
+            buffer.putInt(offset, record.length);
+            this.position += Integer.BYTES + record.length;
+            this.pending++;
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(
+                    String.format("Failed to append task %s to spool %s", task.getName(),
+                            this.path),
+                    e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (this.segment != null)
+        {
+            this.segment.force();
+        }
+        this.checkpoint.force();
+        this.channel.close();
+        this.checkpointChannel.close();
+    }
+
+    /**
+     * @return The number of records that haven't been acknowledged yet
+     */
+    public synchronized long getPendingCount()
+    {
+        return this.pending;
+    }
+
+    /**
+     * Reads the records that haven't been acknowledged yet, starting at the checkpoint
+     *
+     * @param maximumTasks
+     *            The maximum number of tasks to read
+     * @return The tasks along with the offsets where their records end
+     * @throws MapRouletteException
+     *             if the spool can't be read
+     */
+    public synchronized List<SpooledTask> read(final int maximumTasks) throws MapRouletteException
+    {
+        final var tasks = new ArrayList<SpooledTask>();
+        var offset = this.checkpoint.getLong(0);
+        try
+        {
+            var length = this.readLength(offset);
+            while (length > 0 && tasks.size() < maximumTasks)
+            {
+                final var record = ByteBuffer.allocate(length);
+                if (!this.readFully(record, offset + Integer.BYTES))
+                {
+                    // a record cut short by the end of the file is the end of the spool
+                    break;
+                }
+                offset += Integer.BYTES + length;
+                tasks.add(new SpooledTask(this.mapper.readValue(record.array(), Task.class),
+                        offset, length));
+                length = this.readLength(offset);
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(String.format("Failed to read spool %s", this.path),
+                    e);
+        }
+        return tasks;
+    }
+
+    private MappedByteBuffer map(final long start, final int size) throws IOException
+    {
+        if (this.segment == null || start < this.segmentStart
+                || start + size > this.segmentStart + this.segment.capacity())
+        {
+            this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, start,
+                    Math.max(SEGMENT_SIZE, size));
+            this.segmentStart = start;
+        }
+        return this.segment;
+    }
+
+    /**
+     * Reads until the buffer is full, as a single read of the channel may return fewer bytes
+     *
+     * @return false if the end of the file was reached before the buffer was full
+     */
+    private boolean readFully(final ByteBuffer buffer, final long offset) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (this.channel.read(buffer, offset + buffer.position()) < 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int readLength(final long offset) throws IOException
+    {
+        final var length = ByteBuffer.allocate(Integer.BYTES);
+        if (!this.readFully(length, offset))
+        {
+            return 0;
+        }
+        return length.getInt(0);
+    }
+}
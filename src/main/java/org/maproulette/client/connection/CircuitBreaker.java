@@ -0,0 +1,166 @@
+package org.maproulette.client.connection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A circuit breaker for a MapRoulette server. After the failure threshold is hit by consecutive
+ * failures the circuit opens and all requests fail fast, without waiting for a connection timeout.
+ * Once the open duration has passed the circuit is half open and a single trial request is let
+ * through, closing the circuit if it succeeds or opening it again if it fails. Breakers are shared
+ * per server and settings through {@link #forServer(String, int, long)}.
+ *
+ * @author mcuthbert
+ */
+@Slf4j
+public class CircuitBreaker
+{
+    /**
+     * The state of the circuit
+     */
+    public enum State
+    {
+        /**
+         * Requests are let through
+         */
+        CLOSED,
+        /**
+         * Requests fail fast
+         */
+        OPEN,
+        /**
+         * A single trial request is let through
+         */
+        HALF_OPEN
+    }
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    private final String server;
+    private final int failureThreshold;
+    private final long openDuration;
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt = 0;
+    private boolean trialInFlight = false;
+
+    /**
+     * Gets the breaker shared by all connections to a server with the same settings. Connections
+     * to the same server with other settings get a separate breaker, which is logged as a warning
+     * since the failures of those connections don't count towards each other.
+     *
+     * @param server
+     *            The server the breaker is for
+     * @param failureThreshold
+     *            The number of consecutive failures that open the circuit
+     * @param openDuration
+     *            The time in milliseconds the circuit stays open before a trial request is allowed
+     * @return The shared breaker
+     */
+    public static CircuitBreaker forServer(final String server, final int failureThreshold,
+            final long openDuration)
+    {
+        final var prefix = server + ' ';
+        return BREAKERS.computeIfAbsent(prefix + failureThreshold + '/' + openDuration, key ->
+        {
+            if (BREAKERS.keySet().stream().anyMatch(other -> other.startsWith(prefix)))
+            {
+                log.warn("Connections to MapRoulette server {} use different circuit breaker "
+                        + "settings, the breaker opening after {} failures is not shared with "
+                        + "them", server, failureThreshold);
+            }
+            return new CircuitBreaker(server, failureThreshold, openDuration);
+        });
+    }
+
+    /**
+     * Removes all the shared breakers, so that tests start without any open circuits from other
+     * tests
+     */
+    static void reset()
+    {
+        BREAKERS.clear();
+    }
+
+    public CircuitBreaker(final String server, final int failureThreshold,
+            final long openDuration)
+    {
+        this.server = server;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Checks whether a request can be made, a caller that is allowed to make a request must report
+     * the outcome through {@link #recordSuccess()} or {@link #recordFailure()}, or call
+     * {@link #cancelRequest()} if the request isn't made
+     *
+     * @return true if the request can be made, false if it should fail fast
+     */
+    public synchronized boolean allowRequest()
+    {
+        final var current = this.getState();
+        if (current == State.CLOSED)
+        {
+            return true;
+        }
+        if (current == State.HALF_OPEN && !this.trialInFlight)
+        {
+            this.state = State.HALF_OPEN;
+            this.trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gives back a request that was allowed through {@link #allowRequest()} but was never made, so
+     * that a trial request of a half open circuit can be made by another caller
+     */
+    public synchronized void cancelRequest()
+    {
+        this.trialInFlight = false;
+    }
+
+    /**
+     * @return The current state, an open circuit is reported as half open once the open duration
+     *         has passed
+     */
+    public synchronized State getState()
+    {
+        if (this.state == State.OPEN
+                && System.currentTimeMillis() - this.openedAt >= this.openDuration)
+        {
+            return State.HALF_OPEN;
+        }
+        return this.state;
+    }
+
+    public synchronized void recordFailure()
+    {
+        this.trialInFlight = false;
+        this.failures++;
+        if (this.state == State.HALF_OPEN || this.failures >= this.failureThreshold)
+        {
+            if (this.state != State.OPEN)
+            {
+                log.warn("Opening circuit for MapRoulette server {} after {} failures",
+                        this.server, this.failures);
+            }
+            this.state = State.OPEN;
+            this.openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized void recordSuccess()
+    {
+        if (this.state != State.CLOSED)
+        {
+            log.info("Closing circuit for MapRoulette server {}", this.server);
+        }
+        this.trialInFlight = false;
+        this.failures = 0;
+        this.state = State.CLOSED;
+    }
+}
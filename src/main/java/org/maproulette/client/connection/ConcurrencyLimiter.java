@@ -0,0 +1,147 @@
+package org.maproulette.client.connection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.maproulette.client.exception.MapRouletteException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An adaptive limit on the number of requests in flight to a server, using additive increase and
+ * multiplicative decrease. Every successful request raises the limit by 1/limit, so the limit grows
+ * by about one per round of requests while the server is healthy. A request that was throttled,
+ * failed with a server error or took much longer than the recent average of its endpoint cuts the
+ * limit by the backoff ratio. The averages are kept per endpoint, as quick lookups and large
+ * uploads to the same server have very different latencies. Limiters are shared per server and
+ * settings through {@link #forServer(String, int, int)}.
+ *
+ * @author mcuthbert
+ */
+@Slf4j
+public class ConcurrencyLimiter
+{
+    private static final Map<String, ConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_SPIKE_FACTOR = 2.0;
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private final int maximumLimit;
+    private double limit;
+    // the smoothed latency of each endpoint
+    private final Map<String, Double> averageLatencies = new HashMap<>();
+    private int inFlight = 0;
+
+    /**
+     * Gets the limiter shared by all connections to a server with the same settings. Connections to
+     * the same server with other settings get a separate limiter, which is logged as a warning
+     * since the server is then no longer limited as a whole.
+     *
+     * @param server
+     *            The server the limiter is for
+     * @param initialLimit
+     *            The number of concurrent requests allowed to start with
+     * @param maximumLimit
+     *            The maximum number of concurrent requests the limit can grow to
+     * @return The shared limiter
+     */
+    public static ConcurrencyLimiter forServer(final String server, final int initialLimit,
+            final int maximumLimit)
+    {
+        final var prefix = server + ' ';
+        return LIMITERS.computeIfAbsent(prefix + initialLimit + '/' + maximumLimit, key ->
+        {
+            if (LIMITERS.keySet().stream().anyMatch(other -> other.startsWith(prefix)))
+            {
+                log.warn("Connections to MapRoulette server {} use different concurrency limits, "
+                        + "the limit of {} requests is not shared with them", server,
+                        maximumLimit);
+            }
+            return new ConcurrencyLimiter(initialLimit, maximumLimit);
+        });
+    }
+
+    /**
+     * Removes all the shared limiters, so that tests start without any limits from other tests
+     */
+    static void reset()
+    {
+        LIMITERS.clear();
+    }
+
+    public ConcurrencyLimiter(final int initialLimit, final int maximumLimit)
+    {
+        this.maximumLimit = Math.max(1, maximumLimit);
+        this.limit = Math.max(1, Math.min(initialLimit, this.maximumLimit));
+    }
+
+    /**
+     * Waits until the number of requests in flight is below the limit and then counts the new
+     * request, every call must be followed by a call to {@link #release(String, boolean, long)}
+     *
+     * @throws MapRouletteException
+     *             if the thread is interrupted while waiting
+     */
+    public synchronized void acquire() throws MapRouletteException
+    {
+        try
+        {
+            while (this.inFlight >= this.getLimit())
+            {
+                this.wait();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MapRouletteException("Interrupted while waiting for the concurrency limiter",
+                    e);
+        }
+        this.inFlight++;
+    }
+
+    public synchronized int getInFlight()
+    {
+        return this.inFlight;
+    }
+
+    /**
+     * @return The current number of concurrent requests allowed
+     */
+    public synchronized int getLimit()
+    {
+        return (int) this.limit;
+    }
+
+    /**
+     * Marks a request as completed and adjusts the limit
+     *
+     * @param endpoint
+     *            The endpoint of the request, its latency is only compared to earlier requests to
+     *            the same endpoint
+     * @param overloaded
+     *            true if the server signalled that it is overloaded, by throttling the request or
+     *            failing with a server error
+     * @param latency
+     *            The time in milliseconds the request took
+     */
+    public synchronized void release(final String endpoint, final boolean overloaded,
+            final long latency)
+    {
+        this.inFlight--;
+        final var averageLatency = this.averageLatencies.get(endpoint);
+        final var spike = averageLatency != null && averageLatency > 0
+                && latency > averageLatency * LATENCY_SPIKE_FACTOR;
+        this.averageLatencies.put(endpoint, averageLatency == null ? latency
+                : averageLatency + (latency - averageLatency) * LATENCY_SMOOTHING);
+        if (overloaded || spike)
+        {
+            this.limit = Math.max(1, this.limit * BACKOFF_RATIO);
+        }
+        else
+        {
+            this.limit = Math.min(this.maximumLimit, this.limit + 1 / this.limit);
+        }
+        this.notifyAll();
+    }
+}
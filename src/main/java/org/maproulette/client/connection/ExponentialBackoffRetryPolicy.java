@@ -0,0 +1,110 @@
+package org.maproulette.client.connection;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+
+/**
+ * Retries transient failures with an exponential backoff and full jitter, so the delay before
+ * attempt n is a random value between 0 and the base delay times 2^n, capped at the maximum delay.
+ * A Retry-After delay requested by the server is honoured up to the maximum delay, while a longer
+ * one gives up on the retry so that a request doesn't wait for hours. Idempotent queries are
+ * retried on any gateway or throttling error and on any connection failure. Queries that are not
+ * idempotent are only retried when the server can't have processed them, that is when the server
+ * is throttling or unavailable, or when the connection could not be established at all.
+ *
+ * @author mcuthbert
+ */
+public class ExponentialBackoffRetryPolicy implements IRetryPolicy
+{
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    private static final Set<Integer> IDEMPOTENT_STATUSES = Set.of(STATUS_TOO_MANY_REQUESTS,
+            HttpStatus.SC_BAD_GATEWAY, HttpStatus.SC_SERVICE_UNAVAILABLE,
+            HttpStatus.SC_GATEWAY_TIMEOUT);
+    private static final Set<Integer> NON_IDEMPOTENT_STATUSES = Set
+            .of(STATUS_TOO_MANY_REQUESTS, HttpStatus.SC_SERVICE_UNAVAILABLE);
+    private static final int MAXIMUM_SHIFT = 30;
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    public ExponentialBackoffRetryPolicy(final MapRouletteConfiguration configuration)
+    {
+        this(configuration.getMaxRetries(), configuration.getRetryBaseDelay(),
+                configuration.getRetryMaxDelay());
+    }
+
+    /**
+     * @param maxRetries
+     *            The maximum number of times a single query is retried
+     * @param baseDelay
+     *            The delay in milliseconds that the backoff starts at
+     * @param maxDelay
+     *            The maximum delay in milliseconds between two attempts
+     */
+    public ExponentialBackoffRetryPolicy(final int maxRetries, final long baseDelay,
+            final long maxDelay)
+    {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public long getDelay(final int attempt, final long retryAfter)
+    {
+        final var ceiling = Math.min(this.maxDelay,
+                this.baseDelay << Math.min(attempt, MAXIMUM_SHIFT));
+        final var delay = ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (retryAfter > this.maxDelay)
+        {
+            return -1;
+        }
+        return Math.max(delay, retryAfter);
+    }
+
+    @Override
+    public boolean isRetryable(final Query query, final int attempt, final int statusCode,
+            final Exception exception)
+    {
+        if (attempt >= this.maxRetries)
+        {
+            return false;
+        }
+        if (statusCode > 0)
+        {
+            return query.isIdempotent() ? IDEMPOTENT_STATUSES.contains(statusCode)
+                    : NON_IDEMPOTENT_STATUSES.contains(statusCode);
+        }
+        if (query.isIdempotent())
+        {
+            return this.hasCause(exception, IOException.class);
+        }
+        return this.hasCause(exception, ConnectException.class)
+                || this.hasCause(exception, ConnectTimeoutException.class)
+                || this.hasCause(exception, ConnectionPoolTimeoutException.class)
+                || this.hasCause(exception, NoRouteToHostException.class)
+                || this.hasCause(exception, UnknownHostException.class);
+    }
+
+    private boolean hasCause(final Throwable exception, final Class<? extends Throwable> type)
+    {
+        var cause = exception;
+        while (cause != null)
+        {
+            if (type.isInstance(cause))
+            {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+}
@@ -1,14 +1,31 @@
 package org.maproulette.client.connection;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.http.StreamingResponse;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
 
 /**
  * @author mcuthbert
  */
-public interface IMapRouletteConnection
+public interface IMapRouletteConnection extends Closeable
 {
+    /**
+     * Releases the pooled http connections held by the connection. The connection can't be used
+     * after it has been closed. Connections that don't hold any resources don't need to override
+     * this.
+     */
+    @Override
+    default void close()
+    {
+    }
+
     /**
      * Function used to check whether you can actually make a connection to the a MapRoulette server
      *
@@ -26,4 +43,91 @@ public interface IMapRouletteConnection
      *             Any exceptions that occur while trying to list the data
      */
     Optional<String> execute(Query query) throws MapRouletteException;
+
+    /**
+     * @return The state of the circuit breaker for the server, {@link CircuitBreaker.State#OPEN}
+     *         means that requests are currently failing fast
+     */
+    default CircuitBreaker.State getCircuitState()
+    {
+        return CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * Executes the query but leaves the response open, so that the response body can be read as a
+     * stream instead of being loaded into memory. The caller is responsible for closing the
+     * returned resource. A not modified response to a conditional query is returned as well, so
+     * the caller needs to check the status code if the query has conditional headers. Connections
+     * that don't support this throw an {@link UnsupportedOperationException}, and the callers then
+     * fall back to {@link #execute(Query)}.
+     *
+     * @param query
+     *            The query to execute against the MapRoulette Server
+     * @return The executed resource, or an empty optional if there is no content
+     * @throws MapRouletteException
+     *             Any exceptions that occur while executing the query
+     */
+    default Optional<HttpResource> open(final Query query) throws MapRouletteException
+    {
+        throw new UnsupportedOperationException(
+                String.format("%s can't leave responses open", this.getClass().getName()));
+    }
+
+    /**
+     * Executes a query that responds with a json array and lazily parses the elements of the array
+     * as the stream is consumed. The response is closed once the stream has been read completely,
+     * or when the stream is closed. If the connection can't leave responses open the whole
+     * response is read and parsed up front instead.
+     *
+     * @param query
+     *            The query to execute against the MapRoulette Server
+     * @param type
+     *            The type of the elements in the response array
+     * @param <T>
+     *            The type of the elements in the response array
+     * @return A lazy stream of the elements in the response
+     * @throws MapRouletteException
+     *             Any exceptions that occur while executing the query
+     */
+    default <T> Stream<T> stream(final Query query, final Class<T> type)
+            throws MapRouletteException
+    {
+        final Optional<HttpResource> resource;
+        try
+        {
+            resource = this.open(query);
+        }
+        catch (final UnsupportedOperationException e)
+        {
+            final var response = this.execute(query);
+            if (response.isEmpty())
+            {
+                return Stream.empty();
+            }
+            final var mapper = ObjectMapperSingleton.getMapper();
+            try
+            {
+                final List<T> elements = mapper.readValue(response.get(),
+                        mapper.getTypeFactory().constructCollectionType(List.class, type));
+                return elements.stream();
+            }
+            catch (final IOException exception)
+            {
+                throw new MapRouletteException(exception);
+            }
+        }
+        if (resource.isEmpty())
+        {
+            return Stream.empty();
+        }
+        try
+        {
+            return new StreamingResponse<>(resource.get(), type).stream();
+        }
+        catch (final MapRouletteException e)
+        {
+            resource.get().abort();
+            throw e;
+        }
+    }
 }
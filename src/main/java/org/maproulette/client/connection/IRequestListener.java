@@ -0,0 +1,43 @@
+package org.maproulette.client.connection;
+
+import org.maproulette.client.http.RequestTimeline;
+
+/**
+ * Follows the lifecycle of the requests made by a connection. Every attempt of a query gets its
+ * own {@link RequestTimeline}, whose phases are passed on as they end, and the listener is told
+ * once the attempt completed. Listeners are called on the thread making the request, so they
+ * should return quickly.
+ *
+ * @author mcuthbert
+ */
+public interface IRequestListener
+{
+    /**
+     * Called once an attempt of a query completed, successfully or not
+     *
+     * @param query
+     *            The query that was requested
+     * @param timeline
+     *            The phases of the attempt
+     * @param failure
+     *            The exception the attempt failed with, or null if it succeeded
+     */
+    default void onComplete(final Query query, final RequestTimeline timeline,
+            final Exception failure)
+    {
+        // nothing to do by default
+    }
+
+    /**
+     * Called as soon as a phase of an attempt ended
+     *
+     * @param query
+     *            The query being requested
+     * @param event
+     *            The phase that ended, with when it ended and how long it took
+     */
+    default void onPhase(final Query query, final RequestTimeline.Event event)
+    {
+        // nothing to do by default
+    }
+}
@@ -0,0 +1,58 @@
+package org.maproulette.client.connection;
+
+/**
+ * Decides whether a failed query is retried and how long to wait before retrying it.
+ *
+ * @author mcuthbert
+ */
+public interface IRetryPolicy
+{
+    /**
+     * @return A policy that never retries
+     */
+    static IRetryPolicy none()
+    {
+        return new IRetryPolicy()
+        {
+            @Override
+            public long getDelay(final int attempt, final long retryAfter)
+            {
+                return 0;
+            }
+
+            @Override
+            public boolean isRetryable(final Query query, final int attempt, final int statusCode,
+                    final Exception exception)
+            {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the time to wait before the next attempt
+     *
+     * @param attempt
+     *            The number of the attempt that failed, starting at 0
+     * @param retryAfter
+     *            The delay in milliseconds requested by the server through the Retry-After header,
+     *            or -1 if the server didn't request one
+     * @return The delay in milliseconds, or a negative delay to give up on the retry
+     */
+    long getDelay(int attempt, long retryAfter);
+
+    /**
+     * Checks whether a failed query should be retried
+     *
+     * @param query
+     *            The query that failed
+     * @param attempt
+     *            The number of the attempt that failed, starting at 0
+     * @param statusCode
+     *            The status code the server responded with, or -1 if no response was received
+     * @param exception
+     *            The exception the query failed with
+     * @return true if the query should be retried
+     */
+    boolean isRetryable(Query query, int attempt, int statusCode, Exception exception);
+}
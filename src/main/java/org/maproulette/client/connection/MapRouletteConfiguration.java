@@ -4,7 +4,13 @@ import java.io.Serializable;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpHost;
+import org.maproulette.client.api.IdentifierCache;
+import org.maproulette.client.batch.BatchSizer;
+import org.maproulette.client.batch.MemoryBudget;
+import org.maproulette.client.batch.TaskIndex;
 import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.Compression;
+import org.maproulette.client.metrics.IMetricsRegistry;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -20,7 +26,23 @@ import lombok.Setter;
 @Getter
 public class MapRouletteConfiguration implements Serializable
 {
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
+    public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30_000L;
+    public static final long DEFAULT_CONNECTION_TTL = 300_000L;
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10_000;
+    public static final int DEFAULT_SOCKET_TIMEOUT = 300_000;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 10_000;
+    public static final long DEFAULT_COMPRESSION_THRESHOLD = 1024L;
+    public static final long DEFAULT_HEALTH_CHECK_TTL = 300_000L;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_BASE_DELAY = 500L;
+    public static final long DEFAULT_RETRY_MAX_DELAY = 30_000L;
+    public static final int DEFAULT_RATE_LIMIT_BURST = 10;
+    public static final int DEFAULT_CIRCUIT_BREAKER_THRESHOLD = 0;
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30_000L;
     private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_UPLOAD_CONCURRENCY = 1;
     private static final int API_KEY_INDEX = 3;
     private static final int NUMBER_OF_COMPONENTS = 4;
     private static final int PORT_INDEX = 1;
@@ -29,6 +51,9 @@ public class MapRouletteConfiguration implements Serializable
     private static final long serialVersionUID = -1060265212173405828L;
     private static final String DELIMITER = "(?<!https|http):";
     private static final String SCHEME_DELIMITER = "://";
+    private static final String OPTIONS_DELIMITER = "?";
+    private static final String OPTION_DELIMITER = "&";
+    private static final String VALUE_DELIMITER = "=";
     private final String apiKey;
     private final int port;
     private final String scheme;
@@ -36,10 +61,223 @@ public class MapRouletteConfiguration implements Serializable
     private final String defaultProjectName;
     @Setter
     private int batchSize;
+    /**
+     * The number of task chunks that a batch will upload concurrently when it is flushed
+     */
+    @Setter
+    private int uploadConcurrency = DEFAULT_UPLOAD_CONCURRENCY;
+    /**
+     * The maximum serialized size in bytes of a chunk of tasks uploaded in a single request
+     */
+    @Setter
+    private long maxChunkBytes = BatchSizer.DEFAULT_MAXIMUM_BYTES;
+    /**
+     * The time in milliseconds that uploading a chunk of tasks should stay below, slower uploads
+     * shrink the following chunks. 0 disables the adaptation
+     */
+    @Setter
+    private long chunkTargetLatency = BatchSizer.DEFAULT_TARGET_LATENCY;
+    /**
+     * How a task that is added to a batch while the same task is already queued is combined with
+     * the queued task
+     */
+    @Setter
+    private TaskIndex.Policy duplicateTaskPolicy = TaskIndex.Policy.LAST_WRITE_WINS;
+    /**
+     * The file of the manifest used to only upload new and changed tasks, null disables delta sync
+     */
+    @Setter
+    private String deltaSyncManifest;
+    /**
+     * Whether tasks that were uploaded by a previous delta sync run but are no longer produced are
+     * marked as deleted
+     */
+    @Setter
+    private boolean deltaSyncDeleteMissing = false;
+    /**
+     * The directory that queued tasks are spooled to, so that they survive a restart and aren't
+     * kept in memory. null keeps the queued tasks in memory
+     */
+    @Setter
+    private String spoolDirectory;
+    /**
+     * The maximum number of tasks queued in memory across all the batches of an uploader, 0 for no
+     * limit
+     */
+    @Setter
+    private long maxPendingTasks = 0;
+    /**
+     * The maximum estimated size in bytes of the tasks queued in memory across all the batches of
+     * an uploader, 0 for no limit
+     */
+    @Setter
+    private long maxPendingBytes = 0;
+    /**
+     * What happens when a task is added while the memory budget is exceeded
+     */
+    @Setter
+    private MemoryBudget.Policy memoryBudgetPolicy = MemoryBudget.Policy.BLOCK;
+    /**
+     * Which batch is flushed first when the memory budget is exceeded
+     */
+    @Setter
+    private MemoryBudget.FlushOrder memoryBudgetFlushOrder = MemoryBudget.FlushOrder.LARGEST;
+    /**
+     * The maximum number of pooled connections that will be kept open to the MapRoulette server
+     */
+    @Setter
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    /**
+     * The maximum number of pooled connections across all routes, only relevant when a proxy is
+     * being used
+     */
+    @Setter
+    private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+    /**
+     * The time in milliseconds that a pooled connection can sit idle before it is evicted
+     */
+    @Setter
+    private long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+    /**
+     * The maximum time in milliseconds that a pooled connection is kept for, regardless of whether
+     * it is in use, so that connections are eventually re-established. 0 keeps connections forever
+     */
+    @Setter
+    private long connectionTTL = DEFAULT_CONNECTION_TTL;
+    /**
+     * The time in milliseconds to wait for a connection to the server to be established, 0 waits
+     * forever
+     */
+    @Setter
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    /**
+     * The maximum time in milliseconds between two packets of a response, 0 waits forever. The
+     * default of five minutes leaves the server time to answer large uploads, while a request on
+     * a half-open socket still fails instead of blocking forever
+     */
+    @Setter
+    private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+    /**
+     * The time in milliseconds to wait for a connection from the pool, 0 waits forever
+     */
+    @Setter
+    private int connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+    /**
+     * The maximum time in milliseconds that a request can take until the response has been
+     * received and read, after which the request is aborted. 0 disables the timeout
+     */
+    @Setter
+    private long requestTimeout = 0;
+    /**
+     * The compression used for POST and PUT request bodies, the server needs to support the
+     * Content-Encoding for this to be enabled
+     */
+    @Setter
+    private Compression compression = Compression.NONE;
+    /**
+     * The size in bytes from which request bodies are compressed, bodies whose size isn't known up
+     * front, like task batches, are always compressed
+     */
+    @Setter
+    private long compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    /**
+     * Whether the server is allowed to respond with gzip or deflate compressed content
+     */
+    @Setter
+    private boolean acceptCompressedResponses = true;
+    /**
+     * The time in milliseconds that a successful health check of a server is remembered for, so
+     * that new connections to the same server don't need to ping it again. 0 disables the cache
+     */
+    @Setter
+    private long healthCheckTTL = DEFAULT_HEALTH_CHECK_TTL;
+    /**
+     * If true the health check is deferred until the first request made by a connection, instead
+     * of blocking while the connection is constructed
+     */
+    @Setter
+    private boolean lazyHealthCheck = false;
+    /**
+     * The maximum number of project and challenge identifiers that are cached by name, 0 disables
+     * the cache
+     */
+    @Setter
+    private int identifierCacheSize = IdentifierCache.DEFAULT_SIZE;
+    /**
+     * The time in milliseconds that an identifier is cached for
+     */
+    @Setter
+    private long identifierCacheTTL = IdentifierCache.DEFAULT_TTL;
+    /**
+     * Whether projects and challenges that don't exist are cached as well
+     */
+    @Setter
+    private boolean identifierNegativeCaching = false;
+    /**
+     * The maximum number of times a request that failed with a transient error is retried, 0
+     * disables retries
+     */
+    @Setter
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    /**
+     * The delay in milliseconds that the exponential backoff between retries starts at
+     */
+    @Setter
+    private long retryBaseDelay = DEFAULT_RETRY_BASE_DELAY;
+    /**
+     * The maximum delay in milliseconds between two retries, a request is not retried if the
+     * server requests a longer delay through the Retry-After header
+     */
+    @Setter
+    private long retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+    /**
+     * The maximum sustained number of requests per second made to the server, shared by all the
+     * connections to the server in the JVM. 0 disables the rate limit
+     */
+    @Setter
+    private double rateLimit = 0;
+    /**
+     * The number of requests that can be made at once when the rate limit hasn't been used for a
+     * while
+     */
+    @Setter
+    private int rateLimitBurst = DEFAULT_RATE_LIMIT_BURST;
+    /**
+     * The maximum number of requests in flight to the server, shared by all the connections to the
+     * server in the JVM. The actual limit starts at half of this and adapts to how the server is
+     * responding. 0 disables the limit
+     */
+    @Setter
+    private int maxConcurrentRequests = 0;
+    /**
+     * The number of consecutive failed requests after which requests to the server fail fast, 0
+     * disables the circuit breaker, which is the default
+     */
+    @Setter
+    private int circuitBreakerThreshold = DEFAULT_CIRCUIT_BREAKER_THRESHOLD;
+    /**
+     * The time in milliseconds that requests fail fast for before a trial request is let through
+     */
+    @Setter
+    private long circuitBreakerOpenDuration = DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION;
+    /**
+     * The time in milliseconds from which the phases of a request are logged, 0 disables the slow
+     * request log
+     */
+    @Setter
+    private long slowRequestThreshold = 0;
+    /**
+     * The registry that the request, connection pool and batch measurements are reported to, it
+     * isn't serialized along with the configuration
+     */
+    @Setter
+    private transient IMetricsRegistry metricsRegistry = IMetricsRegistry.none();
 
     /**
      * Parses a map roulette configuration object from a string that follows one of these structures
      * [SERVER]:[PORT]:[PROJECT_NAME]:[API_KEY] [SCHEME]://[SERVER]:[PORT]:[PROJECT_NAME]:[API_KEY]
+     * Either structure can be followed by timeout options in the form of a query string, like
+     * ?connectTimeout=5000&amp;socketTimeout=30000
      *
      * @param configuration
      *            The configuration string to parse
@@ -53,7 +291,8 @@ public class MapRouletteConfiguration implements Serializable
     {
         if (StringUtils.isNotEmpty(configuration))
         {
-            final String[] components = configuration.split(DELIMITER);
+            final String[] components = StringUtils
+                    .substringBefore(configuration, OPTIONS_DELIMITER).split(DELIMITER);
             if (components.length == NUMBER_OF_COMPONENTS)
             {
                 final String scheme;
@@ -69,9 +308,11 @@ public class MapRouletteConfiguration implements Serializable
                     scheme = splitServer[0];
                     server = splitServer[1];
                 }
-                return new MapRouletteConfiguration(scheme, server,
+                final var parsed = new MapRouletteConfiguration(scheme, server,
                         Integer.parseInt(components[PORT_INDEX]), components[PROJECT_NAME_INDEX],
                         components[API_KEY_INDEX]);
+                parsed.parseOptions(StringUtils.substringAfter(configuration, OPTIONS_DELIMITER));
+                return parsed;
             }
         }
         throw new MapRouletteException(
@@ -112,6 +353,56 @@ public class MapRouletteConfiguration implements Serializable
         this.batchSize = DEFAULT_BATCH_SIZE;
     }
 
+    /**
+     * @return The registry that measurements are reported to, which ignores them by default
+     */
+    public IMetricsRegistry getMetricsRegistry()
+    {
+        // a deserialized configuration doesn't have a registry
+        return this.metricsRegistry == null ? IMetricsRegistry.none() : this.metricsRegistry;
+    }
+
+    private void parseOptions(final String options) throws MapRouletteException
+    {
+        for (final var option : StringUtils.split(options, OPTION_DELIMITER))
+        {
+            final var name = StringUtils.substringBefore(option, VALUE_DELIMITER);
+            final var value = StringUtils.substringAfter(option, VALUE_DELIMITER);
+            try
+            {
+                switch (name)
+                {
+                    case "connectTimeout":
+                        this.connectTimeout = Integer.parseInt(value);
+                        break;
+                    case "socketTimeout":
+                        this.socketTimeout = Integer.parseInt(value);
+                        break;
+                    case "connectionRequestTimeout":
+                        this.connectionRequestTimeout = Integer.parseInt(value);
+                        break;
+                    case "requestTimeout":
+                        this.requestTimeout = Long.parseLong(value);
+                        break;
+                    case "connectionTTL":
+                        this.connectionTTL = Long.parseLong(value);
+                        break;
+                    case "slowRequestThreshold":
+                        this.slowRequestThreshold = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new MapRouletteException(
+                                String.format("Unknown configuration option [%s]", name));
+                }
+            }
+            catch (final NumberFormatException e)
+            {
+                throw new MapRouletteException(
+                        String.format("Invalid value for configuration option [%s]", option), e);
+            }
+        }
+    }
+
     @Override
     public String toString()
     {
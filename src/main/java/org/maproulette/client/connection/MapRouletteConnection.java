@@ -2,16 +2,31 @@ package org.maproulette.client.connection;
 
 import static org.maproulette.client.utilities.ThrowingFunction.throwingFunctionWrapper;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteResponseException;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.http.RequestTimeline;
 import org.maproulette.client.http.ResourceFactory;
+import org.maproulette.client.metrics.MetricNames;
+import org.maproulette.client.utilities.ThrowingFunction;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -25,10 +40,23 @@ public class MapRouletteConnection implements IMapRouletteConnection
     private static final int DEFAULT_CONNECTION_RETRIES = 3;
     private static final int DEFAULT_CONNECTION_WAIT = 5000;
     private static final String KEY_API_KEY = "apiKey";
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    // the time that the last successful health check for each server expires
+    private static final Map<String, Long> HEALTHY_SERVERS = new ConcurrentHashMap<>();
     @Getter
     private final MapRouletteConfiguration configuration;
     private final URIBuilder uriBuilder;
     private final ResourceFactory resourceFactory;
+    private volatile boolean healthChecked = false;
+    /**
+     * The policy used to retry requests that failed with a transient error
+     */
+    @Setter
+    private IRetryPolicy retryPolicy;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final List<IRequestListener> requestListeners = new CopyOnWriteArrayList<>();
 
     public MapRouletteConnection(final MapRouletteConfiguration configuration,
             final ResourceFactory factory)
@@ -42,7 +70,25 @@ public class MapRouletteConnection implements IMapRouletteConnection
         this.uriBuilder = new URIBuilder().setScheme(this.configuration.getScheme())
                 .setHost(this.configuration.getServer()).setPort(this.configuration.getPort());
         this.resourceFactory = factory;
-        if (!this.isAbleToConnectToMapRoulette())
+        this.retryPolicy = new ExponentialBackoffRetryPolicy(configuration);
+        final var server = this.uriBuilder.toString();
+        this.rateLimiter = configuration.getRateLimit() > 0 ? RateLimiter.forServer(server,
+                configuration.getRateLimit(), configuration.getRateLimitBurst()) : null;
+        this.concurrencyLimiter = configuration.getMaxConcurrentRequests() > 0
+                ? ConcurrencyLimiter.forServer(server,
+                        configuration.getMaxConcurrentRequests() / 2,
+                        configuration.getMaxConcurrentRequests())
+                : null;
+        this.circuitBreaker = configuration.getCircuitBreakerThreshold() > 0
+                ? CircuitBreaker.forServer(server, configuration.getCircuitBreakerThreshold(),
+                        configuration.getCircuitBreakerOpenDuration())
+                : null;
+        if (configuration.getSlowRequestThreshold() > 0)
+        {
+            this.requestListeners
+                    .add(new SlowRequestLogger(configuration.getSlowRequestThreshold()));
+        }
+        if (!this.configuration.isLazyHealthCheck() && !this.isAbleToConnectToMapRoulette())
         {
             throw new IllegalArgumentException(
                     "configuration must be able to connect to MapRouletteServers to create a connection.");
@@ -51,7 +97,24 @@ public class MapRouletteConnection implements IMapRouletteConnection
 
     public MapRouletteConnection(final MapRouletteConfiguration configuration)
     {
-        this(configuration, new ResourceFactory());
+        this(configuration, configuration == null ? null : new ResourceFactory(configuration));
+    }
+
+    /**
+     * Adds a listener that follows the phases of every request made by this connection
+     *
+     * @param listener
+     *            The listener to add
+     */
+    public void addRequestListener(final IRequestListener listener)
+    {
+        this.requestListeners.add(listener);
+    }
+
+    @Override
+    public void close()
+    {
+        this.resourceFactory.close();
     }
 
     @Override
@@ -63,52 +126,104 @@ public class MapRouletteConnection implements IMapRouletteConnection
             log.trace("data={}", query.getData());
         }
 
+        this.checkHealth();
         // add authentication to the query
         query.addHeader(KEY_API_KEY, this.configuration.getApiKey());
-        return query.execute(this.resourceFactory, this.uriBuilder,
-                throwingFunctionWrapper(resource ->
+        return this.retry(query, this.timed(query,
+                timeline -> query.execute(this.resourceFactory, this.uriBuilder, timeline,
+                        throwingFunctionWrapper(resource ->
+                        {
+                            if (this.hasContent(resource))
+                            {
+                                final String ret = resource.getResponseBodyAsString();
+                                log.trace("Response body: {}", ret);
+                                return ret;
+                            }
+                            return "";
+                        }))));
+    }
+
+    @Override
+    public Optional<HttpResource> open(final Query query) throws MapRouletteException
+    {
+        log.debug("Request: {} {}", query.getMethodName(), query.getUri());
+        this.checkHealth();
+        query.addHeader(KEY_API_KEY, this.configuration.getApiKey());
+        return this.retry(query, this.timed(query, timeline ->
+        {
+            final var resource = query.open(this.resourceFactory, this.uriBuilder, timeline);
+            try
+            {
+                // a conditional request is answered with not modified, which the caller handles
+                if (resource.getStatusCode() == HttpStatus.SC_NOT_MODIFIED
+                        || this.hasContent(resource))
                 {
-                    final var statusCode = resource.getStatusCode();
-                    log.trace("Response code: {} ", statusCode);
+                    return Optional.of(resource);
+                }
+                resource.close();
+                return Optional.empty();
+            }
+            catch (final MapRouletteException | RuntimeException e)
+            {
+                resource.close();
+                throw e;
+            }
+        }));
+    }
 
-                    switch (statusCode)
-                    {
-                        case HttpStatus.SC_OK:
-                        case HttpStatus.SC_CREATED:
-                            final String ret = resource.getResponseBodyAsString();
-                            log.trace("Response body: {}", ret);
-                            return ret;
-                        case HttpStatus.SC_NO_CONTENT:
-                        case HttpStatus.SC_NOT_FOUND:
-                            return "";
-                        default:
-                            throw new MapRouletteException(
-                                    String.format("Invalid response status code %d - %s",
-                                            statusCode, resource.getResponseBodyAsString()));
-                    }
-                }));
+    /**
+     * Removes a listener that was following the requests of this connection
+     *
+     * @param listener
+     *            The listener to remove
+     */
+    public void removeRequestListener(final IRequestListener listener)
+    {
+        this.requestListeners.remove(listener);
+    }
+
+    @Override
+    public CircuitBreaker.State getCircuitState()
+    {
+        return this.circuitBreaker == null ? CircuitBreaker.State.CLOSED
+                : this.circuitBreaker.getState();
     }
 
     @Override
     public boolean isAbleToConnectToMapRoulette()
     {
+        final var server = this.uriBuilder.toString();
+        final var expiry = HEALTHY_SERVERS.get(server);
+        if (expiry != null && expiry > System.currentTimeMillis())
+        {
+            this.healthChecked = true;
+            return true;
+        }
         var retries = 0;
         while (true)
         {
             try
             {
-                final var uri = this.uriBuilder.setPath("/ping").build();
-                final var homepage = this.resourceFactory.resource(HttpGet.METHOD_NAME, uri);
-                final var statusCode = homepage.getStatusCode();
-                if (statusCode != HttpStatus.SC_OK)
-                {
-                    throw new MapRouletteException(String.format(
-                            "Failed to connect to Map Roulette server [%s]. StatusCode: %d",
-                            uri.toString(), statusCode));
-                }
-                else
+                final var uri = new URIBuilder(this.uriBuilder.build()).setPath("/ping").build();
+                try (var homepage = this.resourceFactory.resource(HttpGet.METHOD_NAME, uri))
                 {
-                    return true;
+                    final var statusCode = homepage.getStatusCode();
+                    if (statusCode != HttpStatus.SC_OK)
+                    {
+                        throw new MapRouletteException(String.format(
+                                "Failed to connect to Map Roulette server [%s]. StatusCode: %d",
+                                uri.toString(), statusCode));
+                    }
+                    else
+                    {
+                        if (this.configuration.getHealthCheckTTL() > 0)
+                        {
+                            HEALTHY_SERVERS.put(server, System.currentTimeMillis()
+                                    + this.configuration.getHealthCheckTTL());
+                        }
+                        this.healthChecked = true;
+                        return true;
+                    }
                 }
             }
             catch (final Exception e)
@@ -135,4 +250,311 @@ public class MapRouletteConnection implements IMapRouletteConnection
             }
         }
     }
+
+    /**
+     * Clears the cached health checks, so that the next connection to each server pings it again
+     */
+    public static void clearHealthChecks()
+    {
+        HEALTHY_SERVERS.clear();
+    }
+
+    /**
+     * Runs the deferred health check if the connection was created with a lazy health check and it
+     * hasn't been run yet
+     *
+     * @throws MapRouletteException
+     *             if the MapRoulette server can't be reached
+     */
+    private void checkHealth() throws MapRouletteException
+    {
+        if (!this.healthChecked && !this.isAbleToConnectToMapRoulette())
+        {
+            throw new MapRouletteException(String.format(
+                    "Unable to connect to MapRoulette server [%s]", this.uriBuilder.toString()));
+        }
+    }
+
+    /**
+     * Parses the Retry-After header of a response, which is either a number of seconds or a date
+     *
+     * @param resource
+     *            The resource to get the header from
+     * @return The requested delay in milliseconds, or -1 if there is no valid header
+     */
+    private long getRetryAfter(final HttpResource resource)
+    {
+        try
+        {
+            final var headers = resource.getHeader(HttpHeaders.RETRY_AFTER);
+            if (headers == null || headers.length == 0)
+            {
+                return -1;
+            }
+            final var value = headers[0].getValue().trim();
+            if (StringUtils.isNumeric(value))
+            {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+            }
+            final var date = DateUtils.parseDate(value);
+            return date == null ? -1
+                    : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+        catch (final MapRouletteException | NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Checks the status code of the executed resource
+     *
+     * @param resource
+     *            The resource to check
+     * @return true if the response has content, false if there was no content or it wasn't found
+     * @throws MapRouletteException
+     *             if the status code is not a successful one
+     */
+    private boolean hasContent(final HttpResource resource) throws MapRouletteException
+    {
+        final var statusCode = resource.getStatusCode();
+        log.trace("Response code: {} ", statusCode);
+        switch (statusCode)
+        {
+            case HttpStatus.SC_OK:
+            case HttpStatus.SC_CREATED:
+                return true;
+            case HttpStatus.SC_NO_CONTENT:
+            case HttpStatus.SC_NOT_FOUND:
+                return false;
+            default:
+                throw new MapRouletteResponseException(
+                        String.format("Invalid response status code %d - %s", statusCode,
+                                resource.getResponseBodyAsString()),
+                        statusCode, this.getRetryAfter(resource));
+        }
+    }
+
+    /**
+     * Runs a request, retrying it according to the retry policy if it fails
+     *
+     * @param query
+     *            The query being requested
+     * @param request
+     *            The request to run
+     * @param <R>
+     *            The type of the result of the request
+     * @return The result of the request
+     * @throws MapRouletteException
+     *             if the request fails and can't be retried, or the thread is interrupted while
+     *             waiting to retry
+     */
+    private <R> R retry(final Query query, final Callable<R> request) throws MapRouletteException
+    {
+        var attempt = 0;
+        while (true)
+        {
+            try
+            {
+                return this.attempt(query, request);
+            }
+            catch (final Exception e)
+            {
+                final var response = this.getResponseException(e);
+                final var statusCode = response == null ? -1 : response.getStatusCode();
+                final var delay = this.retryPolicy.isRetryable(query, attempt, statusCode, e)
+                        ? this.retryPolicy.getDelay(attempt,
+                                response == null ? -1 : response.getRetryAfter())
+                        : -1;
+                if (delay < 0)
+                {
+                    if (e instanceof MapRouletteException)
+                    {
+                        throw (MapRouletteException) e;
+                    }
+                    if (e instanceof RuntimeException)
+                    {
+                        throw (RuntimeException) e;
+                    }
+                    throw new MapRouletteException(e);
+                }
+                this.configuration.getMetricsRegistry().count(MetricNames.REQUEST_RETRIES, 1,
+                        MetricNames.TAG_METHOD, query.getMethodName(), MetricNames.TAG_ENDPOINT,
+                        MetricNames.endpoint(query.getUri()));
+                log.warn("Request {} {} failed on attempt {}, retrying in {}ms: {}",
+                        query.getMethodName(), query.getUri(), attempt + 1, delay,
+                        e.getMessage());
+                try
+                {
+                    Thread.sleep(delay);
+                }
+                catch (final InterruptedException exception)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new MapRouletteException("Interrupted while waiting to retry", e);
+                }
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Runs a single attempt of a request within the rate and concurrency limits, feeding the
+     * outcome back to the adaptive concurrency limit and the metrics
+     *
+     * @param query
+     *            The query being requested
+     * @param request
+     *            The request to run
+     * @param <R>
+     *            The type of the result of the request
+     * @return The result of the request
+     * @throws Exception
+     *             Any exception thrown by the request
+     */
+    private <R> R attempt(final Query query, final Callable<R> request) throws Exception
+    {
+        if (this.circuitBreaker != null && !this.circuitBreaker.allowRequest())
+        {
+            throw new MapRouletteException(String.format(
+                    "Circuit breaker is open for MapRoulette server [%s]", this.uriBuilder));
+        }
+        try
+        {
+            if (this.rateLimiter != null)
+            {
+                this.rateLimiter.acquire();
+            }
+            if (this.concurrencyLimiter != null)
+            {
+                this.concurrencyLimiter.acquire();
+            }
+        }
+        catch (final MapRouletteException | RuntimeException e)
+        {
+            // the request is never made, so a trial request of the circuit breaker is given back
+            if (this.circuitBreaker != null)
+            {
+                this.circuitBreaker.cancelRequest();
+            }
+            throw e;
+        }
+        final var start = System.currentTimeMillis();
+        var overloaded = true;
+        var failed = true;
+        var outcome = MetricNames.OUTCOME_ERROR;
+        try
+        {
+            final var result = request.call();
+            overloaded = false;
+            failed = false;
+            outcome = MetricNames.OUTCOME_SUCCESS;
+            return result;
+        }
+        catch (final Exception e)
+        {
+            final var response = this.getResponseException(e);
+            // a client error means that the server handled the request fine
+            failed = response == null
+                    || response.getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            overloaded = failed || response.getStatusCode() == STATUS_TOO_MANY_REQUESTS;
+            if (response != null)
+            {
+                outcome = String.valueOf(response.getStatusCode());
+            }
+            throw e;
+        }
+        finally
+        {
+            this.recordRequest(query, outcome, System.currentTimeMillis() - start);
+            if (this.concurrencyLimiter != null)
+            {
+                this.concurrencyLimiter.release(
+                        query.getMethodName() + ' ' + MetricNames.endpoint(query.getUri()),
+                        overloaded, System.currentTimeMillis() - start);
+            }
+            if (this.circuitBreaker != null)
+            {
+                if (failed)
+                {
+                    this.circuitBreaker.recordFailure();
+                }
+                else
+                {
+                    this.circuitBreaker.recordSuccess();
+                }
+            }
+        }
+    }
+
+    private void recordRequest(final Query query, final String outcome, final long latency)
+    {
+        final var metrics = this.configuration.getMetricsRegistry();
+        if (metrics.isEnabled())
+        {
+            final var endpoint = MetricNames.endpoint(query.getUri());
+            metrics.count(MetricNames.REQUESTS, 1, MetricNames.TAG_METHOD, query.getMethodName(),
+                    MetricNames.TAG_ENDPOINT, endpoint, MetricNames.TAG_OUTCOME, outcome);
+            metrics.record(MetricNames.REQUEST_LATENCY, latency, MetricNames.TAG_METHOD,
+                    query.getMethodName(), MetricNames.TAG_ENDPOINT, endpoint);
+        }
+    }
+
+    /**
+     * Wraps a request, so that every attempt of it gets its own timeline when there are request
+     * listeners. The timeline of a resource that is left open completes before its body is read.
+     *
+     * @param query
+     *            The query being requested
+     * @param request
+     *            The request to run with the timeline, which is null without listeners
+     * @param <R>
+     *            The type of the result of the request
+     * @return The request to attempt
+     */
+    private <R> Callable<R> timed(final Query query,
+            final ThrowingFunction<RequestTimeline, R> request)
+    {
+        return () ->
+        {
+            if (this.requestListeners.isEmpty())
+            {
+                return request.applyThrows(null);
+            }
+            final var timeline = new RequestTimeline(event -> this.requestListeners
+                    .forEach(listener -> listener.onPhase(query, event)));
+            Exception failure = null;
+            try
+            {
+                return request.applyThrows(timeline);
+            }
+            catch (final Exception e)
+            {
+                failure = e;
+                throw e;
+            }
+            finally
+            {
+                timeline.complete();
+                for (final var listener : this.requestListeners)
+                {
+                    listener.onComplete(query, timeline, failure);
+                }
+            }
+        };
+    }
+
+    private MapRouletteResponseException getResponseException(final Throwable exception)
+    {
+        var cause = exception;
+        while (cause != null)
+        {
+            if (cause instanceof MapRouletteResponseException)
+            {
+                return (MapRouletteResponseException) cause;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
 }
@@ -1,5 +1,6 @@
 package org.maproulette.client.connection;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
@@ -7,6 +8,7 @@ import java.util.Optional;
 import java.util.function.Function;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -16,8 +18,10 @@ import org.apache.http.entity.ContentType;
 import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.http.HttpResource;
 import org.maproulette.client.http.PostResource;
+import org.maproulette.client.http.RequestTimeline;
 import org.maproulette.client.http.ResourceFactory;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -71,6 +75,17 @@ public class Query
     private String data = "";
     @Builder.Default
     private ContentType dataContentType = ContentType.APPLICATION_JSON;
+    /**
+     * An entity to use as the post body instead of the data string, allowing large bodies to be
+     * streamed to the server
+     */
+    private HttpEntity dataEntity;
+    /**
+     * Overrides whether the query can safely be repeated, by default only POST queries are not
+     * idempotent
+     */
+    @Getter(AccessLevel.NONE)
+    private Boolean idempotent;
     private final String uri;
     private final Map<String, String> queryParameters = new HashMap<>();
     private final Map<String, String> headers = new HashMap<>();
@@ -88,35 +103,132 @@ public class Query
     public Optional<String> execute(final ResourceFactory factory, final URIBuilder uriBuilder,
             final Function<HttpResource, String> function) throws MapRouletteException
     {
-        final var path = uriBuilder.setPath(this.uri);
-        if (!this.queryParameters.isEmpty())
+        return this.execute(factory, uriBuilder, null, function);
+    }
+
+    /**
+     * Executes the query and converts the response with the function, marking the phases of the
+     * request on the timeline
+     *
+     * @param factory
+     *            The factory used to build the resource
+     * @param uriBuilder
+     *            The builder for the base URI of the MapRoulette server
+     * @param timeline
+     *            The timeline of the request, or null if the request isn't timed
+     * @param function
+     *            Reads the response of the executed resource
+     * @return The response, or an empty optional if the function returned an empty string
+     * @throws MapRouletteException
+     *             if the URI for the query is invalid
+     */
+    public Optional<String> execute(final ResourceFactory factory, final URIBuilder uriBuilder,
+            final RequestTimeline timeline, final Function<HttpResource, String> function)
+            throws MapRouletteException
+    {
+        try (var resource = this.open(factory, uriBuilder, timeline))
         {
-            this.queryParameters.forEach(path::setParameter);
+            final var result = function.apply(resource);
+            if (result.isEmpty())
+            {
+                return Optional.empty();
+            }
+            else
+            {
+                return Optional.of(result);
+            }
         }
-        try (var resource = factory.resource(this.methodName, path.build()))
+    }
+
+    /**
+     * @return true if repeating the query has the same effect as executing it once, so it can be
+     *         retried after any failure
+     */
+    public boolean isIdempotent()
+    {
+        if (this.idempotent != null)
         {
-            // add the post body data if methodName is Post or Put
-            if (StringUtils.isNotEmpty(this.data) && resource instanceof PostResource)
+            return this.idempotent;
+        }
+        return !HttpPost.METHOD_NAME.equals(this.methodName);
+    }
+
+    /**
+     * Builds the resource for this query, including the body and headers. The request is executed
+     * as soon as the response of the resource is requested, and the caller is responsible for
+     * closing it.
+     *
+     * @param factory
+     *            The factory used to build the resource
+     * @param uriBuilder
+     *            The builder for the base URI of the MapRoulette server
+     * @return The resource for the query
+     * @throws MapRouletteException
+     *             if the URI for the query is invalid
+     */
+    public HttpResource open(final ResourceFactory factory, final URIBuilder uriBuilder)
+            throws MapRouletteException
+    {
+        return this.open(factory, uriBuilder, null);
+    }
+
+    /**
+     * Builds the resource for this query like {@link #open(ResourceFactory, URIBuilder)}, with the
+     * phases of the request marked on the timeline
+     *
+     * @param factory
+     *            The factory used to build the resource
+     * @param uriBuilder
+     *            The builder for the base URI of the MapRoulette server
+     * @param timeline
+     *            The timeline of the request, or null if the request isn't timed
+     * @return The resource for the query
+     * @throws MapRouletteException
+     *             if the URI for the query is invalid
+     */
+    public HttpResource open(final ResourceFactory factory, final URIBuilder uriBuilder,
+            final RequestTimeline timeline) throws MapRouletteException
+    {
+        try
+        {
+            final var resource = factory.resource(this.methodName, this.buildURI(uriBuilder));
+            if (timeline != null)
             {
-                ((PostResource) resource).setStringBody(this.data, this.dataContentType);
+                resource.setTimeline(timeline);
             }
-            if (!this.headers.isEmpty())
+            // add the post body data if methodName is Post or Put
+            if (this.dataEntity != null && resource instanceof PostResource)
             {
-                this.headers.forEach(resource::setHeader);
+                ((PostResource) resource).setEntity(this.dataEntity);
             }
-            final var result = function.apply(resource);
-            if (result.isEmpty())
+            else if (StringUtils.isNotEmpty(this.data) && resource instanceof PostResource)
             {
-                return Optional.empty();
+                ((PostResource) resource).setStringBody(this.data, this.dataContentType);
             }
-            else
+            if (!this.headers.isEmpty())
             {
-                return Optional.of(result);
+                this.headers.forEach(resource::setHeader);
             }
+            return resource;
         }
         catch (final URISyntaxException e)
         {
             throw new MapRouletteException(e);
         }
     }
+
+    /**
+     * Builds the URI for this query from a copy of the provided builder, the builder is shared by
+     * all the queries of a connection, so it must not be modified as queries can be executed
+     * concurrently.
+     */
+    private URI buildURI(final URIBuilder uriBuilder) throws URISyntaxException
+    {
+        final var path = new URIBuilder(uriBuilder.build()).setPath(this.uri);
+        if (!this.queryParameters.isEmpty())
+        {
+            this.queryParameters.forEach(path::setParameter);
+        }
+        return path.build();
+    }
 }
@@ -0,0 +1,142 @@
+package org.maproulette.client.connection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.exception.MapRouletteException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A token bucket rate limiter. Tokens are added at a fixed rate up to the burst size, and every
+ * request takes a token, waiting for one to be added if the bucket is empty. Limiters are shared
+ * per server and settings through {@link #forServer(String, double, int)}, so all the connections
+ * to the same server in the JVM with the same rate limit are limited together.
+ *
+ * @author mcuthbert
+ */
+@Slf4j
+public class RateLimiter
+{
+    private static final Map<String, RateLimiter> LIMITERS = new ConcurrentHashMap<>();
+    private final double permitsPerSecond;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Gets the limiter shared by all connections to a server with the same settings. Connections to
+     * the same server with other settings get a separate limiter, which is logged as a warning
+     * since the server is then no longer limited as a whole.
+     *
+     * @param server
+     *            The server the limiter is for
+     * @param permitsPerSecond
+     *            The sustained number of requests per second allowed
+     * @param burst
+     *            The maximum number of requests that can be made at once after the server has been
+     *            idle
+     * @return The shared limiter
+     */
+    public static RateLimiter forServer(final String server, final double permitsPerSecond,
+            final int burst)
+    {
+        final var prefix = server + ' ';
+        return LIMITERS.computeIfAbsent(prefix + permitsPerSecond + '/' + burst, key ->
+        {
+            if (LIMITERS.keySet().stream().anyMatch(other -> other.startsWith(prefix)))
+            {
+                log.warn("Connections to MapRoulette server {} use different rate limits, "
+                        + "the limit of {} per second is not shared with them", server,
+                        permitsPerSecond);
+            }
+            return new RateLimiter(permitsPerSecond, burst);
+        });
+    }
+
+    /**
+     * Removes all the shared limiters, so that tests start without any limits from other tests
+     */
+    static void reset()
+    {
+        LIMITERS.clear();
+    }
+
+    public RateLimiter(final double permitsPerSecond, final int burst)
+    {
+        if (permitsPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("The rate must be greater than 0");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting until one is available
+     *
+     * @throws MapRouletteException
+     *             if the thread is interrupted while waiting
+     */
+    public void acquire() throws MapRouletteException
+    {
+        final var wait = this.reserve();
+        if (wait > 0)
+        {
+            try
+            {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new MapRouletteException("Interrupted while waiting for the rate limiter", e);
+            }
+        }
+    }
+
+    /**
+     * Takes a token if one is available without waiting
+     *
+     * @return true if a token was taken
+     */
+    public synchronized boolean tryAcquire()
+    {
+        this.refill();
+        if (this.tokens >= 1)
+        {
+            this.tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    private void refill()
+    {
+        final var now = System.nanoTime();
+        final var added = (now - this.lastRefill) * this.permitsPerSecond
+                / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = Math.min(this.burst, this.tokens + added);
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes a token, going into debt if the bucket is empty so that waiting threads are served in
+     * order
+     *
+     * @return The time in nanoseconds to wait before the token can be used
+     */
+    private synchronized long reserve()
+    {
+        this.refill();
+        this.tokens--;
+        if (this.tokens >= 0)
+        {
+            return 0;
+        }
+        return (long) (-this.tokens * TimeUnit.SECONDS.toNanos(1) / this.permitsPerSecond);
+    }
+}
@@ -0,0 +1,51 @@
+package org.maproulette.client.connection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.maproulette.client.http.RequestTimeline;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs the phases of the requests that took longer than a threshold, so the breakdown of slow
+ * requests is available without logging every request. A connection adds one when the
+ * configuration has a slow request threshold.
+ *
+ * @author mcuthbert
+ */
+@Slf4j
+public class SlowRequestLogger implements IRequestListener
+{
+    /**
+     * The time in milliseconds from which a request is logged
+     */
+    @Getter
+    private final long threshold;
+
+    public SlowRequestLogger(final long threshold)
+    {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @param timeline
+     *            The timeline of the request
+     * @return true if the request took at least as long as the threshold
+     */
+    public boolean isSlow(final RequestTimeline timeline)
+    {
+        return timeline.getElapsed() >= TimeUnit.MILLISECONDS.toNanos(this.threshold);
+    }
+
+    @Override
+    public void onComplete(final Query query, final RequestTimeline timeline,
+            final Exception failure)
+    {
+        if (this.isSlow(timeline))
+        {
+            log.warn("Slow request {} {} ({}): {}", query.getMethodName(), query.getUri(),
+                    failure == null ? "succeeded" : "failed", timeline);
+        }
+    }
+}
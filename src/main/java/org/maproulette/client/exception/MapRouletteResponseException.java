@@ -0,0 +1,27 @@
+package org.maproulette.client.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the MapRoulette server responds with an unexpected status code. The status code and
+ * any Retry-After delay requested by the server are kept so that the request can be retried.
+ *
+ * @author mcuthbert
+ */
+@Getter
+public class MapRouletteResponseException extends MapRouletteException
+{
+    private final int statusCode;
+    /**
+     * The delay in milliseconds requested by the Retry-After header, or -1 if there was none
+     */
+    private final long retryAfter;
+
+    public MapRouletteResponseException(final String message, final int statusCode,
+            final long retryAfter)
+    {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,91 @@
+package org.maproulette.client.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+/**
+ * An http entity that compresses the entity it wraps while it is written to the request, so the
+ * uncompressed body is never held in memory as a whole. Usage: post.setEntity(new
+ * CompressedEntity(new JsonEntity(tasks), Compression.GZIP));
+ *
+ * @author mcuthbert
+ */
+public class CompressedEntity extends HttpEntityWrapper
+{
+    private final Compression compression;
+
+    public CompressedEntity(final HttpEntity entity, final Compression compression)
+    {
+        super(entity);
+        this.compression = compression;
+    }
+
+    /**
+     * Compresses the whole entity into memory, this is only meant for debugging and testing as
+     * {@link #writeTo(OutputStream)} is used when sending the request.
+     *
+     * @return An input stream containing the compressed entity
+     * @throws IOException
+     *             if the entity can't be compressed
+     */
+    @Override
+    public InputStream getContent() throws IOException
+    {
+        final var outputStream = new ByteArrayOutputStream();
+        this.writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public Header getContentEncoding()
+    {
+        return new BasicHeader(HttpHeaders.CONTENT_ENCODING, this.compression.getEncoding());
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked()
+    {
+        return true;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException
+    {
+        // closing the compressing stream finishes it, but the http connection owns the stream
+        // underneath so that one must stay open
+        try (var compressed = this.compression.wrap(new FilterOutputStream(outputStream)
+        {
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length)
+                    throws IOException
+            {
+                this.out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                this.flush();
+            }
+        }))
+        {
+            this.wrappedEntity.writeTo(compressed);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.maproulette.client.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content encodings that request bodies can be compressed with
+ *
+ * @author mcuthbert
+ */
+public enum Compression
+{
+    /**
+     * Request bodies are sent as is
+     */
+    NONE(null),
+    /**
+     * Request bodies are compressed with gzip
+     */
+    GZIP("gzip"),
+    /**
+     * Request bodies are compressed with zlib deflate
+     */
+    DEFLATE("deflate");
+
+    private final String encoding;
+
+    Compression(final String encoding)
+    {
+        this.encoding = encoding;
+    }
+
+    /**
+     * @return The value of the Content-Encoding header for this compression, null for
+     *         {@link #NONE}
+     */
+    public String getEncoding()
+    {
+        return this.encoding;
+    }
+
+    /**
+     * Wraps a stream so that everything written to it is compressed. The returned stream needs to
+     * be finished, by closing it, for all the compressed data to be written.
+     *
+     * @param outputStream
+     *            The stream the compressed data is written to
+     * @return The compressing stream
+     * @throws IOException
+     *             if the compression header can't be written
+     */
+    public OutputStream wrap(final OutputStream outputStream) throws IOException
+    {
+        switch (this)
+        {
+            case GZIP:
+                return new GZIPOutputStream(outputStream);
+            case DEFLATE:
+                return new DeflaterOutputStream(outputStream);
+            default:
+                return outputStream;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.maproulette.client.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * An http entity that counts the bytes that are written from it to a request, or read from it out
+ * of a response, so the size of the bodies can be measured without buffering them.
+ *
+ * @author mcuthbert
+ */
+class CountingEntity extends HttpEntityWrapper
+{
+    private final AtomicLong count = new AtomicLong();
+
+    CountingEntity(final HttpEntity entity)
+    {
+        super(entity);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException
+    {
+        return new FilterInputStream(this.wrappedEntity.getContent())
+        {
+            @Override
+            public int read() throws IOException
+            {
+                final var value = this.in.read();
+                if (value >= 0)
+                {
+                    CountingEntity.this.count.incrementAndGet();
+                }
+                return value;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length)
+                    throws IOException
+            {
+                final var read = this.in.read(bytes, offset, length);
+                if (read > 0)
+                {
+                    CountingEntity.this.count.addAndGet(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException
+    {
+        this.wrappedEntity.writeTo(new FilterOutputStream(outputStream)
+        {
+            @Override
+            public void write(final int value) throws IOException
+            {
+                this.out.write(value);
+                CountingEntity.this.count.incrementAndGet();
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length)
+                    throws IOException
+            {
+                this.out.write(bytes, offset, length);
+                CountingEntity.this.count.addAndGet(length);
+            }
+        });
+    }
+
+    /**
+     * @return The number of bytes counted since the last call, which resets the count
+     */
+    long takeCount()
+    {
+        return this.count.getAndSet(0);
+    }
+}
@@ -2,14 +2,23 @@ package org.maproulette.client.http;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
@@ -17,9 +26,14 @@ import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.maproulette.client.connection.MapRouletteConfiguration;
 import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.metrics.IMetricsRegistry;
+import org.maproulette.client.metrics.MetricNames;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -29,12 +43,62 @@ import lombok.Setter;
  * instance POST will require to post body data in the request. Example Usage: URI uri = new
  * URIBuilder("http://localhost:2020/path/to/location").build(); HttpResource post = new GetResource
  * // get t(uri, body); //read the response post.lines().foreach(System.out.println(x)); //get
- * status code int code = post.getStatusCode();
+ * status code int code = post.getStatusCode(); Resources created through the
+ * {@link ResourceFactory} share the pooled client of the factory, resources created directly will
+ * build their own client which is closed along with the resource. Requests are bounded by the
+ * connect, socket and connection request timeouts of the request configuration, and are aborted if
+ * the response hasn't been received and read within the request timeout.
  *
  * @author cuthbertm
  */
 public abstract class HttpResource implements Closeable
 {
+    /**
+     * Reports the failures of reading a response that was aborted by the request timeout as
+     * timeouts
+     */
+    private class TimeoutInputStream extends FilterInputStream
+    {
+        TimeoutInputStream(final InputStream input)
+        {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            try
+            {
+                return super.read();
+            }
+            catch (final IOException e)
+            {
+                throw HttpResource.this.timeoutException(e);
+            }
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length)
+                throws IOException
+        {
+            try
+            {
+                return super.read(buffer, offset, length);
+            }
+            catch (final IOException e)
+            {
+                throw HttpResource.this.timeoutException(e);
+            }
+        }
+    }
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors
+            .newSingleThreadScheduledExecutor(runnable ->
+            {
+                final var thread = new Thread(runnable, "maproulette-request-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
     @Setter
     @Getter
     private HttpRequestBase request;
@@ -44,6 +108,37 @@ public abstract class HttpResource implements Closeable
     private UsernamePasswordCredentials creds = null;
     @Setter
     private HttpHost proxy = null;
+    @Setter(AccessLevel.PACKAGE)
+    @Getter(AccessLevel.PACKAGE)
+    private CloseableHttpClient client = null;
+    private CloseableHttpClient ownedClient = null;
+    @Setter(AccessLevel.PACKAGE)
+    private RequestConfig requestConfig = ResourceFactory.requestConfig(
+            MapRouletteConfiguration.DEFAULT_CONNECT_TIMEOUT,
+            MapRouletteConfiguration.DEFAULT_SOCKET_TIMEOUT,
+            MapRouletteConfiguration.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    /**
+     * The time in milliseconds after which the request is aborted if the response hasn't been
+     * received and read, 0 disables the timeout
+     */
+    @Setter
+    private long requestTimeout = 0;
+    private final AtomicBoolean timedOut = new AtomicBoolean(false);
+    private ScheduledFuture<?> timeout = null;
+    /**
+     * The registry that the sizes of the request and response bodies are reported to when the
+     * resource is closed
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private IMetricsRegistry metrics = IMetricsRegistry.none();
+    /**
+     * Receives the phases of the request as it is executed, if set
+     */
+    @Setter
+    private RequestTimeline timeline = null;
+    private CountingEntity sentEntity = null;
+    private CountingEntity receivedEntity = null;
+    private long receivedBytes = 0;
 
     private static HttpClientContext createBasicAuthCache(final HttpHost target,
             final HttpClientContext context)
@@ -69,9 +164,30 @@ public abstract class HttpResource implements Closeable
         this.uri = uri;
     }
 
+    @Override
     public void close()
     {
+        this.cancelTimeout();
+        this.reportBodySizes();
+        // closing the response consumes any remaining content, so that the connection can be
+        // returned to the pool and reused
         HttpClientUtils.closeQuietly(this.response);
+        HttpClientUtils.closeQuietly(this.ownedClient);
+        this.ownedClient = null;
+    }
+
+    /**
+     * Aborts the request and closes the response without reading the remainder of the content.
+     * Unlike {@link #close()} the connection will not be reused, this is useful when only part of a
+     * large response has been read.
+     */
+    public void abort()
+    {
+        if (this.request != null)
+        {
+            this.request.abort();
+        }
+        this.close();
     }
 
     /**
@@ -84,6 +200,8 @@ public abstract class HttpResource implements Closeable
      */
     public void execute() throws MapRouletteException
     {
+        // release the previous response, otherwise its pooled connection would never be returned
+        HttpClientUtils.closeQuietly(this.response);
         this.response = null;
         this.response();
     }
@@ -99,7 +217,11 @@ public abstract class HttpResource implements Closeable
     {
         try
         {
-            return new String(this.response().readAllBytes());
+            final var body = this.response().readAllBytes();
+            this.mark(RequestPhase.BODY_READ);
+            final var decoded = new String(body);
+            this.mark(RequestPhase.PARSE);
+            return decoded;
         }
         catch (final IOException e)
         {
@@ -107,6 +229,19 @@ public abstract class HttpResource implements Closeable
         }
     }
 
+    /**
+     * Gets the response content as a stream, so that large responses can be read incrementally.
+     * The stream is only valid until the resource is closed.
+     *
+     * @return The response content
+     * @throws MapRouletteException
+     *             if any exceptions occur while trying to get a response
+     */
+    public InputStream getResponseBodyAsStream() throws MapRouletteException
+    {
+        return this.response();
+    }
+
     public CloseableHttpResponse getResponse() throws MapRouletteException
     {
         // make sure that a connection attempt has been made
@@ -141,33 +276,172 @@ public abstract class HttpResource implements Closeable
                 final var target = new HttpHost(this.uri.getHost(), this.uri.getPort(),
                         this.uri.getScheme());
                 final var context = HttpClientContext.create();
-                // Create a builder that supports reading from system properties so things like
-                // proxies can be used with -Dhttp.proxyHost, -Dhttp.proxyPort.
-                final var clientBuilder = HttpClients.custom().useSystemProperties();
                 if (this.creds != null)
                 {
                     final var credsProvider = new BasicCredentialsProvider();
                     credsProvider.setCredentials(
                             new AuthScope(target.getHostName(), target.getPort()), this.creds);
-                    clientBuilder.setDefaultCredentialsProvider(credsProvider);
+                    context.setCredentialsProvider(credsProvider);
                 }
                 if (this.proxy != null)
                 {
-                    clientBuilder.setProxy(this.proxy);
+                    // a request config replaces the default one of the client, so the timeouts
+                    // need to be copied over
+                    final var config = RequestConfig.copy(this.request.getConfig() == null
+                            ? this.requestConfig : this.request.getConfig());
+                    this.request.setConfig(config.setProxy(this.proxy).build());
                 }
-                final var client = clientBuilder.build();
                 createBasicAuthCache(target, context);
-                this.response = client.execute(target, this.request, context);
+                if (this.timeline != null)
+                {
+                    context.setAttribute(RequestTimeline.CONTEXT_ATTRIBUTE, this.timeline);
+                }
+                this.countRequestBody();
+                this.response = this.executeWithTimeout(target, context);
+                this.countResponseBody();
             }
             if (this.response.getEntity() == null)
             {
                 return new ByteArrayInputStream("".getBytes());
             }
-            return this.response.getEntity().getContent();
+            // the request timeout keeps running while the response is read
+            return this.timeout == null ? this.response.getEntity().getContent()
+                    : new TimeoutInputStream(this.response.getEntity().getContent());
         }
         catch (final IOException ioe)
         {
             throw new MapRouletteException(ioe.getMessage(), ioe);
         }
     }
+
+    /**
+     * @param exception
+     *            The exception thrown while executing the request or reading the response
+     * @return A timeout exception caused by the given exception if the request was aborted by the
+     *         request timeout, otherwise the given exception
+     */
+    private IOException timeoutException(final IOException exception)
+    {
+        if (!this.timedOut.get())
+        {
+            return exception;
+        }
+        final var timeoutException = new SocketTimeoutException(String.format(
+                "Request to %s timed out after %d ms", this.uri, this.requestTimeout));
+        timeoutException.initCause(exception);
+        return timeoutException;
+    }
+
+    private void mark(final RequestPhase phase)
+    {
+        if (this.timeline != null)
+        {
+            this.timeline.mark(phase);
+        }
+    }
+
+    private void reportBodySizes()
+    {
+        if (!this.metrics.isEnabled() || this.request == null)
+        {
+            return;
+        }
+        final var method = this.request.getMethod();
+        final var endpoint = MetricNames.endpoint(this.uri.getPath());
+        if (this.sentEntity != null)
+        {
+            this.metrics.count(MetricNames.BYTES_SENT, this.sentEntity.takeCount(),
+                    MetricNames.TAG_METHOD, method, MetricNames.TAG_ENDPOINT, endpoint);
+        }
+        if (this.receivedEntity != null)
+        {
+            // bytes read before the response is closed, decompressed if it was compressed
+            this.metrics.count(MetricNames.BYTES_RECEIVED,
+                    this.receivedBytes + this.receivedEntity.takeCount(), MetricNames.TAG_METHOD,
+                    method, MetricNames.TAG_ENDPOINT, endpoint);
+            this.receivedBytes = 0;
+        }
+    }
+
+    private void countRequestBody()
+    {
+        if (this.metrics.isEnabled() && this.sentEntity == null
+                && this.request instanceof HttpEntityEnclosingRequest)
+        {
+            final var enclosing = (HttpEntityEnclosingRequest) this.request;
+            if (enclosing.getEntity() != null)
+            {
+                this.sentEntity = new CountingEntity(enclosing.getEntity());
+                enclosing.setEntity(this.sentEntity);
+            }
+        }
+    }
+
+    private void countResponseBody()
+    {
+        if (this.metrics.isEnabled() && this.response.getEntity() != null)
+        {
+            // the response of an earlier execution is reported along with this one
+            if (this.receivedEntity != null)
+            {
+                this.receivedBytes += this.receivedEntity.takeCount();
+            }
+            this.receivedEntity = new CountingEntity(this.response.getEntity());
+            this.response.setEntity(this.receivedEntity);
+        }
+    }
+
+    private void cancelTimeout()
+    {
+        if (this.timeout != null)
+        {
+            this.timeout.cancel(false);
+            this.timeout = null;
+        }
+    }
+
+    /**
+     * Starts the request timeout and executes the request. The timeout is only cancelled once the
+     * resource is closed, so that it also bounds the time taken to read the response.
+     */
+    private CloseableHttpResponse executeWithTimeout(final HttpHost target,
+            final HttpClientContext context) throws IOException
+    {
+        this.cancelTimeout();
+        if (this.requestTimeout <= 0)
+        {
+            return this.getExecutingClient().execute(target, this.request, context);
+        }
+        this.timedOut.set(false);
+        this.timeout = TIMEOUTS.schedule(() ->
+        {
+            this.timedOut.set(true);
+            this.request.abort();
+        }, this.requestTimeout, TimeUnit.MILLISECONDS);
+        try
+        {
+            return this.getExecutingClient().execute(target, this.request, context);
+        }
+        catch (final IOException e)
+        {
+            this.cancelTimeout();
+            throw this.timeoutException(e);
+        }
+    }
+
+    private CloseableHttpClient getExecutingClient()
+    {
+        if (this.client != null)
+        {
+            return this.client;
+        }
+        if (this.ownedClient == null)
+        {
+            // Create a builder that supports reading from system properties so things like
+            // proxies can be used with -Dhttp.proxyHost, -Dhttp.proxyPort.
+            this.ownedClient = HttpClients.custom().useSystemProperties()
+                    .setDefaultRequestConfig(this.requestConfig).build();
+        }
+        return this.ownedClient;
+    }
 }
@@ -0,0 +1,79 @@
+package org.maproulette.client.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * An http entity that serializes an object straight to the request output stream when the request
+ * is sent, instead of building the json string in memory first. Usage: PostResource post = new
+ * PostResource(uri); post.setEntity(new JsonEntity(tasks));
+ *
+ * @author mcuthbert
+ */
+public class JsonEntity extends AbstractHttpEntity
+{
+    private final ObjectMapper mapper;
+    private final Object value;
+
+    public JsonEntity(final Object value)
+    {
+        this(ObjectMapperSingleton.getMapper(), value);
+    }
+
+    public JsonEntity(final ObjectMapper mapper, final Object value)
+    {
+        this.mapper = mapper;
+        this.value = value;
+        this.setContentType(ContentType.APPLICATION_JSON.toString());
+        this.setChunked(true);
+    }
+
+    /**
+     * Serializes the whole value into memory, this is only meant for debugging and testing as
+     * {@link #writeTo(OutputStream)} is used when sending the request.
+     *
+     * @return An input stream containing the serialized value
+     * @throws IOException
+     *             if the value can't be serialized
+     */
+    @Override
+    public InputStream getContent() throws IOException
+    {
+        return new ByteArrayInputStream(this.mapper.writeValueAsBytes(this.value));
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming()
+    {
+        return false;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException
+    {
+        // the http connection owns the stream, so it can't be closed by the generator
+        this.mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(outputStream, this.value);
+    }
+}
@@ -9,16 +9,26 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 
+import lombok.AccessLevel;
+import lombok.Setter;
+
 /**
  * Usage: byte[] body = "{\"test\":\"test\"}".getBytes(); URI uri = new
  * URIBuilder("http://localhost:2020/path/to/location").build(); HttpResource post = new
  * PostResource(uri, body); //read the response post.lines().foreach(System.out.println(x)); // get
- * the status code int code = post.getStatusCode();
+ * the status code int code = post.getStatusCode(); When a compression is set, request bodies that
+ * are at least as large as the compression threshold, or whose size isn't known up front, are
+ * compressed while they are sent.
  *
  * @author cuthbertm
  */
 public class PostResource extends HttpResource
 {
+    @Setter(AccessLevel.PACKAGE)
+    private Compression compression = Compression.NONE;
+    @Setter(AccessLevel.PACKAGE)
+    private long compressionThreshold = 0;
+
     public PostResource(final String uri)
     {
         this(URI.create(uri));
@@ -32,7 +42,7 @@ public class PostResource extends HttpResource
 
     public void setEntity(final HttpEntity entity)
     {
-        ((HttpEntityEnclosingRequestBase) getRequest()).setEntity(entity);
+        ((HttpEntityEnclosingRequestBase) getRequest()).setEntity(this.compress(entity));
     }
 
     public void setStringBody(final String body, final ContentType contentType)
@@ -42,6 +52,17 @@ public class PostResource extends HttpResource
         final var base = (HttpEntityEnclosingRequestBase) getRequest();
         base.addHeader(HttpHeaders.CONTENT_TYPE, contentType.getMimeType());
         final var entity = new StringEntity(body, contentType);
-        base.setEntity(entity);
+        base.setEntity(this.compress(entity));
+    }
+
+    private HttpEntity compress(final HttpEntity entity)
+    {
+        if (this.compression == Compression.NONE || entity == null
+                || entity.getContentLength() >= 0
+                        && entity.getContentLength() < this.compressionThreshold)
+        {
+            return entity;
+        }
+        return new CompressedEntity(entity, this.compression);
     }
 }
@@ -0,0 +1,43 @@
+package org.maproulette.client.http;
+
+/**
+ * The phases of a request, in the order that they happen
+ *
+ * @author mcuthbert
+ */
+public enum RequestPhase
+{
+    /**
+     * Serializing a request body that is written while it is sent, bodies that were serialized up
+     * front take no time here
+     */
+    SERIALIZE,
+    /**
+     * Leasing a pooled connection, or opening a new one, from the start of the request
+     */
+    ACQUIRE_CONNECTION,
+    /**
+     * Sending the request line, the headers and the body, without the time spent serializing
+     */
+    SEND,
+    /**
+     * Waiting for the status line and headers of the response, which is the time the server takes
+     */
+    FIRST_BYTE,
+    /**
+     * Reading the body of the response
+     */
+    BODY_READ,
+    /**
+     * Decoding the body of the response
+     */
+    PARSE;
+
+    /**
+     * @return The name of the phase as it is logged, for instance first byte
+     */
+    public String getDescription()
+    {
+        return this.name().toLowerCase().replace('_', ' ');
+    }
+}
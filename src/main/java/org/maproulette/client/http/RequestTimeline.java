@@ -0,0 +1,192 @@
+package org.maproulette.client.http;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records when each phase of a single request ended and how long it took. The phases are marked as
+ * the request goes through them, each taking the time since the previous mark. A phase that
+ * overlaps another one, like serializing a body while it is sent, is recorded with its own
+ * duration, which is then taken off the phase it overlapped. Every event is passed to the listener
+ * of the timeline as soon as it is recorded, and nothing is recorded once the timeline completed.
+ *
+ * @author mcuthbert
+ */
+public class RequestTimeline
+{
+    /**
+     * The attribute of the http context that the timeline of a request is stored in
+     */
+    static final String CONTEXT_ATTRIBUTE = "maproulette.timeline";
+
+    /**
+     * A phase of the request that ended
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Event
+    {
+        private final RequestPhase phase;
+        /**
+         * The time in milliseconds since the epoch that the phase ended
+         */
+        private final long timestamp;
+        /**
+         * The time in nanoseconds that the phase took
+         */
+        private final long duration;
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s %.1f ms", this.phase.getDescription(), millis(this.duration));
+        }
+    }
+
+    private static final double NANOSECONDS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Consumer<Event> listener;
+    private final List<Event> events = new ArrayList<>();
+    /**
+     * The time in milliseconds since the epoch that the request started
+     */
+    @Getter
+    private final long startTime = System.currentTimeMillis();
+    private final long start = System.nanoTime();
+    private long lastMark = this.start;
+    private long overlapped = 0;
+    private long end = -1;
+
+    private static double millis(final long nanoseconds)
+    {
+        return nanoseconds / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    /**
+     * @param listener
+     *            Receives every event as soon as it is recorded
+     */
+    public RequestTimeline(final Consumer<Event> listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Completes the timeline, after which no more phases are recorded
+     */
+    public synchronized void complete()
+    {
+        if (this.end < 0)
+        {
+            this.end = System.nanoTime();
+        }
+    }
+
+    /**
+     * @param phase
+     *            The phase to get the duration of
+     * @return The time in nanoseconds that the phase took, 0 if it wasn't recorded
+     */
+    public synchronized long getDuration(final RequestPhase phase)
+    {
+        return this.events.stream().filter(event -> event.getPhase() == phase)
+                .mapToLong(Event::getDuration).sum();
+    }
+
+    /**
+     * @return The time in nanoseconds from the start of the request until it completed, or until
+     *         now if it hasn't completed yet
+     */
+    public synchronized long getElapsed()
+    {
+        return (this.end < 0 ? System.nanoTime() : this.end) - this.start;
+    }
+
+    /**
+     * @return The recorded events, in the order that they were recorded
+     */
+    public synchronized List<Event> getEvents()
+    {
+        return new ArrayList<>(this.events);
+    }
+
+    /**
+     * @return The time in nanoseconds of every recorded phase, in the order of the phases
+     */
+    public synchronized Map<RequestPhase, Long> getPhases()
+    {
+        final var phases = new EnumMap<RequestPhase, Long>(RequestPhase.class);
+        this.events.forEach(
+                event -> phases.merge(event.getPhase(), event.getDuration(), Long::sum));
+        return phases;
+    }
+
+    /**
+     * Marks the end of a phase, which took the time since the previous mark less the time of any
+     * phases that overlapped it
+     *
+     * @param phase
+     *            The phase that ended
+     */
+    public synchronized void mark(final RequestPhase phase)
+    {
+        if (this.end >= 0)
+        {
+            return;
+        }
+        final var now = System.nanoTime();
+        final var duration = Math.max(0, now - this.lastMark - this.overlapped);
+        this.lastMark = now;
+        this.overlapped = 0;
+        this.add(new Event(phase, this.timestamp(now), duration));
+    }
+
+    /**
+     * Records a phase that overlapped the phase currently running
+     *
+     * @param phase
+     *            The phase that ended
+     * @param duration
+     *            The time in nanoseconds that the phase took
+     */
+    public synchronized void record(final RequestPhase phase, final long duration)
+    {
+        if (this.end >= 0)
+        {
+            return;
+        }
+        this.overlapped += duration;
+        this.add(new Event(phase, this.timestamp(System.nanoTime()), duration));
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final var description = new StringBuilder();
+        this.getPhases().forEach((phase, duration) -> description.append(phase.getDescription())
+                .append(String.format(" %.1f ms, ", millis(duration))));
+        return description.append(String.format("total %.1f ms", millis(this.getElapsed())))
+                .toString();
+    }
+
+    private void add(final Event event)
+    {
+        this.events.add(event);
+        if (this.listener != null)
+        {
+            this.listener.accept(event);
+        }
+    }
+
+    private long timestamp(final long nanoTime)
+    {
+        return this.startTime + TimeUnit.NANOSECONDS.toMillis(nanoTime - this.start);
+    }
+}
@@ -1,23 +1,116 @@
 package org.maproulette.client.http;
 
+import java.io.Closeable;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.maproulette.client.connection.MapRouletteConfiguration;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.metrics.IMetricsRegistry;
+import org.maproulette.client.metrics.MetricNames;
 
 /**
- * Factory for retrieving resource based on method
+ * Factory for retrieving resource based on method. The factory owns a single pooled, keep-alive
+ * http client that is shared by every resource it creates, so it should be closed once it is no
+ * longer required. All the requests made through the client are bounded by the connect, socket and
+ * connection request timeouts of the configuration. When the metrics are enabled, the usage of the
+ * connection pool is reported every time a resource is created, and resources with a
+ * {@link RequestTimeline} have the phases of their requests marked on it.
  *
  * @author mcuthbert
  */
-public class ResourceFactory
+public class ResourceFactory implements Closeable
 {
+    private final int maxConnectionsPerRoute;
+    private final int maxConnectionsTotal;
+    private final long idleConnectionTimeout;
+    private final long connectionTTL;
+    private final long requestTimeout;
+    private final RequestConfig requestConfig;
+    private final Compression compression;
+    private final long compressionThreshold;
+    private final boolean acceptCompressedResponses;
+    private final IMetricsRegistry metrics;
+    private CloseableHttpClient client;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private boolean closed;
+
+    /**
+     * Builds the default request configuration that bounds how long a request can wait on the
+     * server
+     *
+     * @param connectTimeout
+     *            The time in milliseconds to wait for a connection to be established
+     * @param socketTimeout
+     *            The maximum time in milliseconds between two packets of a response
+     * @param connectionRequestTimeout
+     *            The time in milliseconds to wait for a connection from the pool
+     * @return The request configuration
+     */
+    static RequestConfig requestConfig(final int connectTimeout, final int socketTimeout,
+            final int connectionRequestTimeout)
+    {
+        return RequestConfig.custom().setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout).build();
+    }
+
     public ResourceFactory()
     {
-        // no class variables required for class
+        this.maxConnectionsPerRoute = MapRouletteConfiguration.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        this.maxConnectionsTotal = MapRouletteConfiguration.DEFAULT_MAX_CONNECTIONS_TOTAL;
+        this.idleConnectionTimeout = MapRouletteConfiguration.DEFAULT_IDLE_CONNECTION_TIMEOUT;
+        this.connectionTTL = MapRouletteConfiguration.DEFAULT_CONNECTION_TTL;
+        this.requestTimeout = 0;
+        this.compression = Compression.NONE;
+        this.compressionThreshold = MapRouletteConfiguration.DEFAULT_COMPRESSION_THRESHOLD;
+        this.acceptCompressedResponses = true;
+        this.metrics = IMetricsRegistry.none();
+        this.requestConfig = requestConfig(MapRouletteConfiguration.DEFAULT_CONNECT_TIMEOUT,
+                MapRouletteConfiguration.DEFAULT_SOCKET_TIMEOUT,
+                MapRouletteConfiguration.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    public ResourceFactory(final MapRouletteConfiguration configuration)
+    {
+        this.maxConnectionsPerRoute = configuration.getMaxConnectionsPerRoute();
+        this.maxConnectionsTotal = configuration.getMaxConnectionsTotal();
+        this.idleConnectionTimeout = configuration.getIdleConnectionTimeout();
+        this.connectionTTL = configuration.getConnectionTTL();
+        this.requestTimeout = configuration.getRequestTimeout();
+        this.compression = configuration.getCompression();
+        this.compressionThreshold = configuration.getCompressionThreshold();
+        this.acceptCompressedResponses = configuration.isAcceptCompressedResponses();
+        this.metrics = configuration.getMetricsRegistry();
+        this.requestConfig = requestConfig(configuration.getConnectTimeout(),
+                configuration.getSocketTimeout(), configuration.getConnectionRequestTimeout());
+    }
+
+    /**
+     * Closes the shared http client and all the pooled connections. Any resources created by this
+     * factory can no longer be executed after it has been closed, and no new resources can be
+     * created.
+     */
+    @Override
+    public synchronized void close()
+    {
+        this.closed = true;
+        HttpClientUtils.closeQuietly(this.client);
+        this.client = null;
+        this.connectionManager = null;
     }
 
     public HttpResource resource(final String methodName, final String uri)
@@ -27,19 +120,99 @@ public class ResourceFactory
 
     public HttpResource resource(final String methodName, final URI uri)
     {
+        final HttpResource resource;
         switch (methodName)
         {
             case HttpGet.METHOD_NAME:
-                return new GetResource(uri);
+                resource = new GetResource(uri);
+                break;
             case HttpDelete.METHOD_NAME:
-                return new DeleteResource(uri);
+                resource = new DeleteResource(uri);
+                break;
             case HttpPost.METHOD_NAME:
-                return new PostResource(uri);
+                resource = this.compressing(new PostResource(uri));
+                break;
             case HttpPut.METHOD_NAME:
-                return new PutResource(uri);
+                resource = this.compressing(new PutResource(uri));
+                break;
             default:
                 throw new MapRouletteRuntimeException(
                         String.format("Invalid method name %s provided", methodName));
         }
+        resource.setClient(this.client());
+        resource.setRequestConfig(this.requestConfig);
+        resource.setRequestTimeout(this.requestTimeout);
+        if (this.metrics.isEnabled())
+        {
+            resource.setMetrics(this.metrics);
+            this.reportPool();
+        }
+        return resource;
+    }
+
+    private PostResource compressing(final PostResource resource)
+    {
+        resource.setCompression(this.compression);
+        resource.setCompressionThreshold(this.compressionThreshold);
+        return resource;
+    }
+
+    private synchronized void reportPool()
+    {
+        if (this.connectionManager != null)
+        {
+            final var stats = this.connectionManager.getTotalStats();
+            this.metrics.gauge(MetricNames.POOL_LEASED, stats.getLeased());
+            this.metrics.gauge(MetricNames.POOL_AVAILABLE, stats.getAvailable());
+            this.metrics.gauge(MetricNames.POOL_PENDING, stats.getPending());
+            this.metrics.gauge(MetricNames.POOL_MAX, stats.getMax());
+        }
+    }
+
+    /**
+     * Lazily builds the shared http client, so that factories that never create a resource don't
+     * open a connection pool.
+     *
+     * @return The pooled client shared by all resources of this factory
+     * @throws IllegalStateException
+     *             if the factory has been closed
+     */
+    protected synchronized CloseableHttpClient client()
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("The resource factory has been closed");
+        }
+        if (this.client == null)
+        {
+            // the connection manager replaces the one the builder would create, so the socket
+            // factories have to read the https.protocols, https.cipherSuites and javax.net.ssl.*
+            // system properties themselves
+            final var registry = RegistryBuilder.<ConnectionSocketFactory> create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                    .build();
+            // a ttl of 0 or less keeps the connections for as long as they are reusable
+            this.connectionManager = new PoolingHttpClientConnectionManager(registry, null, null,
+                    null, this.connectionTTL > 0 ? this.connectionTTL : -1,
+                    TimeUnit.MILLISECONDS);
+            this.connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+            this.connectionManager.setMaxTotal(this.maxConnectionsTotal);
+            // Supports reading from system properties so things like proxies can be used with
+            // -Dhttp.proxyHost, -Dhttp.proxyPort.
+            final var builder = HttpClients.custom().useSystemProperties()
+                    .setConnectionManager(this.connectionManager)
+                    .setDefaultRequestConfig(this.requestConfig).evictExpiredConnections()
+                    .evictIdleConnections(this.idleConnectionTimeout, TimeUnit.MILLISECONDS)
+                    .setRequestExecutor(new TimingRequestExecutor());
+            // the client sends Accept-Encoding: gzip,deflate and transparently decompresses the
+            // responses unless content compression is disabled
+            if (!this.acceptCompressedResponses)
+            {
+                builder.disableContentCompression();
+            }
+            this.client = builder.build();
+        }
+        return this.client;
     }
 }
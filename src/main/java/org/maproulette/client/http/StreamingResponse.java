@@ -0,0 +1,145 @@
+package org.maproulette.client.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteRuntimeParseException;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Lazily parses a json array response one element at a time, directly from the response stream of
+ * an {@link HttpResource}, so that the full response never has to be held in memory. The resource
+ * is closed once the last element has been read, if the iterator is closed before that the request
+ * is aborted so the rest of the response isn't downloaded. The caller is responsible for the
+ * resource if the constructor fails.
+ *
+ * @param <T>
+ *            The type of the elements in the json array
+ * @author mcuthbert
+ */
+public class StreamingResponse<T> implements Iterator<T>, Closeable
+{
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final HttpResource resource;
+    private final Class<T> type;
+    private final JsonParser parser;
+    private boolean advanced = false;
+    private boolean exhausted = false;
+    private boolean closed = false;
+
+    public StreamingResponse(final HttpResource resource, final Class<T> type)
+            throws MapRouletteException
+    {
+        this.resource = resource;
+        this.type = type;
+        final JsonToken token;
+        try
+        {
+            this.parser = this.mapper.getFactory()
+                    .createParser(resource.getResponseBodyAsStream());
+            token = this.parser.nextToken();
+        }
+        catch (final IOException e)
+        {
+            throw new MapRouletteException(e);
+        }
+        if (token == null)
+        {
+            // an empty body is treated as an empty array
+            this.exhausted = true;
+            this.close();
+        }
+        else if (token != JsonToken.START_ARRAY)
+        {
+            throw new MapRouletteException(
+                    String.format("Expected a json array but found %s", token));
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (!this.closed)
+        {
+            this.closed = true;
+            if (this.exhausted)
+            {
+                this.resource.close();
+            }
+            else
+            {
+                this.resource.abort();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (this.closed)
+        {
+            return false;
+        }
+        if (!this.advanced)
+        {
+            try
+            {
+                final var token = this.parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY)
+                {
+                    this.exhausted = true;
+                    this.close();
+                    return false;
+                }
+                this.advanced = true;
+            }
+            catch (final IOException e)
+            {
+                this.close();
+                throw new MapRouletteRuntimeParseException(e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next()
+    {
+        if (!this.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        try
+        {
+            this.advanced = false;
+            return this.mapper.readValue(this.parser, this.type);
+        }
+        catch (final IOException e)
+        {
+            this.close();
+            throw new MapRouletteRuntimeParseException(e);
+        }
+    }
+
+    /**
+     * @return A sequential stream over the elements, closing the stream closes the response
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+}
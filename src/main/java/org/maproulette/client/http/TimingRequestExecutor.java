@@ -0,0 +1,153 @@
+package org.maproulette.client.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * Marks the phases of a request on the {@link RequestTimeline} stored in its http context. The
+ * executor is only called once the connection has been leased, so that is when acquiring the
+ * connection ends. The body is timed while it is written, and the time spent in the connection's
+ * stream is taken as sending while the rest is taken as serializing. Requests without a timeline
+ * are executed as usual.
+ *
+ * @author mcuthbert
+ */
+class TimingRequestExecutor extends HttpRequestExecutor
+{
+    /**
+     * Measures how long the wrapped entity takes to be written, and how much of that is spent in
+     * the stream it is written to
+     */
+    private static final class TimedEntity extends HttpEntityWrapper
+    {
+        private long writing = 0;
+        private long streaming = 0;
+
+        TimedEntity(final HttpEntity entity)
+        {
+            super(entity);
+        }
+
+        @Override
+        public void writeTo(final OutputStream outputStream) throws IOException
+        {
+            final var start = System.nanoTime();
+            try
+            {
+                this.wrappedEntity.writeTo(new FilterOutputStream(outputStream)
+                {
+                    @Override
+                    public void flush() throws IOException
+                    {
+                        final var flushStart = System.nanoTime();
+                        this.out.flush();
+                        TimedEntity.this.streaming += System.nanoTime() - flushStart;
+                    }
+
+                    @Override
+                    public void write(final int value) throws IOException
+                    {
+                        final var writeStart = System.nanoTime();
+                        this.out.write(value);
+                        TimedEntity.this.streaming += System.nanoTime() - writeStart;
+                    }
+
+                    @Override
+                    public void write(final byte[] bytes, final int offset, final int length)
+                            throws IOException
+                    {
+                        final var writeStart = System.nanoTime();
+                        this.out.write(bytes, offset, length);
+                        TimedEntity.this.streaming += System.nanoTime() - writeStart;
+                    }
+                });
+            }
+            finally
+            {
+                this.writing += System.nanoTime() - start;
+            }
+        }
+
+        long getSerializing()
+        {
+            return Math.max(0, this.writing - this.streaming);
+        }
+    }
+
+    private static RequestTimeline timeline(final HttpContext context)
+    {
+        final var timeline = context.getAttribute(RequestTimeline.CONTEXT_ATTRIBUTE);
+        return timeline instanceof RequestTimeline ? (RequestTimeline) timeline : null;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request, final HttpClientConnection connection,
+            final HttpContext context) throws IOException, HttpException
+    {
+        final var timeline = timeline(context);
+        if (timeline != null)
+        {
+            timeline.mark(RequestPhase.ACQUIRE_CONNECTION);
+        }
+        return super.execute(request, connection, context);
+    }
+
+    @Override
+    protected HttpResponse doReceiveResponse(final HttpRequest request,
+            final HttpClientConnection connection, final HttpContext context)
+            throws HttpException, IOException
+    {
+        final var response = super.doReceiveResponse(request, connection, context);
+        final var timeline = timeline(context);
+        if (timeline != null)
+        {
+            // the status line and headers have been read, the body is read by the caller
+            timeline.mark(RequestPhase.FIRST_BYTE);
+        }
+        return response;
+    }
+
+    @Override
+    protected HttpResponse doSendRequest(final HttpRequest request,
+            final HttpClientConnection connection, final HttpContext context)
+            throws IOException, HttpException
+    {
+        final var timeline = timeline(context);
+        if (timeline == null || !(request instanceof HttpEntityEnclosingRequest)
+                || ((HttpEntityEnclosingRequest) request).getEntity() == null)
+        {
+            final var response = super.doSendRequest(request, connection, context);
+            if (timeline != null)
+            {
+                timeline.mark(RequestPhase.SEND);
+            }
+            return response;
+        }
+        final var enclosing = (HttpEntityEnclosingRequest) request;
+        final var entity = enclosing.getEntity();
+        final var timed = new TimedEntity(entity);
+        enclosing.setEntity(timed);
+        try
+        {
+            return super.doSendRequest(request, connection, context);
+        }
+        finally
+        {
+            // the request keeps its own entity, so that it can be sent again
+            enclosing.setEntity(entity);
+            timeline.record(RequestPhase.SERIALIZE, timed.getSerializing());
+            timeline.mark(RequestPhase.SEND);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.maproulette.client.metrics;
+
+/**
+ * Receives the measurements of the client, the counters, gauges and histograms are identified by
+ * a name from {@link MetricNames} and a set of tags given as alternating keys and values. Bridging
+ * this to a metrics library only needs the three methods to be forwarded to its registry, the
+ * {@link InMemoryMetricsRegistry} keeps the measurements in memory so they can be dumped.
+ *
+ * <pre>
+ * final var metrics = new InMemoryMetricsRegistry();
+ * configuration.setMetricsRegistry(metrics);
+ * ...
+ * System.out.println(metrics.dump());
+ * </pre>
+ *
+ * @author mcuthbert
+ */
+public interface IMetricsRegistry
+{
+    /**
+     * @return A registry that ignores all the measurements, which is the default
+     */
+    static IMetricsRegistry none()
+    {
+        return new IMetricsRegistry()
+        {
+            @Override
+            public void count(final String name, final long amount, final String... tags)
+            {
+                // nothing is recorded
+            }
+
+            @Override
+            public void gauge(final String name, final long value, final String... tags)
+            {
+                // nothing is recorded
+            }
+
+            @Override
+            public boolean isEnabled()
+            {
+                return false;
+            }
+
+            @Override
+            public void record(final String name, final long value, final String... tags)
+            {
+                // nothing is recorded
+            }
+        };
+    }
+
+    /**
+     * Adds to a counter
+     *
+     * @param name
+     *            The name of the counter
+     * @param amount
+     *            The amount to add
+     * @param tags
+     *            The tags of the counter as alternating keys and values
+     */
+    void count(String name, long amount, String... tags);
+
+    /**
+     * Sets a gauge to its current value
+     *
+     * @param name
+     *            The name of the gauge
+     * @param value
+     *            The current value
+     * @param tags
+     *            The tags of the gauge as alternating keys and values
+     */
+    void gauge(String name, long value, String... tags);
+
+    /**
+     * @return false if the measurements are ignored, so the client can skip taking them
+     */
+    default boolean isEnabled()
+    {
+        return true;
+    }
+
+    /**
+     * Records a value in a histogram, such as the latency of a request
+     *
+     * @param name
+     *            The name of the histogram
+     * @param value
+     *            The value to record
+     * @param tags
+     *            The tags of the histogram as alternating keys and values
+     */
+    void record(String name, long value, String... tags);
+}
@@ -0,0 +1,221 @@
+package org.maproulette.client.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics registry that keeps the measurements in memory. Histograms count their values in
+ * exponential buckets, so the percentiles are approximate, with the upper bound of a bucket being
+ * twice its lower bound, while the count, total, minimum and maximum are exact. The measurements
+ * can be read individually or dumped as text, one measurement per line.
+ *
+ * @author mcuthbert
+ */
+public class InMemoryMetricsRegistry implements IMetricsRegistry
+{
+    /**
+     * The distribution of the values recorded by a histogram
+     */
+    public static final class Histogram
+    {
+        private static final int BUCKETS = Long.SIZE;
+        private final long[] buckets = new long[BUCKETS];
+        private long count = 0;
+        private long total = 0;
+        private long minimum = Long.MAX_VALUE;
+        private long maximum = Long.MIN_VALUE;
+
+        public synchronized long getCount()
+        {
+            return this.count;
+        }
+
+        public synchronized long getMaximum()
+        {
+            return this.count == 0 ? 0 : this.maximum;
+        }
+
+        public synchronized double getMean()
+        {
+            return this.count == 0 ? 0 : this.total / (double) this.count;
+        }
+
+        public synchronized long getMinimum()
+        {
+            return this.count == 0 ? 0 : this.minimum;
+        }
+
+        /**
+         * Gets the approximate value below which a fraction of the recorded values fall
+         *
+         * @param percentile
+         *            The fraction, between 0 and 1
+         * @return The upper bound of the bucket that the percentile falls into, capped by the
+         *         maximum recorded value, or 0 if no values were recorded
+         */
+        public synchronized long getPercentile(final double percentile)
+        {
+            if (this.count == 0)
+            {
+                return 0;
+            }
+            final var rank = Math.max(1, (long) Math.ceil(percentile * this.count));
+            var seen = 0L;
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                seen += this.buckets[bucket];
+                if (seen >= rank)
+                {
+                    // bucket 0 holds the values up to 0, bucket n the values up to 2^n - 1
+                    final var upper = bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+                    return Math.max(this.minimum, Math.min(upper, this.maximum));
+                }
+            }
+            return this.maximum;
+        }
+
+        public synchronized long getTotal()
+        {
+            return this.total;
+        }
+
+        synchronized void record(final long value)
+        {
+            final var bucket = value <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(value);
+            this.buckets[Math.min(bucket, BUCKETS - 1)]++;
+            this.count++;
+            this.total += value;
+            this.minimum = Math.min(this.minimum, value);
+            this.maximum = Math.max(this.maximum, value);
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return String.format("count=%d mean=%.1f min=%d p50=%d p90=%d p99=%d max=%d",
+                    this.count, this.getMean(), this.getMinimum(),
+                    this.getPercentile(PERCENTILE_50), this.getPercentile(PERCENTILE_90),
+                    this.getPercentile(PERCENTILE_99), this.getMaximum());
+        }
+    }
+
+    private static final double PERCENTILE_50 = 0.5;
+    private static final double PERCENTILE_90 = 0.9;
+    private static final double PERCENTILE_99 = 0.99;
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the key of a measurement, the name followed by the tags, for instance
+     * maproulette.requests{method=GET,endpoint=/api/v2/task/{id}}
+     *
+     * @param name
+     *            The name of the measurement
+     * @param tags
+     *            The tags of the measurement as alternating keys and values
+     * @return The key of the measurement
+     */
+    public static String key(final String name, final String... tags)
+    {
+        if (tags.length == 0)
+        {
+            return name;
+        }
+        final var key = new StringBuilder(name).append('{');
+        for (int index = 0; index + 1 < tags.length; index += 2)
+        {
+            if (index > 0)
+            {
+                key.append(',');
+            }
+            key.append(tags[index]).append('=').append(tags[index + 1]);
+        }
+        return key.append('}').toString();
+    }
+
+    @Override
+    public void count(final String name, final long amount, final String... tags)
+    {
+        this.counters.computeIfAbsent(key(name, tags), key -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * @return All the measurements, sorted by key, one per line
+     */
+    public String dump()
+    {
+        final var lines = new TreeMap<String, String>();
+        this.counters.forEach((key, counter) -> lines.put(key, String.valueOf(counter.sum())));
+        this.gauges.forEach((key, gauge) -> lines.put(key, String.valueOf(gauge.get())));
+        this.histograms.forEach((key, histogram) -> lines.put(key, histogram.toString()));
+        final var dump = new StringBuilder();
+        lines.forEach((key, value) -> dump.append(key).append(' ').append(value).append('\n'));
+        return dump.toString();
+    }
+
+    @Override
+    public void gauge(final String name, final long value, final String... tags)
+    {
+        this.gauges.computeIfAbsent(key(name, tags), key -> new AtomicLong()).set(value);
+    }
+
+    /**
+     * @param name
+     *            The name of the counter
+     * @param tags
+     *            The tags of the counter
+     * @return The value of the counter, or 0 if nothing was counted
+     */
+    public long getCount(final String name, final String... tags)
+    {
+        final var counter = this.counters.get(key(name, tags));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @param name
+     *            The name of the gauge
+     * @param tags
+     *            The tags of the gauge
+     * @return The last value of the gauge, or 0 if it was never set
+     */
+    public long getGauge(final String name, final String... tags)
+    {
+        final var gauge = this.gauges.get(key(name, tags));
+        return gauge == null ? 0 : gauge.get();
+    }
+
+    /**
+     * @param name
+     *            The name of the histogram
+     * @param tags
+     *            The tags of the histogram
+     * @return The histogram, which is empty if nothing was recorded
+     */
+    public Histogram getHistogram(final String name, final String... tags)
+    {
+        final var histogram = this.histograms.get(key(name, tags));
+        return histogram == null ? new Histogram() : histogram;
+    }
+
+    @Override
+    public void record(final String name, final long value, final String... tags)
+    {
+        this.histograms.computeIfAbsent(key(name, tags), key -> new Histogram()).record(value);
+    }
+
+    /**
+     * Removes all the measurements
+     */
+    public void reset()
+    {
+        this.counters.clear();
+        this.gauges.clear();
+        this.histograms.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package org.maproulette.client.metrics;
+
+/**
+ * The names and tags of the measurements taken by the client. Durations are in milliseconds and
+ * sizes in bytes.
+ *
+ * @author mcuthbert
+ */
+public final class MetricNames
+{
+    // Requests, tagged with the method and endpoint
+    public static final String REQUESTS = "maproulette.requests";
+    public static final String REQUEST_LATENCY = "maproulette.request.latency";
+    public static final String REQUEST_RETRIES = "maproulette.request.retries";
+    public static final String BYTES_SENT = "maproulette.bytes.sent";
+    public static final String BYTES_RECEIVED = "maproulette.bytes.received";
+    // Connection pool
+    public static final String POOL_LEASED = "maproulette.pool.leased";
+    public static final String POOL_AVAILABLE = "maproulette.pool.available";
+    public static final String POOL_PENDING = "maproulette.pool.pending";
+    public static final String POOL_MAX = "maproulette.pool.max";
+    // Batches, tagged with the challenge
+    public static final String BATCH_QUEUE_DEPTH = "maproulette.batch.queue.depth";
+    public static final String BATCH_FLUSH_DURATION = "maproulette.batch.flush.duration";
+    public static final String BATCH_UPLOADED_TASKS = "maproulette.batch.uploaded.tasks";
+    // Tags
+    public static final String TAG_METHOD = "method";
+    public static final String TAG_ENDPOINT = "endpoint";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_CHALLENGE = "challenge";
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final String IDENTIFIER = "{id}";
+    private static final String NAME = "{name}";
+    private static final String SEPARATOR = "/";
+
+    /**
+     * Turns the path of a request into its endpoint, by replacing the identifiers and the names in
+     * the path with placeholders, so that the number of endpoints stays bounded. For instance
+     * /api/v2/challenge/12/task/Task1 becomes /api/v2/challenge/{id}/task/{name}.
+     *
+     * @param path
+     *            The path of the request
+     * @return The endpoint of the request
+     */
+    public static String endpoint(final String path)
+    {
+        final var query = path.indexOf('?');
+        final var segments = (query < 0 ? path : path.substring(0, query)).split(SEPARATOR);
+        for (int index = 0; index < segments.length; index++)
+        {
+            if (isIdentifier(segments[index]))
+            {
+                segments[index] = IDENTIFIER;
+            }
+            else if (index > 0 && "projectByName".equals(segments[index - 1])
+                    || index > 1 && IDENTIFIER.equals(segments[index - 2])
+                            && ("task".equals(segments[index - 1])
+                                    || "challenge".equals(segments[index - 1])))
+            {
+                segments[index] = NAME;
+            }
+        }
+        return String.join(SEPARATOR, segments);
+    }
+
+    private static boolean isIdentifier(final String segment)
+    {
+        final var start = segment.startsWith("-") ? 1 : 0;
+        if (segment.length() <= start)
+        {
+            return false;
+        }
+        for (int index = start; index < segment.length(); index++)
+        {
+            if (!Character.isDigit(segment.charAt(index)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MetricNames()
+    {
+
+    }
+}
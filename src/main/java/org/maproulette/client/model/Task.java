@@ -2,6 +2,7 @@ package org.maproulette.client.model;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -12,9 +13,12 @@ import org.maproulette.client.exception.MapRouletteRuntimeException;
 import org.maproulette.client.utilities.ObjectMapperSingleton;
 import org.maproulette.client.utilities.Utilities;
 
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -54,7 +58,7 @@ public class Task implements IMapRouletteObject, Serializable
         private static final String POINT = "point";
         private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
         private final Set<PointInformation> points = new HashSet<>();
-        private ArrayNode geoJson = this.mapper.createArrayNode();
+        private List<String> geoJson = new ArrayList<>();
 
         public TaskBuilder locationGeojson(final String geojson)
         {
@@ -85,7 +89,7 @@ public class Task implements IMapRouletteObject, Serializable
         {
             try
             {
-                this.geoJson.add(this.mapper.readTree(geojson));
+                this.geoJson.add(TaskGeometry.canonicalFeature(geojson));
             }
             catch (final IOException e)
             {
@@ -102,14 +106,15 @@ public class Task implements IMapRouletteObject, Serializable
 
         public TaskBuilder resetGeometry()
         {
-            this.geoJson = this.mapper.createArrayNode();
+            this.geoJson = new ArrayList<>();
             this.geometries = null;
+            this.compactGeometries = null;
             return this;
         }
 
         public TaskBuilder addGeojson(final List<String> geojson)
         {
-            geojson.forEach(this.geoJson::add);
+            geojson.forEach(this::addGeojson);
             return this;
         }
 
@@ -117,9 +122,9 @@ public class Task implements IMapRouletteObject, Serializable
         {
             try
             {
-                if (this.geometries == null)
+                if (this.geometries == null && this.compactGeometries == null)
                 {
-                    this.geometries(this.buildGeometries());
+                    this.compactGeometries(this.buildGeometries());
                 }
             }
             catch (final MapRouletteException e)
@@ -140,10 +145,22 @@ public class Task implements IMapRouletteObject, Serializable
                 this.errorTags = "";
             }
             return new Task(this.id, this.parent, this.name, this.instruction, this.location,
-                    this.status, this.priority, this.geometries, this.tags, null, null, null,
-                    this.errorTags);
+                    this.status, this.priority, this.geometries, this.compactGeometries,
+                    this.tags, null, null, null, this.errorTags);
         }
 
+        /**
+         * Builds the features of the points and GeoJSON as a tree of nodes. The tasks built by
+         * {@link #build()} keep their features in the compact {@link TaskGeometry} instead.
+         *
+         * @param source
+         *            The points of the task
+         * @param geoJson
+         *            The GeoJSON features of the task
+         * @return The features of the task
+         * @throws MapRouletteException
+         *             if the task has neither points nor GeoJSON features
+         */
         protected ArrayNode generateTaskFeatures(final Set<PointInformation> source,
                 final ArrayNode geoJson) throws MapRouletteException
         {
@@ -193,11 +210,20 @@ public class Task implements IMapRouletteObject, Serializable
             return this;
         }
 
-        private JsonNode buildGeometries() throws MapRouletteException
+        private TaskBuilder compactGeometries(final TaskGeometry value)
         {
-            final var result = this.mapper.createObjectNode();
-            result.set(TASK_FEATURES, generateTaskFeatures(this.points, this.geoJson));
-            return result;
+            this.compactGeometries = value;
+            return this;
+        }
+
+        private TaskGeometry buildGeometries() throws MapRouletteException
+        {
+            if (this.points.isEmpty() && this.geoJson.isEmpty())
+            {
+                throw new MapRouletteException(String
+                        .format("Could not find any features for the task [%s].", this.toString()));
+            }
+            return new TaskGeometry(this.points, this.geoJson);
         }
     }
 
@@ -212,6 +238,12 @@ public class Task implements IMapRouletteObject, Serializable
     private TaskStatus status;
     private ChallengePriority priority;
     private JsonNode geometries;
+    /**
+     * The geometries of a task built by the task builder, which are only turned into a tree if
+     * {@link #getGeometries()} is called
+     */
+    @JsonIgnore
+    private TaskGeometry compactGeometries;
     private List<String> tags;
     private Long completedBy;
     private Long completedTimeSpent;
@@ -228,6 +260,63 @@ public class Task implements IMapRouletteObject, Serializable
         return Utilities.fromJson(json, Task.class);
     }
 
+    /**
+     * Gets the geometries of the task as a tree. A task built by the task builder keeps its
+     * geometries in a compact form, which is turned into a tree and dropped the first time this is
+     * called, so that changes made to the tree are kept. The geometries are only read and written
+     * while holding the lock of the task, so a task being serialized for an upload on another
+     * thread sees either form but never both or neither.
+     *
+     * @return The geometries of the task
+     */
+    @JsonIgnore
+    public synchronized JsonNode getGeometries()
+    {
+        if (this.geometries == null && this.compactGeometries != null)
+        {
+            final var mapper = ObjectMapperSingleton.getMapper();
+            try
+            {
+                this.geometries = mapper.readTree(mapper.writeValueAsBytes(this.compactGeometries));
+                this.compactGeometries = null;
+            }
+            catch (final IOException e)
+            {
+                throw new MapRouletteRuntimeException(e);
+            }
+        }
+        return this.geometries;
+    }
+
+    /**
+     * @return The compact geometries of the task, or null if it only has a tree of geometries
+     */
+    public synchronized TaskGeometry getCompactGeometries()
+    {
+        return this.compactGeometries;
+    }
+
+    /**
+     * @param compactGeometries
+     *            The compact geometries of the task, which replace any tree of geometries
+     */
+    public synchronized void setCompactGeometries(final TaskGeometry compactGeometries)
+    {
+        this.compactGeometries = compactGeometries;
+        this.geometries = null;
+    }
+
+    /**
+     * @param geometries
+     *            The geometries of the task, which replace any compact geometries
+     */
+    @JsonSetter("geometries")
+    public synchronized void setGeometries(final JsonNode geometries)
+    {
+        this.geometries = geometries;
+        this.compactGeometries = null;
+    }
+
     public TaskBuilder toBuilder(final boolean resetGeometry)
     {
         if (resetGeometry)
@@ -240,6 +329,15 @@ public class Task implements IMapRouletteObject, Serializable
         }
     }
 
+    /**
+     * @return The geometries as they are serialized, in the compact form if the task has it
+     */
+    @JsonGetter("geometries")
+    private synchronized Object getSerializedGeometries()
+    {
+        return this.compactGeometries == null ? this.geometries : this.compactGeometries;
+    }
+
     /**
      * What defines a task as unique is its task identifier and its challenge name. So even if the
      * geometry or description or other member variables are different, it will be defined as equal
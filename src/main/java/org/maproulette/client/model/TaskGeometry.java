@@ -0,0 +1,201 @@
+package org.maproulette.client.model;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * The geometries of a task built by the task builder, kept in a compact form. Points are stored as
+ * a primitive array of coordinates, and GeoJSON features as pre-validated JSON text, instead of a
+ * tree of nodes per point and feature. The geometries are written straight to the output when the
+ * task is serialized, in the same form that the tree would have been written.
+ *
+ * @author mcuthbert
+ */
+@JsonSerialize(using = TaskGeometry.TaskGeometrySerializer.class)
+public final class TaskGeometry implements Serializable
+{
+    /**
+     * Writes the geometries as a feature collection, the points first and then the features
+     */
+    public static class TaskGeometrySerializer extends StdSerializer<TaskGeometry>
+    {
+        private static final long serialVersionUID = 4018453927811470523L;
+
+        public TaskGeometrySerializer()
+        {
+            this(null);
+        }
+
+        public TaskGeometrySerializer(final Class<TaskGeometry> clazz)
+        {
+            super(clazz);
+        }
+
+        @Override
+        public void serialize(final TaskGeometry value, final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException
+        {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(FEATURES);
+            for (int point = 0; point < value.getPointCount(); point++)
+            {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart(GEOMETRY);
+                generator.writeStringField(TYPE, POINT);
+                generator.writeArrayFieldStart(COORDINATES);
+                generator.writeNumber(value.getLongitude(point));
+                generator.writeNumber(value.getLatitude(point));
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeStringField(TYPE, FEATURE);
+                generator.writeObjectFieldStart(PROPERTIES);
+                // the description is only written when it is empty, as the task builder did
+                if (StringUtils.isEmpty(value.descriptions[point]))
+                {
+                    generator.writeStringField(DESCRIPTION, value.descriptions[point]);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            for (final var feature : value.features)
+            {
+                generator.writeRawValue(feature);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static final long serialVersionUID = -2853036137925187516L;
+    private static final int CONSTANT_HASHCODE = 31;
+    private static final String FEATURES = "features";
+    private static final String GEOMETRY = "geometry";
+    private static final String TYPE = "type";
+    private static final String COORDINATES = "coordinates";
+    private static final String PROPERTIES = "properties";
+    private static final String DESCRIPTION = "description";
+    private static final String FEATURE = "feature";
+    private static final String POINT = "point";
+    // the longitude and latitude of every point, one after the other
+    private final double[] coordinates;
+    private final String[] descriptions;
+    private final String[] features;
+
+    /**
+     * Validates a GeoJSON feature and writes it in its canonical form, without any whitespace, so
+     * that it can be written as is when the task is serialized
+     *
+     * @param geojson
+     *            The GeoJSON of the feature
+     * @return The canonical GeoJSON of the feature
+     * @throws IOException
+     *             if the GeoJSON isn't a single valid JSON value
+     */
+    public static String canonicalFeature(final String geojson) throws IOException
+    {
+        final var factory = ObjectMapperSingleton.getMapper().getFactory();
+        final var writer = new StringWriter(geojson.length());
+        try (var parser = factory.createParser(geojson);
+                var generator = factory.createGenerator(writer))
+        {
+            if (parser.nextToken() == null)
+            {
+                throw new JsonParseException(parser, "No GeoJSON feature found");
+            }
+            generator.copyCurrentStructure(parser);
+            if (parser.nextToken() != null)
+            {
+                throw new JsonParseException(parser, "Unexpected content after GeoJSON feature");
+            }
+        }
+        return writer.toString();
+    }
+
+    /**
+     * @param points
+     *            The points of the task
+     * @param features
+     *            The GeoJSON features of the task, in the form returned by
+     *            {@link #canonicalFeature(String)}
+     */
+    public TaskGeometry(final Collection<PointInformation> points, final List<String> features)
+    {
+        this.coordinates = new double[points.size() * 2];
+        this.descriptions = new String[points.size()];
+        var index = 0;
+        for (final var point : points)
+        {
+            this.coordinates[index * 2] = point.getLongitude();
+            this.coordinates[index * 2 + 1] = point.getLatitude();
+            this.descriptions[index] = point.getDescription();
+            index++;
+        }
+        this.features = features.toArray(new String[0]);
+    }
+
+    @Override
+    public boolean equals(final Object other)
+    {
+        if (other instanceof TaskGeometry)
+        {
+            final var geometry = (TaskGeometry) other;
+            return Arrays.equals(this.coordinates, geometry.coordinates)
+                    && Arrays.equals(this.descriptions, geometry.descriptions)
+                    && Arrays.equals(this.features, geometry.features);
+        }
+        return false;
+    }
+
+    public int getFeatureCount()
+    {
+        return this.features.length;
+    }
+
+    public double getLatitude(final int point)
+    {
+        return this.coordinates[point * 2 + 1];
+    }
+
+    public double getLongitude(final int point)
+    {
+        return this.coordinates[point * 2];
+    }
+
+    public int getPointCount()
+    {
+        return this.descriptions.length;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(this.coordinates) * CONSTANT_HASHCODE
+                + Arrays.hashCode(this.features);
+    }
+
+    @Override
+    public String toString()
+    {
+        try
+        {
+            return ObjectMapperSingleton.getMapper().writeValueAsString(this);
+        }
+        catch (final IOException e)
+        {
+            return super.toString();
+        }
+    }
+}
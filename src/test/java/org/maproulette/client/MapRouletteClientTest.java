@@ -0,0 +1,60 @@
+package org.maproulette.client;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Project;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class MapRouletteClientTest
+{
+    @Test
+    public void sharedConnectionTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("localhost", 80, "test", "test");
+        final var connection = mock(IMapRouletteConnection.class);
+        when(connection.execute(any())).thenReturn(Optional
+                .of("{\"id\":5,\"name\":\"Challenge\",\"parent\":1,\"instruction\":\"test\"}"));
+        try (var client = new MapRouletteClient(configuration, connection))
+        {
+            Assertions.assertSame(client.projects(), client.projects());
+            Assertions.assertSame(connection, client.getConnection());
+
+            final var batch = client.projectBatch(1);
+            final var challenge = Challenge.builder().name("Challenge").instruction("test")
+                    .build();
+            final var task = Task.taskBuilder().name("Task").addGeojson("{}").build();
+            Assertions.assertEquals(5, batch.addTask(challenge, task));
+            batch.flush();
+            // the challenge lookup and the task upload both used the client connection
+            verify(connection, times(2)).execute(any());
+
+            // the challenge identifier is cached, so a new challenge object doesn't need a lookup
+            final var sameChallenge = Challenge.builder().name("Challenge").instruction("test")
+                    .build();
+            Assertions.assertEquals(5, client.projectBatch(1).addTask(sameChallenge,
+                    Task.taskBuilder().name("Task2").addGeojson("{}").build()));
+            verify(connection, times(2)).execute(any());
+
+            // project batches resolve the project through the cache of the client
+            client.projectBatch(Project.builder().name("Project").build());
+            verify(connection, times(3)).execute(any());
+            client.projectBatch(Project.builder().name("Project").build());
+            verify(connection, times(3)).execute(any());
+        }
+        verify(connection, times(1)).close();
+    }
+}
@@ -0,0 +1,519 @@
+package org.maproulette.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.maproulette.client.api.QueryConstants;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.http.Compression;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process HTTP server that implements the /api/v2 endpoints of {@link QueryConstants} on top
+ * of an in-memory store, so that the client can be exercised end to end without a MapRoulette
+ * server. Projects, challenges and tasks are kept as JSON objects, identifiers are assigned on
+ * creation and objects are matched by name within their parent, the same way the batch upload
+ * endpoint matches tasks. To simulate a loaded server every request can be delayed, a fraction of
+ * the requests can fail with a service unavailable response and the requests can be capped per
+ * second, above which they are answered with too many requests and a Retry-After header. The
+ * health check is never delayed, failed or capped.
+ *
+ * <pre>
+ * try (var server = StubServer.start())
+ * {
+ *     server.setLatency(20);
+ *     server.setErrorRate(0.01);
+ *     final var uploader = new BatchUploader(server.configuration());
+ * }
+ * </pre>
+ *
+ * @author mcuthbert
+ */
+public final class StubServer implements Closeable
+{
+    /**
+     * The objects of one type, indexed by identifier and by name within their parent
+     */
+    private static final class Store
+    {
+        private final Map<Long, ObjectNode> objects = new ConcurrentHashMap<>();
+        private final Map<String, Long> names = new ConcurrentHashMap<>();
+
+        synchronized boolean delete(final long identifier)
+        {
+            final var object = this.objects.remove(identifier);
+            if (object != null)
+            {
+                this.names.remove(key(object));
+            }
+            return object != null;
+        }
+
+        ObjectNode get(final long identifier)
+        {
+            return this.objects.get(identifier);
+        }
+
+        ObjectNode get(final long parent, final String name)
+        {
+            final var identifier = this.names.get(parent + "/" + name);
+            return identifier == null ? null : this.objects.get(identifier);
+        }
+
+        List<ObjectNode> list(final long parent, final String prefix, final int limit,
+                final int page)
+        {
+            return this.objects.values().stream()
+                    .filter(object -> parent < 0 || object.path(PARENT).asLong(-1) == parent)
+                    .filter(object -> prefix.isEmpty()
+                            || object.path(NAME).asText().startsWith(prefix))
+                    .sorted(Comparator.comparingLong(object -> object.path(ID).asLong()))
+                    .skip((long) limit * page).limit(limit).collect(Collectors.toList());
+        }
+
+        int size()
+        {
+            return this.objects.size();
+        }
+
+        synchronized ObjectNode update(final long identifier, final ObjectNode changes)
+        {
+            final var object = this.objects.get(identifier);
+            if (object != null)
+            {
+                this.names.remove(key(object));
+                object.setAll(changes);
+                object.put(ID, identifier);
+                this.names.put(key(object), identifier);
+            }
+            return object;
+        }
+
+        synchronized ObjectNode upsert(final ObjectNode object, final AtomicLong identifiers)
+        {
+            final var existing = this.names.get(key(object));
+            if (existing != null)
+            {
+                return this.update(existing, object);
+            }
+            final var identifier = identifiers.getAndIncrement();
+            object.put(ID, identifier);
+            this.objects.put(identifier, object);
+            this.names.put(key(object), identifier);
+            return object;
+        }
+
+        private static String key(final JsonNode object)
+        {
+            return object.path(PARENT).asLong(-1) + "/" + object.path(NAME).asText();
+        }
+    }
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String PARENT = "parent";
+    private static final String PING = "/ping";
+    private static final int DEFAULT_LIMIT = 10;
+    private static final long WINDOW = 1000L;
+
+    private final ObjectMapper mapper = ObjectMapperSingleton.getMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Store projects = new Store();
+    private final Store challenges = new Store();
+    private final Store tasks = new Store();
+    private final AtomicLong identifiers = new AtomicLong(1);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private volatile long latency = 0;
+    private volatile double errorRate = 0;
+    private volatile int maxRequestsPerSecond = 0;
+    private long windowStart = 0;
+    private int windowRequests = 0;
+
+    /**
+     * Starts a stub server on a free port of the loopback address
+     *
+     * @return The started server
+     * @throws IOException
+     *             if the server can't be started
+     */
+    public static StubServer start() throws IOException
+    {
+        // without it small responses wait on delayed acknowledgements, which adds ~40ms to them
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        return new StubServer();
+    }
+
+    private StubServer() throws IOException
+    {
+        // a thread per concurrent request, so the latency doesn't limit the throughput
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    @Override
+    public void close()
+    {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @return A configuration for a client that connects to this server
+     */
+    public MapRouletteConfiguration configuration()
+    {
+        return new MapRouletteConfiguration(HttpHost.DEFAULT_SCHEME_NAME, "localhost",
+                this.getPort(), "Stub Project", "stub");
+    }
+
+    public int getChallengeCount()
+    {
+        return this.challenges.size();
+    }
+
+    /**
+     * @return The number of requests that failed because of the error rate
+     */
+    public long getFailureCount()
+    {
+        return this.failures.get();
+    }
+
+    public int getPort()
+    {
+        return this.server.getAddress().getPort();
+    }
+
+    public int getProjectCount()
+    {
+        return this.projects.size();
+    }
+
+    public long getRequestCount()
+    {
+        return this.requests.get();
+    }
+
+    public int getTaskCount()
+    {
+        return this.tasks.size();
+    }
+
+    /**
+     * @return The number of requests that were rejected because of the throughput cap
+     */
+    public long getThrottledCount()
+    {
+        return this.throttled.get();
+    }
+
+    /**
+     * @param errorRate
+     *            The fraction of requests, between 0 and 1, that fail with a service unavailable
+     *            response
+     */
+    public void setErrorRate(final double errorRate)
+    {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param latency
+     *            The time in milliseconds the server waits before answering each request
+     */
+    public void setLatency(final long latency)
+    {
+        this.latency = latency;
+    }
+
+    /**
+     * @param maxRequestsPerSecond
+     *            The number of requests answered per second, 0 for no limit
+     */
+    public void setMaxRequestsPerSecond(final int maxRequestsPerSecond)
+    {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    private synchronized boolean acquire()
+    {
+        if (this.maxRequestsPerSecond <= 0)
+        {
+            return true;
+        }
+        final var now = System.currentTimeMillis();
+        if (now - this.windowStart >= WINDOW)
+        {
+            this.windowStart = now;
+            this.windowRequests = 0;
+        }
+        return ++this.windowRequests <= this.maxRequestsPerSecond;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            final var path = exchange.getRequestURI().getPath();
+            final var body = this.read(exchange);
+            if (PING.equals(path))
+            {
+                this.respond(exchange, HttpStatus.SC_OK, "{}");
+                return;
+            }
+            this.requests.incrementAndGet();
+            if (this.latency > 0)
+            {
+                Thread.sleep(this.latency);
+            }
+            if (!this.acquire())
+            {
+                this.throttled.incrementAndGet();
+                exchange.getResponseHeaders().add(HttpHeaders.RETRY_AFTER, "1");
+                this.respond(exchange, HttpStatus.SC_TOO_MANY_REQUESTS, "{}");
+            }
+            else if (this.errorRate > 0
+                    && ThreadLocalRandom.current().nextDouble() < this.errorRate)
+            {
+                this.failures.incrementAndGet();
+                this.respond(exchange, HttpStatus.SC_SERVICE_UNAVAILABLE,
+                        "{\"status\":\"KO\",\"message\":\"Injected failure\"}");
+            }
+            else if (!path.startsWith(QueryConstants.API_VERSION + "/"))
+            {
+                this.respond(exchange, HttpStatus.SC_NOT_FOUND, null);
+            }
+            else
+            {
+                final var segments = path.substring(QueryConstants.API_VERSION.length() + 1)
+                        .split("/");
+                this.route(exchange, exchange.getRequestMethod(), segments, body);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (final IllegalArgumentException e)
+        {
+            this.respond(exchange, HttpStatus.SC_BAD_REQUEST,
+                    this.mapper.createObjectNode().put("message", e.getMessage()).toString());
+        }
+    }
+
+    private List<ObjectNode> list(final Store store, final HttpExchange exchange,
+            final long parent)
+    {
+        final var parameters = this.parameters(exchange);
+        final var prefix = parameters.getOrDefault(QueryConstants.QUERY_PARAMETER_Q, "")
+                .replace("%", "");
+        final var parentIdentifier = parent >= 0 ? parent
+                : Long.parseLong(parameters
+                        .getOrDefault(QueryConstants.QUERY_PARAMETER_PARENT_IDENTIFIER, "-1"));
+        final var limit = Integer.parseInt(parameters
+                .getOrDefault(QueryConstants.QUERY_PARAMETER_LIMIT, "" + DEFAULT_LIMIT));
+        final var page = Integer
+                .parseInt(parameters.getOrDefault(QueryConstants.QUERY_PARAMETER_PAGE, "0"));
+        return store.list(parentIdentifier, prefix, limit, page);
+    }
+
+    private Map<String, String> parameters(final HttpExchange exchange)
+    {
+        final var parameters = new HashMap<String, String>();
+        final var query = exchange.getRequestURI().getRawQuery();
+        if (query != null)
+        {
+            for (final var parameter : query.split("&"))
+            {
+                final var separator = parameter.indexOf('=');
+                if (separator > 0)
+                {
+                    parameters.put(parameter.substring(0, separator),
+                            URLDecoder.decode(parameter.substring(separator + 1),
+                                    StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private JsonNode read(final HttpExchange exchange) throws IOException
+    {
+        final var encoding = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        InputStream input = exchange.getRequestBody();
+        if (Compression.GZIP.getEncoding().equalsIgnoreCase(encoding))
+        {
+            input = new GZIPInputStream(input);
+        }
+        else if (Compression.DEFLATE.getEncoding().equalsIgnoreCase(encoding))
+        {
+            input = new InflaterInputStream(input);
+        }
+        final var bytes = input.readAllBytes();
+        return bytes.length == 0 ? null : this.mapper.readTree(bytes);
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final Object value)
+            throws IOException
+    {
+        if (value == null)
+        {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        final var body = (value instanceof String ? (String) value
+                : this.mapper.writeValueAsString(value)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE,
+                ContentType.APPLICATION_JSON.getMimeType());
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private void route(final HttpExchange exchange, final String method, final String[] segments,
+            final JsonNode body) throws IOException
+    {
+        final var resource = segments[0];
+        if ("tasks".equals(resource) && segments.length == 1)
+        {
+            // the batch upload, which creates or updates the tasks by name within the challenge
+            if (body == null || !body.isArray())
+            {
+                throw new IllegalArgumentException("Expected a JSON array of tasks");
+            }
+            body.forEach(task -> this.tasks.upsert(this.object(task), this.identifiers));
+            this.respond(exchange, HttpStatus.SC_NO_CONTENT, null);
+        }
+        else if (segments.length == 1 && HttpPost.METHOD_NAME.equals(method))
+        {
+            this.respond(exchange, HttpStatus.SC_OK,
+                    this.store(resource).upsert(this.object(body), this.identifiers));
+        }
+        else if (segments.length == 2 && "find".equals(segments[1]))
+        {
+            this.respond(exchange, HttpStatus.SC_OK, this.list(
+                    this.store(resource.substring(0, resource.length() - 1)), exchange, -1));
+        }
+        else if ("projectByName".equals(resource) && segments.length == 2)
+        {
+            final var project = this.projects.get(-1, segments[1]);
+            this.respond(exchange, project == null ? HttpStatus.SC_NOT_FOUND : HttpStatus.SC_OK,
+                    project);
+        }
+        else if ("user".equals(resource) && segments.length == 3)
+        {
+            this.respond(exchange, HttpStatus.SC_OK,
+                    this.mapper.createObjectNode().put(ID, Long.parseLong(segments[1]))
+                            .put(NAME, "user" + segments[1]));
+        }
+        else if (segments.length == 2)
+        {
+            this.single(exchange, method, this.store(resource), Long.parseLong(segments[1]),
+                    body);
+        }
+        else if (segments.length == 3)
+        {
+            // the children of a project or challenge
+            this.respond(exchange, HttpStatus.SC_OK,
+                    this.list("project".equals(resource) ? this.challenges : this.tasks,
+                            exchange, Long.parseLong(segments[1])));
+        }
+        else if (segments.length == 4)
+        {
+            // a challenge or task by name within its parent
+            final var child = this.store(segments[2]).get(Long.parseLong(segments[1]),
+                    segments[3]);
+            this.respond(exchange, child == null ? HttpStatus.SC_NOT_FOUND : HttpStatus.SC_OK,
+                    child);
+        }
+        else
+        {
+            this.respond(exchange, HttpStatus.SC_NOT_FOUND, null);
+        }
+    }
+
+    private void single(final HttpExchange exchange, final String method, final Store store,
+            final long identifier, final JsonNode body) throws IOException
+    {
+        switch (method)
+        {
+            case HttpGet.METHOD_NAME:
+                final var object = store.get(identifier);
+                this.respond(exchange, object == null ? HttpStatus.SC_NOT_FOUND : HttpStatus.SC_OK,
+                        object);
+                break;
+            case HttpPut.METHOD_NAME:
+                final var updated = store.update(identifier, this.object(body));
+                this.respond(exchange, updated == null ? HttpStatus.SC_NOT_FOUND : HttpStatus.SC_OK,
+                        updated);
+                break;
+            case HttpDelete.METHOD_NAME:
+                this.respond(exchange, store.delete(identifier) ? HttpStatus.SC_OK
+                        : HttpStatus.SC_NOT_FOUND, null);
+                break;
+            default:
+                this.respond(exchange, HttpStatus.SC_METHOD_NOT_ALLOWED, null);
+        }
+    }
+
+    private Store store(final String resource)
+    {
+        switch (resource)
+        {
+            case "project":
+                return this.projects;
+            case "challenge":
+                return this.challenges;
+            case "task":
+                return this.tasks;
+            default:
+                throw new IllegalArgumentException("Unknown resource " + resource);
+        }
+    }
+
+    private ObjectNode object(final JsonNode body)
+    {
+        if (body == null || !body.isObject())
+        {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (ObjectNode) body;
+    }
+}
@@ -0,0 +1,113 @@
+package org.maproulette.client.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.message.BasicHeader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.connection.Query;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.HttpResource;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * @author mcuthbert
+ */
+public class CachingAPITest
+{
+    private static final String CHALLENGE = "{\"id\":5,\"name\":\"Challenge\",\"parent\":1,"
+            + "\"instruction\":\"test\"}";
+
+    @Test
+    public void cacheTest() throws Exception
+    {
+        final var connection = mock(IMapRouletteConnection.class);
+        final var resource = this.resource(HttpStatus.SC_OK, null);
+        when(connection.open(any())).thenReturn(Optional.of(resource));
+        final var api = CachingAPI.challenges(connection, 10, 60_000L);
+
+        Assertions.assertEquals("Challenge", api.get(5).orElseThrow().getName());
+        Assertions.assertEquals("Challenge", api.get(5).orElseThrow().getName());
+        verify(connection, times(1)).open(any());
+        Assertions.assertEquals(1, api.getHitCount());
+        Assertions.assertEquals(1, api.getMissCount());
+
+        when(connection.execute(any())).thenReturn(Optional.empty());
+        api.delete(5);
+        Assertions.assertEquals(0, api.size());
+    }
+
+    @Test
+    public void revalidationTest() throws Exception
+    {
+        final var connection = mock(IMapRouletteConnection.class);
+        final var okResource = this.resource(HttpStatus.SC_OK, "\"v1\"");
+        final var notModifiedResource = this.resource(HttpStatus.SC_NOT_MODIFIED, null);
+        when(connection.open(any())).thenReturn(Optional.of(okResource))
+                .thenReturn(Optional.of(notModifiedResource));
+        // a ttl of 0 means every call revalidates
+        final var api = CachingAPI.challenges(connection, 10, 0L);
+
+        final var first = api.get(5).orElseThrow();
+        final var second = api.get(5).orElseThrow();
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, api.getRevalidationCount());
+
+        final var captor = ArgumentCaptor.forClass(Query.class);
+        verify(connection, times(2)).open(captor.capture());
+        Assertions.assertEquals("\"v1\"",
+                captor.getAllValues().get(1).getHeaders().get(HttpHeaders.IF_NONE_MATCH));
+        // the not modified response body is never read
+        verify(notModifiedResource, times(0)).getResponseBodyAsStream();
+    }
+
+    @Test
+    public void executeOnlyTest() throws Exception
+    {
+        // a connection that can't leave responses open is used without revalidation
+        final var connection = new IMapRouletteConnection()
+        {
+            @Override
+            public boolean isAbleToConnectToMapRoulette()
+            {
+                return true;
+            }
+
+            @Override
+            public Optional<String> execute(final Query query)
+            {
+                return Optional.of(CHALLENGE);
+            }
+        };
+        final var api = CachingAPI.challenges(connection, 10, 60_000L);
+        Assertions.assertEquals("Challenge", api.get(5).orElseThrow().getName());
+        Assertions.assertEquals("Challenge", api.get(5).orElseThrow().getName());
+        Assertions.assertEquals(1, api.getHitCount());
+        Assertions.assertEquals(1, api.size());
+    }
+
+    private HttpResource resource(final int statusCode, final String entityTag)
+            throws MapRouletteException
+    {
+        final var resource = mock(HttpResource.class);
+        when(resource.getStatusCode()).thenReturn(statusCode);
+        when(resource.getResponseBodyAsStream()).thenReturn(
+                new ByteArrayInputStream(CHALLENGE.getBytes(StandardCharsets.UTF_8)));
+        when(resource.getHeader(HttpHeaders.ETAG)).thenReturn(entityTag == null ? new Header[0]
+                : new Header[] { new BasicHeader(HttpHeaders.ETAG, entityTag) });
+        when(resource.getHeader(HttpHeaders.LAST_MODIFIED)).thenReturn(new Header[0]);
+        return resource;
+    }
+}
@@ -0,0 +1,73 @@
+package org.maproulette.client.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.model.Challenge;
+
+/**
+ * @author mcuthbert
+ */
+public class IdentifierCacheTest
+{
+    @Test
+    public void evictionTest() throws InterruptedException
+    {
+        final var cache = new IdentifierCache(2, 60_000L, false);
+        cache.put(1, "First", 10);
+        cache.put(1, "Second", 20);
+        Assertions.assertEquals(10L, cache.get(1, "First").orElseThrow());
+        cache.put(1, "Third", 30);
+        // Second was the least recently used
+        Assertions.assertTrue(cache.get(1, "Second").isEmpty());
+        Assertions.assertEquals(2, cache.size());
+
+        cache.invalidate(10);
+        Assertions.assertTrue(cache.get(1, "First").isEmpty());
+
+        final var expiring = new IdentifierCache(10, 1L, false);
+        expiring.put(1, "First", 10);
+        Thread.sleep(5);
+        Assertions.assertTrue(expiring.get(1, "First").isEmpty());
+
+        final var disabled = IdentifierCache.disabled();
+        disabled.put(1, "First", 10);
+        Assertions.assertEquals(0, disabled.size());
+    }
+
+    @Test
+    public void resolveTest() throws Exception
+    {
+        final var connection = mock(IMapRouletteConnection.class);
+        when(connection.execute(any())).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(
+                        "{\"id\":5,\"name\":\"Challenge\",\"parent\":1,\"instruction\":\"test\"}"));
+        final var challengeAPI = new ChallengeAPI(connection,
+                new IdentifierCache(10, 60_000L, true));
+        final var challenge = Challenge.builder().parent(1).name("Challenge").instruction("test")
+                .build();
+        // the lookup misses and the challenge is created
+        Assertions.assertEquals(5, challengeAPI.resolveIdentifier(challenge));
+        Assertions.assertEquals(5, challengeAPI.resolveIdentifier(challenge));
+        verify(connection, times(2)).execute(any());
+
+        // deleting the challenge invalidates the cached identifier
+        challengeAPI.delete(5);
+        Assertions.assertTrue(challengeAPI.getIdentifierCache().get(1, "Challenge").isEmpty());
+        // which is now cached as missing
+        when(connection.execute(any())).thenReturn(Optional.empty());
+        Assertions.assertTrue(
+                challengeAPI.getIdentifierCache().lookup(challengeAPI, 1, "Challenge").isEmpty());
+        Assertions.assertTrue(
+                challengeAPI.getIdentifierCache().lookup(challengeAPI, 1, "Challenge").isEmpty());
+        verify(connection, times(4)).execute(any());
+    }
+}
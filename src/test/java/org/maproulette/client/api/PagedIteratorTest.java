@@ -0,0 +1,67 @@
+package org.maproulette.client.api;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteRuntimeException;
+
+/**
+ * @author mcuthbert
+ */
+public class PagedIteratorTest
+{
+    @Test
+    public void pagingTest()
+    {
+        for (int lookahead = 0; lookahead < 3; lookahead++)
+        {
+            final Set<Integer> requested = ConcurrentHashMap.newKeySet();
+            final var iterator = new PagedIterator<Integer>(page ->
+            {
+                requested.add(page);
+                return this.page(page, 25, 10);
+            }, 10, lookahead);
+            final var result = iterator.stream().collect(Collectors.toList());
+            Assertions.assertEquals(IntStream.range(0, 25).boxed().collect(Collectors.toList()),
+                    result);
+            Assertions.assertTrue(requested.containsAll(List.of(0, 1, 2)));
+        }
+    }
+
+    @Test
+    public void exactPageTest()
+    {
+        // the final page is empty when the total is a multiple of the page size
+        final var iterator = new PagedIterator<Integer>(page -> this.page(page, 20, 10), 10, 1);
+        Assertions.assertEquals(20, iterator.stream().count());
+        Assertions.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void failureTest()
+    {
+        final var iterator = new PagedIterator<Integer>(page ->
+        {
+            if (page == 1)
+            {
+                throw new MapRouletteException("Failed");
+            }
+            return this.page(page, 30, 10);
+        }, 10, 2);
+        Assertions.assertThrows(MapRouletteRuntimeException.class,
+                () -> iterator.stream().count());
+        Assertions.assertFalse(iterator.hasNext());
+    }
+
+    private List<Integer> page(final int page, final int total, final int pageSize)
+    {
+        return IntStream.range(page * pageSize, Math.min(total, (page + 1) * pageSize)).boxed()
+                .collect(Collectors.toList());
+    }
+}
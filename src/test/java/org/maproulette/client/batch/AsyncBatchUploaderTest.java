@@ -0,0 +1,84 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class AsyncBatchUploaderTest
+{
+    private final Challenge challenge = Challenge.builder().name("Challenge")
+            .instruction("Instruction").build();
+
+    @Test
+    public void flushTest() throws Exception
+    {
+        final var mockUploader = mock(BatchUploader.class);
+        final var uploader = new AsyncBatchUploader(mockUploader, 10, 100, 60_000L);
+        for (int index = 0; index < 25; index++)
+        {
+            uploader.addTask(this.challenge, this.task("Task" + index));
+        }
+        uploader.flush().get(5, TimeUnit.SECONDS);
+        verify(mockUploader, times(25)).addTask(any(), any());
+        verify(mockUploader, times(1)).flushAll();
+
+        uploader.addTask(this.challenge, this.task("Task25"));
+        uploader.close();
+        verify(mockUploader, times(26)).addTask(any(), any());
+        verify(mockUploader, times(2)).flushAll();
+        Assertions.assertThrows(MapRouletteException.class,
+                () -> uploader.addTask(this.challenge, this.task("Task26")));
+        Assertions.assertThrows(ExecutionException.class, () -> uploader.flush().get());
+    }
+
+    @Test
+    public void sizeTriggerTest() throws Exception
+    {
+        final var mockUploader = mock(BatchUploader.class);
+        try (var uploader = new AsyncBatchUploader(mockUploader, 100, 5, 60_000L))
+        {
+            for (int index = 0; index < 5; index++)
+            {
+                uploader.addTask(this.challenge, this.task("Task" + index));
+            }
+            verify(mockUploader, timeout(5000).times(1)).flushAll();
+        }
+    }
+
+    @Test
+    public void failureTest() throws Exception
+    {
+        final var mockUploader = mock(BatchUploader.class);
+        doThrow(new MapRouletteRuntimeException("Failed")).doNothing().when(mockUploader)
+                .flushAll();
+        final var uploader = new AsyncBatchUploader(mockUploader, 10, 100, 60_000L);
+        uploader.addTask(this.challenge, this.task("Task1"));
+        final var failed = uploader.flush();
+        final var exception = Assertions.assertThrows(ExecutionException.class, failed::get);
+        Assertions.assertTrue(exception.getCause() instanceof MapRouletteRuntimeException);
+        // the failure is only reported once
+        uploader.flush().get(5, TimeUnit.SECONDS);
+        uploader.close();
+    }
+
+    private Task task(final String name)
+    {
+        return Task.taskBuilder().name(name).addGeojson("{}").build();
+    }
+}
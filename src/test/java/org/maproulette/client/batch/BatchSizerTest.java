@@ -0,0 +1,107 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+/**
+ * @author mcuthbert
+ */
+public class BatchSizerTest
+{
+    private static final String POINT = "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\","
+            + "\"coordinates\":[1.0,2.0]}}";
+
+    @Test
+    public void splitTest() throws Exception
+    {
+        // the task count is capped at the server maximum
+        final var sizer = new BatchSizer();
+        final var chunks = sizer.split(this.tasks(1200, POINT));
+        Assertions.assertEquals(3, chunks.size());
+        Assertions.assertEquals(500, chunks.get(0).size());
+        Assertions.assertEquals(200, chunks.get(2).size());
+        Assertions.assertEquals(500, new BatchSizer(1000, 1L << 30, 0).split(this.tasks(501, POINT))
+                .get(0).size());
+
+        // and the chunks are capped by their size
+        final var taskSize = ObjectMapperSingleton.getMapper()
+                .writeValueAsBytes(this.tasks(1, POINT).get(0)).length;
+        final var bytes = new BatchSizer(500, taskSize * 10L, 0);
+        final var byteChunks = bytes.split(this.tasks(25, POINT));
+        Assertions.assertEquals(3, byteChunks.size());
+        Assertions.assertEquals(10, byteChunks.get(0).size());
+        Assertions.assertEquals(5, byteChunks.get(2).size());
+
+        // a task larger than the budget gets a chunk of its own
+        final var heavy = new ArrayList<>(this.tasks(2, POINT));
+        heavy.add(1, this.tasks(1, "{\"name\":\"" + "x".repeat(taskSize * 20) + "\"}").get(0));
+        Assertions.assertEquals(3, bytes.split(heavy).size());
+        Assertions.assertTrue(bytes.split(List.of()).isEmpty());
+    }
+
+    @Test
+    public void measureOnceTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("sizer.example", 80, "test",
+                "test");
+        final var connection = mock(MapRouletteConnection.class);
+        final var batch = new ChallengeBatch(connection, configuration, 1);
+        final var sizer = spy(new BatchSizer());
+        batch.setBatchSizer(sizer);
+        batch.setMemoryBudget(new MemoryBudget(0, 1L << 30, MemoryBudget.Policy.BLOCK,
+                MemoryBudget.FlushOrder.LARGEST));
+        batch.addTasks(this.tasks(3, POINT));
+        batch.flush();
+        // the sizes measured for the memory budget are reused to split the chunks
+        verify(sizer, times(3)).size(any());
+        verify(connection, times(1)).execute(any());
+    }
+
+    @Test
+    public void latencyTest()
+    {
+        final var sizer = new BatchSizer(500, 1024L * 1024, 1000L);
+        sizer.record(2000L, true);
+        Assertions.assertEquals(512L * 1024, sizer.getByteBudget());
+        sizer.record(100L, false);
+        Assertions.assertEquals(256L * 1024, sizer.getByteBudget());
+        // responses within the target keep the budget
+        sizer.record(700L, true);
+        Assertions.assertEquals(256L * 1024, sizer.getByteBudget());
+        for (int index = 0; index < 20; index++)
+        {
+            sizer.record(10L, true);
+        }
+        Assertions.assertEquals(1024L * 1024, sizer.getByteBudget());
+        for (int index = 0; index < 20; index++)
+        {
+            sizer.record(5000L, true);
+        }
+        Assertions.assertEquals(64L * 1024, sizer.getByteBudget());
+    }
+
+    private List<Task> tasks(final int count, final String geojson) throws MapRouletteException
+    {
+        final var tasks = new ArrayList<Task>(count);
+        for (int index = 0; index < count; index++)
+        {
+            tasks.add(Task.taskBuilder().parent(1).name(String.format("Task%04d", index))
+                    .addGeojson(geojson).build());
+        }
+        return tasks;
+    }
+}
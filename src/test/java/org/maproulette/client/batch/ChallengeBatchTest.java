@@ -4,17 +4,27 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.maproulette.client.api.QueryConstants;
 import org.maproulette.client.connection.MapRouletteConnection;
 import org.maproulette.client.connection.Query;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteRuntimeException;
 import org.maproulette.client.model.Task;
 import org.maproulette.client.utilities.ObjectMapperSingleton;
 import org.mockito.ArgumentCaptor;
@@ -49,8 +59,15 @@ public class ChallengeBatchTest
         final var queryArgument = captor.getValue();
         Assertions.assertEquals(HttpPost.METHOD_NAME, queryArgument.getMethodName());
         Assertions.assertEquals(QueryConstants.URI_TASK_POST + "s", queryArgument.getUri());
-        Assertions.assertEquals(ContentType.APPLICATION_JSON, queryArgument.getDataContentType());
-        Assertions.assertEquals(postDataString, queryArgument.getData());
+        Assertions.assertEquals(ContentType.APPLICATION_JSON.toString(),
+                queryArgument.getDataEntity().getContentType().getValue());
+        Assertions.assertEquals(postDataString,
+                EntityUtils.toString(queryArgument.getDataEntity()));
+
+        // the entity is written straight to the output stream when the request is sent
+        final var output = new ByteArrayOutputStream();
+        queryArgument.getDataEntity().writeTo(output);
+        Assertions.assertEquals(postDataString, output.toString(StandardCharsets.UTF_8));
     }
 
     @Test
@@ -64,6 +81,73 @@ public class ChallengeBatchTest
         verify(mockConnection, atLeastOnce()).execute(any());
     }
 
+    @Test
+    public void parallelFlushTest() throws Exception
+    {
+        final var mockConnection = mock(MapRouletteConnection.class);
+        when(mockConnection.execute(any())).thenAnswer(invocation ->
+        {
+            final Query query = invocation.getArgument(0);
+            if (EntityUtils.toString(query.getDataEntity()).contains("\"Task700\""))
+            {
+                throw new MapRouletteRuntimeException("Bad Gateway");
+            }
+            return Optional.empty();
+        });
+        final var challengeBatch = new ChallengeBatch(mockConnection, 12, 5000);
+        challengeBatch.setUploadConcurrency(3);
+        final var tasks = new ArrayList<Task>();
+        for (int index = 0; index < 1800; index++)
+        {
+            tasks.add(this.task("Task" + index, -1));
+        }
+        challengeBatch.addTasks(tasks);
+        Assertions.assertThrows(MapRouletteException.class, challengeBatch::flush);
+        verify(mockConnection, times(4)).execute(any());
+
+        final var result = challengeBatch.getLastFlushResult();
+        Assertions.assertEquals(4, result.getTotalChunks());
+        Assertions.assertEquals(3, result.getUploadedChunks());
+        Assertions.assertEquals(1300, result.getUploadedTasks());
+        Assertions.assertEquals(1, result.getFailures().size());
+        Assertions.assertEquals(1, result.getFailures().get(0).getIndex());
+        // only the tasks from the failed chunk are left to be retried
+        Assertions.assertEquals(500, challengeBatch.getBatch().size());
+        Assertions.assertEquals("Task500", challengeBatch.getBatch().get(0).getName());
+    }
+
+    @Test
+    public void uploadThreadTest() throws Exception
+    {
+        final var mockConnection = mock(MapRouletteConnection.class);
+        final var threads = ConcurrentHashMap.<Thread>newKeySet();
+        when(mockConnection.execute(any())).thenAnswer(invocation ->
+        {
+            threads.add(Thread.currentThread());
+            return Optional.empty();
+        });
+        final var challengeBatch = new ChallengeBatch(mockConnection, 12, 5000);
+        challengeBatch.setUploadConcurrency(3);
+        // the upload threads are kept from one flush to the next
+        for (int flush = 0; flush < 5; flush++)
+        {
+            for (int index = 0; index < 1800; index++)
+            {
+                challengeBatch.addTask(this.task("Task" + index, -1));
+            }
+            challengeBatch.flush();
+        }
+        verify(mockConnection, times(20)).execute(any());
+        Assertions.assertTrue(threads.size() <= 3);
+
+        challengeBatch.close();
+        for (final var thread : threads)
+        {
+            thread.join(10_000L);
+            Assertions.assertFalse(thread.isAlive());
+        }
+    }
+
     private Task task(final String name, final long parent)
     {
         return Task.taskBuilder().name(name).parent(parent).addGeojson("{}").build();
@@ -0,0 +1,122 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class MemoryBudgetTest
+{
+    @Test
+    public void blockTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("budget.example", 80, "test",
+                "test");
+        configuration.setMaxPendingTasks(10);
+        final var connection = mock(MapRouletteConnection.class);
+        final var uploader = new BatchUploader(configuration, connection);
+        final var small = this.challenge(1);
+        final var large = this.challenge(2);
+        for (int index = 0; index < 3; index++)
+        {
+            uploader.addTask(small, this.task("Small" + index));
+        }
+        for (int index = 0; index < 7; index++)
+        {
+            uploader.addTask(large, this.task("Large" + index));
+        }
+        Assertions.assertEquals(10, uploader.getMemoryBudget().getTasks());
+        verify(connection, times(0)).execute(any());
+
+        // the largest batch is flushed before the next task is queued
+        uploader.addTask(small, this.task("Small3"));
+        verify(connection, times(1)).execute(any());
+        Assertions.assertEquals(4, uploader.getMemoryBudget().getTasks());
+
+        // duplicates don't count twice
+        uploader.addTask(small, this.task("Small3"));
+        Assertions.assertEquals(4, uploader.getMemoryBudget().getTasks());
+        uploader.flushAll();
+        Assertions.assertEquals(0, uploader.getMemoryBudget().getTasks());
+    }
+
+    @Test
+    public void rejectTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("budget.example", 80, "test",
+                "test");
+        configuration.setMaxPendingBytes(1);
+        configuration.setMemoryBudgetPolicy(MemoryBudget.Policy.REJECT);
+        final var uploader = new BatchUploader(configuration, mock(MapRouletteConnection.class));
+        uploader.addTask(this.challenge(1), this.task("First"));
+        Assertions.assertTrue(uploader.getMemoryBudget().getBytes() > 0);
+        Assertions.assertThrows(MapRouletteException.class,
+                () -> uploader.addTask(this.challenge(1), this.task("Second")));
+
+        uploader.flushAll();
+        Assertions.assertEquals(0, uploader.getMemoryBudget().getBytes());
+        uploader.addTask(this.challenge(1), this.task("Second"));
+    }
+
+    @Test
+    public void duplicateTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("budget.example", 80, "test",
+                "test");
+        configuration.setMaxPendingBytes(1_000_000);
+        configuration.setDuplicateTaskPolicy(TaskIndex.Policy.MERGE);
+        final var uploader = new BatchUploader(configuration, mock(MapRouletteConnection.class));
+        final var task = this.task("Task");
+        uploader.addTask(this.challenge(1), task);
+        final var bytes = uploader.getMemoryBudget().getBytes();
+        // the bytes of a replaced duplicate are released as those of the new task are added
+        for (int index = 0; index < 5; index++)
+        {
+            uploader.addTask(this.challenge(1), this.task("Task"));
+            uploader.addTask(this.challenge(1), task);
+        }
+        Assertions.assertEquals(1, uploader.getMemoryBudget().getTasks());
+        Assertions.assertEquals(bytes, uploader.getMemoryBudget().getBytes());
+
+        uploader.flushAll();
+        Assertions.assertEquals(0, uploader.getMemoryBudget().getBytes());
+    }
+
+    @Test
+    public void accountingTest() throws Exception
+    {
+        final var budget = new MemoryBudget(0, 0, MemoryBudget.Policy.BLOCK,
+                MemoryBudget.FlushOrder.OLDEST);
+        Assertions.assertFalse(budget.isExceeded());
+        Assertions.assertFalse(budget.isAccountingBytes());
+        budget.add(5, 100);
+        Assertions.assertFalse(budget.isExceeded());
+        budget.release(10, 200);
+        Assertions.assertEquals(0, budget.getTasks());
+        Assertions.assertEquals(0, budget.getBytes());
+    }
+
+    private Challenge challenge(final long identifier)
+    {
+        final var challenge = Challenge.builder().parent(1).name("Challenge" + identifier)
+                .instruction("test").build();
+        challenge.setId(identifier);
+        return challenge;
+    }
+
+    private Task task(final String name)
+    {
+        return Task.taskBuilder().name(name).addGeojson("{}").build();
+    }
+}
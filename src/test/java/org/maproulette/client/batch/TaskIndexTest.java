@@ -0,0 +1,180 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.model.ChallengePriority;
+import org.maproulette.client.model.Task;
+import org.maproulette.client.model.TaskStatus;
+
+/**
+ * @author mcuthbert
+ */
+public class TaskIndexTest
+{
+    @Test
+    public void lastWriteWinsTest()
+    {
+        final var tasks = new ArrayList<Task>();
+        final var index = new TaskIndex(TaskIndex.Policy.LAST_WRITE_WINS, tasks);
+        for (int count = 0; count < 2; count++)
+        {
+            for (int task = 0; task < 1000; task++)
+            {
+                index.add(this.task("Task" + task, "Instruction" + count));
+            }
+        }
+        Assertions.assertEquals(1000, tasks.size());
+        Assertions.assertEquals(1000, index.size());
+        Assertions.assertEquals(1000, index.getDuplicateCount());
+        Assertions.assertEquals("Task10", tasks.get(10).getName());
+        Assertions.assertEquals("Instruction1", tasks.get(10).getInstruction());
+
+        // the same name in another challenge isn't a duplicate
+        Assertions.assertTrue(index.add(Task.taskBuilder().parent(2).name("Task10")
+                .addGeojson("{}").build()));
+
+        tasks.subList(0, 500).clear();
+        index.rebuild();
+        Assertions.assertEquals(501, index.size());
+        Assertions.assertFalse(index.add(this.task("Task999", "Instruction2")));
+        Assertions.assertTrue(index.add(this.task("Task0", "Instruction2")));
+    }
+
+    @Test
+    public void mergeTest()
+    {
+        final var tasks = new ArrayList<Task>();
+        final var index = new TaskIndex(TaskIndex.Policy.MERGE, tasks);
+        final var first = this.task("Task", "Instruction");
+        first.setTags(List.of("first"));
+        first.setStatus(TaskStatus.CREATED);
+        index.add(first);
+        final var second = this.task("Task", null);
+        second.setTags(List.of("first", "second"));
+        second.setPriority(ChallengePriority.HIGH);
+        Assertions.assertFalse(index.add(second));
+
+        Assertions.assertEquals(1, tasks.size());
+        final var merged = tasks.get(0);
+        Assertions.assertEquals("Instruction", merged.getInstruction());
+        Assertions.assertEquals(TaskStatus.CREATED, merged.getStatus());
+        Assertions.assertEquals(ChallengePriority.HIGH, merged.getPriority());
+        Assertions.assertEquals(List.of("first", "second"), merged.getTags());
+        // the task that was queued first isn't changed
+        Assertions.assertNotSame(first, merged);
+        Assertions.assertEquals(List.of("first"), first.getTags());
+        Assertions.assertNull(first.getPriority());
+    }
+
+    @Test
+    public void mergeWithoutGeometriesTest()
+    {
+        final var tasks = new ArrayList<Task>();
+        final var index = new TaskIndex(TaskIndex.Policy.MERGE, tasks);
+        // a task deserialized without geometries is merged without building any
+        final var first = new Task();
+        first.setId(-1);
+        first.setParent(12);
+        first.setName("Task");
+        first.setInstruction("Instruction");
+        first.setErrorTags("");
+        index.add(first);
+        Assertions.assertFalse(index.add(this.task("Task", null)));
+        final var merged = tasks.get(0);
+        Assertions.assertEquals("Instruction", merged.getInstruction());
+        Assertions.assertEquals("", merged.getErrorTags());
+        Assertions.assertEquals(1, merged.getCompactGeometries().getFeatureCount());
+        Assertions.assertNull(first.getCompactGeometries());
+    }
+
+    @Test
+    public void retainTest()
+    {
+        final var tasks = new ArrayList<Task>();
+        final var index = new TaskIndex(TaskIndex.Policy.LAST_WRITE_WINS, tasks);
+        for (int task = 0; task < 1000; task++)
+        {
+            index.add(this.task("Task" + task, "Instruction"));
+        }
+        final var remaining = new ArrayList<Task>();
+        for (int task = 0; task < 1000; task += 7)
+        {
+            remaining.add(tasks.get(task));
+        }
+        index.retain(remaining);
+        Assertions.assertEquals(remaining, tasks);
+        Assertions.assertEquals(remaining.size(), index.size());
+        // the kept tasks are still found at their new positions, the removed ones are gone
+        Assertions.assertFalse(index.add(this.task("Task7", "Updated")));
+        Assertions.assertEquals("Updated", tasks.get(1).getInstruction());
+        Assertions.assertTrue(index.add(this.task("Task8", "Instruction")));
+        Assertions.assertEquals(remaining.size() + 1, tasks.size());
+        for (int task = 0; task < 1000; task += 7)
+        {
+            Assertions.assertFalse(index.add(this.task("Task" + task, "Again")));
+        }
+        Assertions.assertEquals(remaining.size() + 1, tasks.size());
+
+        index.retain(List.of());
+        Assertions.assertTrue(tasks.isEmpty());
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.add(this.task("Task7", "Instruction")));
+    }
+
+    @Test
+    public void identifierTest()
+    {
+        final var tasks = new ArrayList<Task>();
+        final var index = new TaskIndex(TaskIndex.Policy.LAST_WRITE_WINS, tasks);
+        Assertions.assertTrue(index.add(this.task("Task", "Instruction", 7)));
+        // the same identifier under another name is a duplicate
+        Assertions.assertFalse(index.add(this.task("Renamed", "Updated", 7)));
+        Assertions.assertEquals(1, tasks.size());
+        Assertions.assertEquals("Renamed", tasks.get(0).getName());
+        // as is the same name without an identifier, while a new identifier isn't
+        Assertions.assertFalse(index.add(this.task("Renamed", "Again")));
+        Assertions.assertEquals(-1, tasks.get(0).getId());
+        Assertions.assertTrue(index.add(this.task("Other", "Instruction", 8)));
+        Assertions.assertFalse(index.add(this.task("Moved", "Instruction", 8)));
+
+        index.retain(List.of(tasks.get(1)));
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertFalse(index.add(this.task("Other", "Instruction", 8)));
+        Assertions.assertTrue(index.add(this.task("Renamed", "Instruction")));
+    }
+
+    @Test
+    public void batchTest() throws Exception
+    {
+        final var mockConnection = mock(MapRouletteConnection.class);
+        final var challengeBatch = new ChallengeBatch(mockConnection, 12, 10);
+        challengeBatch.addTask(this.task("Task1", "Instruction"));
+        challengeBatch.addTask(this.task("Task2", "Instruction"));
+        challengeBatch.addTask(this.task("Task1", "Updated"));
+        Assertions.assertEquals(2, challengeBatch.getBatch().size());
+        Assertions.assertEquals("Updated", challengeBatch.getBatch().get(0).getInstruction());
+        challengeBatch.flush();
+        verify(mockConnection).execute(any());
+        Assertions.assertEquals(2, challengeBatch.getLastFlushResult().getUploadedTasks());
+    }
+
+    private Task task(final String name, final String instruction, final long identifier)
+    {
+        return Task.taskBuilder().id(identifier).parent(12).name(name).instruction(instruction)
+                .addGeojson("{}").build();
+    }
+
+    private Task task(final String name, final String instruction)
+    {
+        return Task.taskBuilder().parent(12).name(name).instruction(instruction).addGeojson("{}")
+                .build();
+    }
+}
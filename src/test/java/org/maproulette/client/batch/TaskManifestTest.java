@@ -0,0 +1,72 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class TaskManifestTest
+{
+    @Test
+    public void manifestTest(@TempDir final Path directory) throws Exception
+    {
+        final var path = directory.resolve("manifest.json");
+        final var manifest = TaskManifest.load(path);
+        final var first = this.task("Task1", "Instruction");
+        final var second = this.task("Task2", "Instruction");
+        Assertions.assertTrue(manifest.isChanged(12, first));
+        manifest.update(12, List.of(first, second));
+        manifest.save();
+
+        final var loaded = TaskManifest.load(path);
+        Assertions.assertFalse(loaded.isChanged(12, this.task("Task1", "Instruction")));
+        Assertions.assertTrue(loaded.isChanged(12, this.task("Task1", "Updated")));
+        final var tagged = this.task("Task1", "Instruction");
+        tagged.setTags(List.of("tag"));
+        Assertions.assertTrue(loaded.isChanged(12, tagged));
+        Assertions.assertTrue(loaded.isChanged(13, this.task("Task1", "Instruction")));
+
+        // Task2 wasn't produced in this run
+        Assertions.assertEquals(Set.of(12L, 13L), loaded.getSeenChallenges());
+        Assertions.assertEquals(Set.of("Task2"), loaded.getMissing(12));
+        loaded.remove(12, "Task2");
+        Assertions.assertTrue(loaded.getMissing(12).isEmpty());
+    }
+
+    @Test
+    public void deltaBatchTest() throws Exception
+    {
+        final var manifest = new TaskManifest(null);
+        final var mockConnection = mock(MapRouletteConnection.class);
+        final var firstRun = new ChallengeBatch(mockConnection, 12, 10);
+        firstRun.setManifest(manifest);
+        firstRun.addTasks(List.of(this.task("Task1", "Instruction"),
+                this.task("Task2", "Instruction"), this.task("Task3", "Instruction")));
+        firstRun.flush();
+        Assertions.assertEquals(3, firstRun.getLastFlushResult().getUploadedTasks());
+
+        final var secondRun = new ChallengeBatch(mockConnection, 12, 10);
+        secondRun.setManifest(manifest);
+        secondRun.addTasks(List.of(this.task("Task1", "Instruction"),
+                this.task("Task2", "Updated"), this.task("Task3", "Instruction")));
+        Assertions.assertEquals(1, secondRun.getBatch().size());
+        secondRun.flush();
+        Assertions.assertEquals(1, secondRun.getLastFlushResult().getUploadedTasks());
+    }
+
+    private Task task(final String name, final String instruction)
+    {
+        return Task.taskBuilder().parent(12).name(name).instruction(instruction).addGeojson("{}")
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package org.maproulette.client.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.connection.MapRouletteConnection;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class TaskSpoolTest
+{
+    @Test
+    public void spoolTest(@TempDir final Path directory) throws Exception
+    {
+        var spool = TaskSpool.open(directory, 12);
+        for (int index = 0; index < 5; index++)
+        {
+            spool.append(this.task("Task" + index));
+        }
+        final var spooled = spool.read(10);
+        Assertions.assertEquals(5, spooled.size());
+        Assertions.assertEquals("Task4", spooled.get(4).getTask().getName());
+        spool.acknowledge(spooled.get(1).getEnd(), 2);
+        spool.close();
+
+        // reopening resumes after the acknowledged tasks
+        spool = TaskSpool.open(directory, 12);
+        Assertions.assertEquals(3, spool.getPendingCount());
+        final var remaining = spool.read(2);
+        Assertions.assertEquals(2, remaining.size());
+        Assertions.assertEquals("Task2", remaining.get(0).getTask().getName());
+        spool.acknowledge(spool.read(10).get(2).getEnd(), 3);
+        Assertions.assertEquals(0, spool.getPendingCount());
+
+        // once everything is acknowledged the spool starts over, without the old tasks
+        spool.append(this.task("Task5"));
+        spool.close();
+        spool = TaskSpool.open(directory, 12);
+        Assertions.assertEquals(1, spool.getPendingCount());
+        Assertions.assertEquals("Task5", spool.read(10).get(0).getTask().getName());
+        spool.close();
+        Assertions.assertEquals(List.of(12L), TaskSpool.challenges(directory));
+    }
+
+    @Test
+    public void recoverTest(@TempDir final Path directory) throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("localhost", 80, "test", "test");
+        configuration.setSpoolDirectory(directory.toString());
+        final var spool = TaskSpool.open(directory, 12);
+        spool.append(this.task("Task0"));
+        spool.append(this.task("Task1"));
+        spool.append(this.task("Task0"));
+        spool.close();
+
+        // the recovered tasks are de-duplicated like the tasks added in memory
+        final var connection = mock(MapRouletteConnection.class);
+        final var batch = new ChallengeBatch(connection, configuration, 12);
+        final var budget = new MemoryBudget(100, 0, MemoryBudget.Policy.BLOCK,
+                MemoryBudget.FlushOrder.LARGEST);
+        batch.setMemoryBudget(budget);
+        batch.flush();
+        batch.close();
+        verify(connection, times(1)).execute(any());
+        Assertions.assertEquals(2, batch.getLastFlushResult().getUploadedTasks());
+        Assertions.assertEquals(0, budget.getTasks());
+
+        final var remaining = TaskSpool.open(directory, 12);
+        remaining.append(this.task("Task2"));
+        remaining.close();
+        final var uploader = new BatchUploader(configuration, connection);
+        uploader.recover();
+        verify(connection, times(2)).execute(any());
+        Assertions.assertEquals(0, uploader.getMemoryBudget().getTasks());
+        final var recovered = TaskSpool.open(directory, 12);
+        Assertions.assertEquals(0, recovered.getPendingCount());
+        recovered.close();
+    }
+
+    @Test
+    public void truncatedTest(@TempDir final Path directory) throws Exception
+    {
+        final var spool = TaskSpool.open(directory, 12);
+        spool.append(this.task("Task0"));
+        spool.append(this.task("Task1"));
+        final var end = spool.read(10).get(1).getEnd();
+        spool.close();
+        try (var channel = FileChannel.open(directory.resolve("challenge-12.spool"),
+                StandardOpenOption.WRITE))
+        {
+            channel.truncate(end - 5);
+        }
+
+        // a record cut short by the end of the file ends the spool
+        final var truncated = TaskSpool.open(directory, 12);
+        final var spooled = truncated.read(10);
+        Assertions.assertEquals(1, spooled.size());
+        Assertions.assertEquals("Task0", spooled.get(0).getTask().getName());
+        truncated.close();
+    }
+
+    @Test
+    public void resumeTest(@TempDir final Path directory) throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("localhost", 80, "test", "test");
+        configuration.setSpoolDirectory(directory.toString());
+        configuration.setBatchSize(100);
+        final var mockConnection = mock(MapRouletteConnection.class);
+        when(mockConnection.execute(any())).thenReturn(Optional.empty())
+                .thenThrow(new MapRouletteException("down"));
+        final var firstRun = new ChallengeBatch(mockConnection, configuration, 12);
+        firstRun.setBatchSizer(new BatchSizer(2, 1L << 20, 0));
+        for (int index = 0; index < 5; index++)
+        {
+            firstRun.addTask(this.task("Task" + index));
+        }
+        Assertions.assertTrue(firstRun.getBatch().isEmpty());
+        Assertions.assertThrows(MapRouletteException.class, firstRun::flush);
+        firstRun.close();
+
+        // the first chunk was acknowledged, so only the last three tasks are uploaded again
+        final var secondConnection = mock(MapRouletteConnection.class);
+        final var secondRun = new ChallengeBatch(secondConnection, configuration, 12);
+        Assertions.assertEquals(3, secondRun.getSpool().getPendingCount());
+        secondRun.flush();
+        verify(secondConnection, times(1)).execute(any());
+        Assertions.assertEquals(3, secondRun.getLastFlushResult().getUploadedTasks());
+        Assertions.assertEquals(0, secondRun.getSpool().getPendingCount());
+        secondRun.close();
+    }
+
+    private Task task(final String name)
+    {
+        return Task.taskBuilder().parent(12).name(name).instruction("Instruction")
+                .addGeojson("{}").build();
+    }
+}
@@ -0,0 +1,132 @@
+package org.maproulette.client.connection;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.http.ResourceFactory;
+
+/**
+ * @author mcuthbert
+ */
+public class CircuitBreakerTest
+{
+    @AfterEach
+    public void clear()
+    {
+        MapRouletteConnection.clearHealthChecks();
+        CircuitBreaker.reset();
+        RateLimiter.reset();
+    }
+
+    @Test
+    public void cancelledTrialTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("breaker.example", 80, "test",
+                "test");
+        configuration.setMaxRetries(0);
+        configuration.setCircuitBreakerThreshold(1);
+        configuration.setCircuitBreakerOpenDuration(1L);
+        // a single request can be made before the next one has to wait for the rate limiter
+        configuration.setRateLimit(0.001);
+        configuration.setRateLimitBurst(1);
+        final var factory = mock(ResourceFactory.class);
+        final var success = mock(HttpResource.class);
+        when(success.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        final var failed = mock(HttpResource.class);
+        when(failed.getStatusCode()).thenThrow(new MapRouletteException(new IOException()));
+        when(factory.resource(any(), any(URI.class))).thenReturn(success, failed);
+        final var connection = new MapRouletteConnection(configuration, factory);
+        final var query = Query.builder().get("/test").build();
+        Assertions.assertThrows(RuntimeException.class, () -> connection.execute(query));
+        Thread.sleep(5);
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, connection.getCircuitState());
+
+        // the trial request is interrupted while waiting for the rate limiter
+        Thread.currentThread().interrupt();
+        Assertions.assertThrows(MapRouletteException.class, () -> connection.execute(query));
+        Assertions.assertTrue(Thread.interrupted());
+        Assertions.assertTrue(
+                CircuitBreaker.forServer("https://breaker.example:80", 1, 1L).allowRequest());
+    }
+
+    @Test
+    public void stateTest() throws InterruptedException
+    {
+        final var breaker = new CircuitBreaker("https://breaker.example", 2, 20L);
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.allowRequest());
+
+        // a single trial request is let through once the open duration has passed
+        Thread.sleep(30);
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.allowRequest());
+        Assertions.assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(30);
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // a trial request that is never made is given back
+        breaker.recordFailure();
+        breaker.recordFailure();
+        Thread.sleep(30);
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.cancelRequest();
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+
+        Assertions.assertSame(CircuitBreaker.forServer("https://breaker.example", 1, 1L),
+                CircuitBreaker.forServer("https://breaker.example", 1, 1L));
+        Assertions.assertNotSame(CircuitBreaker.forServer("https://breaker.example", 1, 1L),
+                CircuitBreaker.forServer("https://breaker.example", 2, 2L));
+    }
+
+    @Test
+    public void failFastTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("breaker.example", 80, "test",
+                "test");
+        configuration.setMaxRetries(0);
+        configuration.setCircuitBreakerThreshold(2);
+        configuration.setCircuitBreakerOpenDuration(60_000L);
+        final var factory = mock(ResourceFactory.class);
+        final var success = mock(HttpResource.class);
+        when(success.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        final var failed = mock(HttpResource.class);
+        when(failed.getStatusCode()).thenThrow(new MapRouletteException(new IOException()));
+        // the health check, then every request fails
+        when(factory.resource(any(), any(URI.class))).thenReturn(success, failed);
+        final var connection = new MapRouletteConnection(configuration, factory);
+        final var challengeAPI = new ChallengeAPI(connection);
+
+        for (int index = 0; index < 2; index++)
+        {
+            Assertions.assertThrows(RuntimeException.class, () -> challengeAPI.get(1));
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, challengeAPI.getCircuitState());
+        // requests now fail without reaching the server
+        final var exception = Assertions.assertThrows(MapRouletteException.class,
+                () -> connection.execute(Query.builder().get("/test").build()));
+        Assertions.assertTrue(exception.getMessage().contains("Circuit breaker is open"));
+        verify(factory, times(3)).resource(any(), any(URI.class));
+    }
+}
@@ -0,0 +1,74 @@
+package org.maproulette.client.connection;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.http.ResourceFactory;
+
+/**
+ * @author mcuthbert
+ */
+public class HealthCheckTest
+{
+    @AfterEach
+    public void clear()
+    {
+        MapRouletteConnection.clearHealthChecks();
+    }
+
+    @Test
+    public void cachedHealthCheckTest() throws MapRouletteException
+    {
+        final var configuration = new MapRouletteConfiguration("cached.example", 80, "test",
+                "test");
+        final var factory = this.factory(HttpStatus.SC_OK);
+        new MapRouletteConnection(configuration, factory);
+        new MapRouletteConnection(configuration, factory);
+        verify(factory, times(1)).resource(eq(HttpGet.METHOD_NAME), any(URI.class));
+
+        MapRouletteConnection.clearHealthChecks();
+        configuration.setHealthCheckTTL(0);
+        new MapRouletteConnection(configuration, factory);
+        new MapRouletteConnection(configuration, factory);
+        verify(factory, times(3)).resource(eq(HttpGet.METHOD_NAME), any(URI.class));
+    }
+
+    @Test
+    public void lazyHealthCheckTest() throws MapRouletteException
+    {
+        final var configuration = new MapRouletteConfiguration("lazy.example", 80, "test",
+                "test");
+        configuration.setLazyHealthCheck(true);
+        final var factory = this.factory(HttpStatus.SC_OK);
+        final var connection = new MapRouletteConnection(configuration, factory);
+        verify(factory, never()).resource(any(), any(URI.class));
+
+        connection.execute(Query.builder().get("/api/v2/project/1").build());
+        connection.execute(Query.builder().get("/api/v2/project/1").build());
+        // one ping and two requests
+        verify(factory, times(3)).resource(eq(HttpGet.METHOD_NAME), any(URI.class));
+    }
+
+    private ResourceFactory factory(final int statusCode) throws MapRouletteException
+    {
+        final var factory = mock(ResourceFactory.class);
+        final var resource = mock(HttpResource.class);
+        when(resource.getStatusCode()).thenReturn(statusCode);
+        when(resource.getResponseBodyAsString()).thenReturn("{}");
+        when(factory.resource(any(), any(URI.class))).thenReturn(resource);
+        return factory;
+    }
+}
@@ -0,0 +1,102 @@
+package org.maproulette.client.connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author mcuthbert
+ */
+public class LimiterTest
+{
+    private static final String ENDPOINT = "GET /api/v2/challenge/{id}";
+
+    @AfterEach
+    public void clear()
+    {
+        RateLimiter.reset();
+        ConcurrencyLimiter.reset();
+    }
+
+    @Test
+    public void rateLimiterTest() throws Exception
+    {
+        final var limiter = new RateLimiter(100, 5);
+        for (int index = 0; index < 5; index++)
+        {
+            Assertions.assertTrue(limiter.tryAcquire());
+        }
+        Assertions.assertFalse(limiter.tryAcquire());
+
+        // ten more permits at 100 per second take at least 90ms once the burst is used up
+        final var start = System.nanoTime();
+        for (int index = 0; index < 10; index++)
+        {
+            limiter.acquire();
+        }
+        Assertions.assertTrue(System.nanoTime() - start >= 80_000_000L);
+    }
+
+    @Test
+    public void sharedLimiterTest()
+    {
+        Assertions.assertSame(RateLimiter.forServer("https://rate.example", 10, 1),
+                RateLimiter.forServer("https://rate.example", 10, 1));
+        // a connection with other settings doesn't get the limits of the first connection
+        Assertions.assertNotSame(RateLimiter.forServer("https://rate.example", 10, 1),
+                RateLimiter.forServer("https://rate.example", 20, 2));
+        Assertions.assertSame(ConcurrencyLimiter.forServer("https://rate.example", 2, 4),
+                ConcurrencyLimiter.forServer("https://rate.example", 2, 4));
+        Assertions.assertNotSame(ConcurrencyLimiter.forServer("https://rate.example", 2, 4),
+                ConcurrencyLimiter.forServer("https://rate.example", 4, 8));
+
+        final var limiter = RateLimiter.forServer("https://rate.example", 10, 1);
+        RateLimiter.reset();
+        ConcurrencyLimiter.reset();
+        Assertions.assertNotSame(limiter, RateLimiter.forServer("https://rate.example", 10, 1));
+    }
+
+    @Test
+    public void concurrencyLimiterTest() throws Exception
+    {
+        final var limiter = new ConcurrencyLimiter(2, 4);
+        limiter.acquire();
+        limiter.acquire();
+        Assertions.assertEquals(2, limiter.getInFlight());
+        limiter.release(ENDPOINT, false, 10);
+        limiter.release(ENDPOINT, false, 10);
+        // additive increase of 1/limit per success, so 2 + 1/2 + 1/2.5
+        Assertions.assertEquals(2, limiter.getLimit());
+        limiter.acquire();
+        limiter.release(ENDPOINT, false, 10);
+        Assertions.assertEquals(3, limiter.getLimit());
+
+        for (int index = 0; index < 20; index++)
+        {
+            limiter.acquire();
+            limiter.release(ENDPOINT, false, 10);
+        }
+        Assertions.assertEquals(4, limiter.getLimit());
+
+        // multiplicative decrease on overload and on latency spikes
+        limiter.acquire();
+        limiter.release(ENDPOINT, true, 10);
+        Assertions.assertEquals(3, limiter.getLimit());
+        limiter.acquire();
+        limiter.release(ENDPOINT, false, 1000);
+        Assertions.assertEquals(3, limiter.getLimit());
+        // a slow endpoint isn't compared to the latency of the quick one
+        limiter.acquire();
+        limiter.release("POST /api/v2/challenge/{id}/addTasks", false, 5000);
+        limiter.acquire();
+        limiter.release("POST /api/v2/challenge/{id}/addTasks", false, 5000);
+        Assertions.assertEquals(3, limiter.getLimit());
+        for (int index = 0; index < 20; index++)
+        {
+            limiter.acquire();
+            limiter.release(ENDPOINT, true, 10);
+        }
+        Assertions.assertEquals(1, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -21,6 +21,8 @@ public class MapRouletteConfigurationTest
     private static final String CONFIG = "server:123:project:key";
     private static final String CONFIG2 = "https://server:123:project:key";
     private static final String BAD_CONFIG = "server:123:project";
+    private static final String OPTIONS_CONFIG = "https://server:123:project:key"
+            + "?connectTimeout=1000&socketTimeout=2000&requestTimeout=3000&connectionTTL=4000";
 
     @Test
     public void testBadParse()
@@ -39,6 +41,8 @@ public class MapRouletteConfigurationTest
         Assertions.assertEquals(PORT, configuration.getPort());
         Assertions.assertEquals(API_KEY, configuration.getApiKey());
         Assertions.assertEquals(PROJECT_NAME, configuration.getDefaultProjectName());
+        // a request on a half-open socket fails by default instead of blocking forever
+        Assertions.assertEquals(300_000, configuration.getSocketTimeout());
     }
 
     @Test
@@ -52,4 +56,22 @@ public class MapRouletteConfigurationTest
         Assertions.assertEquals(API_KEY, configuration.getApiKey());
         Assertions.assertEquals(PROJECT_NAME, configuration.getDefaultProjectName());
     }
+
+    @Test
+    public void testOptionsParse() throws MapRouletteException
+    {
+        final var configuration = MapRouletteConfiguration.parse(OPTIONS_CONFIG);
+        Assertions.assertEquals(API_KEY, configuration.getApiKey());
+        Assertions.assertEquals(1000, configuration.getConnectTimeout());
+        Assertions.assertEquals(2000, configuration.getSocketTimeout());
+        Assertions.assertEquals(3000L, configuration.getRequestTimeout());
+        Assertions.assertEquals(4000L, configuration.getConnectionTTL());
+        Assertions.assertEquals(MapRouletteConfiguration.DEFAULT_CONNECTION_REQUEST_TIMEOUT,
+                configuration.getConnectionRequestTimeout());
+
+        Assertions.assertThrows(MapRouletteException.class,
+                () -> MapRouletteConfiguration.parse(CONFIG + "?unknown=1"));
+        Assertions.assertThrows(MapRouletteException.class,
+                () -> MapRouletteConfiguration.parse(CONFIG + "?socketTimeout=abc"));
+    }
 }
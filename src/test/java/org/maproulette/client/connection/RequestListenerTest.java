@@ -0,0 +1,127 @@
+package org.maproulette.client.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.StubServer;
+import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.batch.ChallengeBatch;
+import org.maproulette.client.http.RequestPhase;
+import org.maproulette.client.http.RequestTimeline;
+import org.maproulette.client.model.Project;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class RequestListenerTest
+{
+    /**
+     * Keeps everything it is told about the requests
+     */
+    private static class RecordingListener implements IRequestListener
+    {
+        private final List<RequestPhase> phases = new ArrayList<>();
+        private final List<RequestTimeline> timelines = new ArrayList<>();
+
+        @Override
+        public void onComplete(final Query query, final RequestTimeline timeline,
+                final Exception failure)
+        {
+            this.timelines.add(timeline);
+        }
+
+        @Override
+        public void onPhase(final Query query, final RequestTimeline.Event event)
+        {
+            this.phases.add(event.getPhase());
+        }
+    }
+
+    @Test
+    public void listenerTest() throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            final var connection = new MapRouletteConnection(server.configuration());
+            final var listener = new RecordingListener();
+            connection.addRequestListener(listener);
+            final var project = new ProjectAPI(connection)
+                    .create(Project.builder().name("Listener").description("Listener").build());
+            Assertions.assertEquals(List.of(RequestPhase.ACQUIRE_CONNECTION,
+                    RequestPhase.SERIALIZE, RequestPhase.SEND, RequestPhase.FIRST_BYTE,
+                    RequestPhase.BODY_READ, RequestPhase.PARSE), listener.phases);
+            Assertions.assertEquals(1, listener.timelines.size());
+            final var timeline = listener.timelines.get(0);
+            Assertions.assertEquals(6, timeline.getEvents().size());
+            Assertions.assertTrue(timeline.getElapsed() >= timeline.getPhases().values().stream()
+                    .mapToLong(Long::longValue).sum());
+
+            // a request without a body has nothing to serialize
+            listener.phases.clear();
+            new ProjectAPI(connection).get(project.getId());
+            Assertions.assertEquals(List.of(RequestPhase.ACQUIRE_CONNECTION, RequestPhase.SEND,
+                    RequestPhase.FIRST_BYTE, RequestPhase.BODY_READ, RequestPhase.PARSE),
+                    listener.phases);
+
+            // the tasks of a batch are serialized while they are sent
+            listener.phases.clear();
+            final var batch = new ChallengeBatch(connection, server.configuration(),
+                    project.getId());
+            batch.addTask(Task.taskBuilder().name("Task").instruction("Listener")
+                    .addGeojson("{}").build());
+            batch.flush();
+            Assertions.assertEquals(RequestPhase.SERIALIZE, listener.phases.get(1));
+            Assertions.assertEquals(RequestPhase.SEND, listener.phases.get(2));
+
+            connection.removeRequestListener(listener);
+            new ProjectAPI(connection).get(project.getId());
+            Assertions.assertEquals(3, listener.timelines.size());
+        }
+    }
+
+    @Test
+    public void slowRequestTest() throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            server.setLatency(50);
+            final var configuration = server.configuration();
+            configuration.setSlowRequestThreshold(20);
+            final var connection = new MapRouletteConnection(configuration);
+            final var listener = new RecordingListener();
+            connection.addRequestListener(listener);
+            new ProjectAPI(connection).get(1);
+
+            final var logger = new SlowRequestLogger(20);
+            final var timeline = listener.timelines.get(0);
+            Assertions.assertTrue(logger.isSlow(timeline));
+            Assertions.assertFalse(new SlowRequestLogger(10_000).isSlow(timeline));
+            // the server's latency is spent waiting for the response
+            Assertions.assertTrue(timeline.getDuration(RequestPhase.FIRST_BYTE)
+                    >= TimeUnit.MILLISECONDS.toNanos(40));
+        }
+    }
+
+    @Test
+    public void timelineTest()
+    {
+        final var events = new ArrayList<RequestTimeline.Event>();
+        final var timeline = new RequestTimeline(events::add);
+        timeline.mark(RequestPhase.ACQUIRE_CONNECTION);
+        timeline.record(RequestPhase.SERIALIZE, 0);
+        timeline.mark(RequestPhase.SEND);
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertEquals(RequestPhase.SERIALIZE, events.get(1).getPhase());
+        Assertions.assertTrue(events.get(2).getTimestamp() >= timeline.getStartTime());
+        Assertions.assertTrue(timeline.toString().startsWith("serialize 0.0 ms, acquire"));
+
+        timeline.complete();
+        timeline.mark(RequestPhase.FIRST_BYTE);
+        Assertions.assertEquals(3, timeline.getEvents().size());
+        Assertions.assertEquals(0, timeline.getDuration(RequestPhase.FIRST_BYTE));
+    }
+}
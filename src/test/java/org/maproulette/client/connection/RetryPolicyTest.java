@@ -0,0 +1,117 @@
+package org.maproulette.client.connection;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.message.BasicHeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.http.HttpResource;
+import org.maproulette.client.http.ResourceFactory;
+
+/**
+ * @author mcuthbert
+ */
+public class RetryPolicyTest
+{
+    @AfterEach
+    public void clear()
+    {
+        MapRouletteConnection.clearHealthChecks();
+    }
+
+    @Test
+    public void policyTest()
+    {
+        final var policy = new ExponentialBackoffRetryPolicy(2, 100L, 1000L);
+        final var get = Query.builder().get("/test").build();
+        final var post = Query.builder().post("/test").build();
+        final var retryablePost = Query.builder().post("/test").idempotent(true).build();
+
+        Assertions.assertTrue(policy.isRetryable(get, 0, HttpStatus.SC_BAD_GATEWAY, null));
+        Assertions.assertFalse(policy.isRetryable(get, 2, HttpStatus.SC_BAD_GATEWAY, null));
+        Assertions.assertFalse(policy.isRetryable(get, 0, HttpStatus.SC_BAD_REQUEST, null));
+        Assertions.assertFalse(policy.isRetryable(post, 0, HttpStatus.SC_BAD_GATEWAY, null));
+        Assertions.assertTrue(
+                policy.isRetryable(post, 0, HttpStatus.SC_SERVICE_UNAVAILABLE, null));
+        Assertions.assertTrue(
+                policy.isRetryable(retryablePost, 0, HttpStatus.SC_BAD_GATEWAY, null));
+
+        final var timeout = new MapRouletteException(new SocketTimeoutException());
+        final var refused = new MapRouletteException(new ConnectException());
+        Assertions.assertTrue(policy.isRetryable(get, 0, -1, timeout));
+        Assertions.assertFalse(policy.isRetryable(post, 0, -1, timeout));
+        Assertions.assertTrue(policy.isRetryable(post, 0, -1, refused));
+        Assertions.assertFalse(policy.isRetryable(get, 0, -1, new MapRouletteException("")));
+
+        for (int attempt = 0; attempt < 10; attempt++)
+        {
+            final var delay = policy.getDelay(attempt, -1);
+            Assertions.assertTrue(delay >= 0 && delay <= Math.min(1000L, 100L << attempt));
+        }
+        Assertions.assertEquals(800L, policy.getDelay(0, 800L));
+        // a Retry-After longer than the maximum delay gives up on the retry
+        Assertions.assertEquals(-1L, policy.getDelay(0, 5000L));
+    }
+
+    @Test
+    public void retryTest() throws Exception
+    {
+        final var configuration = new MapRouletteConfiguration("retry.example", 80, "test",
+                "test");
+        configuration.setRetryBaseDelay(1L);
+        final var factory = mock(ResourceFactory.class);
+        final var success = this.resource(HttpStatus.SC_OK);
+        final var unavailable = this.resource(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        final var failed = mock(HttpResource.class);
+        when(failed.getStatusCode()).thenThrow(new MapRouletteException(new IOException()));
+        // the health check, then two failures before the request succeeds
+        when(factory.resource(any(), any(URI.class))).thenReturn(success, unavailable, failed,
+                success);
+        final var connection = new MapRouletteConnection(configuration, factory);
+
+        Assertions.assertEquals("{}",
+                connection.execute(Query.builder().get("/test").build()).orElseThrow());
+        verify(factory, times(4)).resource(any(), any(URI.class));
+
+        // a post is not retried after a gateway error
+        final var badGateway = this.resource(HttpStatus.SC_BAD_GATEWAY);
+        when(factory.resource(any(), any(URI.class))).thenReturn(badGateway, success);
+        Assertions.assertThrows(MapRouletteRuntimeException.class,
+                () -> connection.execute(Query.builder().post("/test").build()));
+        verify(factory, times(5)).resource(any(), any(URI.class));
+
+        // nor is a request the server asks to retry after a day
+        final var throttled = this.resource(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        when(throttled.getHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new Header[] {
+                new BasicHeader(HttpHeaders.RETRY_AFTER, "86400") });
+        when(factory.resource(any(), any(URI.class))).thenReturn(throttled, success);
+        Assertions.assertThrows(MapRouletteRuntimeException.class,
+                () -> connection.execute(Query.builder().get("/test").build()));
+        verify(factory, times(6)).resource(any(), any(URI.class));
+    }
+
+    private HttpResource resource(final int statusCode) throws MapRouletteException
+    {
+        final var resource = mock(HttpResource.class);
+        when(resource.getStatusCode()).thenReturn(statusCode);
+        when(resource.getResponseBodyAsString()).thenReturn("{}");
+        when(resource.getHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new Header[] {
+                new BasicHeader(HttpHeaders.RETRY_AFTER, "0") });
+        return resource;
+    }
+}
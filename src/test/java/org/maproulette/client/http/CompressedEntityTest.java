@@ -0,0 +1,78 @@
+package org.maproulette.client.http;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+
+/**
+ * @author mcuthbert
+ */
+public class CompressedEntityTest
+{
+    private static final String BODY = String.join(",", Collections.nCopies(200,
+            "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1.0,2.0]}}"));
+
+    @Test
+    public void compressionTest() throws IOException
+    {
+        final var gzip = new CompressedEntity(new StringEntity(BODY), Compression.GZIP);
+        Assertions.assertEquals("gzip", gzip.getContentEncoding().getValue());
+        Assertions.assertEquals(-1, gzip.getContentLength());
+        Assertions.assertTrue(gzip.getContent().readAllBytes().length * 5 < BODY.length());
+        Assertions.assertEquals(BODY, new String(
+                new GZIPInputStream(gzip.getContent()).readAllBytes(), StandardCharsets.UTF_8));
+
+        final var deflate = new CompressedEntity(new StringEntity(BODY), Compression.DEFLATE);
+        Assertions.assertEquals("deflate", deflate.getContentEncoding().getValue());
+        Assertions.assertEquals(BODY, new String(
+                new InflaterInputStream(deflate.getContent()).readAllBytes(),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void thresholdTest()
+    {
+        final var configuration = new MapRouletteConfiguration("localhost", 80, "test", "test");
+        configuration.setCompression(Compression.GZIP);
+        configuration.setCompressionThreshold(BODY.length());
+        try (var factory = new ResourceFactory(configuration))
+        {
+            final var small = (PostResource) factory.resource(HttpPost.METHOD_NAME,
+                    "http://localhost");
+            small.setStringBody("{}", ContentType.APPLICATION_JSON);
+            Assertions.assertNull(this.entity(small).getContentEncoding());
+
+            final var large = (PostResource) factory.resource(HttpPut.METHOD_NAME,
+                    "http://localhost");
+            large.setStringBody(BODY, ContentType.APPLICATION_JSON);
+            Assertions.assertEquals("gzip", this.entity(large).getContentEncoding().getValue());
+
+            // the size of a streamed body isn't known, so it is always compressed
+            final var streamed = (PostResource) factory.resource(HttpPost.METHOD_NAME,
+                    "http://localhost");
+            streamed.setEntity(new JsonEntity("{}"));
+            Assertions.assertTrue(this.entity(streamed) instanceof CompressedEntity);
+        }
+
+        final var uncompressed = new PostResource("http://localhost");
+        uncompressed.setStringBody(BODY, ContentType.APPLICATION_JSON);
+        Assertions.assertFalse(this.entity(uncompressed) instanceof CompressedEntity);
+    }
+
+    private HttpEntity entity(final PostResource resource)
+    {
+        return ((HttpEntityEnclosingRequestBase) resource.getRequest()).getEntity();
+    }
+}
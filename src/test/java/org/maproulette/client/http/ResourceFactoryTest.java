@@ -1,11 +1,17 @@
 package org.maproulette.client.http;
 
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.MapRouletteConfiguration;
+import org.maproulette.client.exception.MapRouletteException;
 import org.maproulette.client.exception.MapRouletteRuntimeException;
 
 /**
@@ -24,4 +30,93 @@ public class ResourceFactoryTest
                 .assertTrue(factory.resource(HttpDelete.METHOD_NAME, "") instanceof DeleteResource);
         Assertions.assertThrows(MapRouletteRuntimeException.class, () -> factory.resource("", ""));
     }
+
+    @Test
+    public void sharedClientTest()
+    {
+        final var configuration = new MapRouletteConfiguration("localhost", 80, "test", "test");
+        configuration.setMaxConnectionsPerRoute(2);
+        final var factory = new ResourceFactory(configuration);
+        final var getResource = factory.resource(HttpGet.METHOD_NAME, "http://localhost");
+        final var postResource = factory.resource(HttpPost.METHOD_NAME, "http://localhost");
+        Assertions.assertNotNull(getResource.getClient());
+        Assertions.assertSame(getResource.getClient(), postResource.getClient());
+
+        factory.close();
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> factory.resource(HttpGet.METHOD_NAME, "http://localhost"));
+        factory.close();
+    }
+
+    @Test
+    public void bodyTimeoutTest() throws Exception
+    {
+        // a server that sends the headers of the response but never the whole body
+        try (var server = new ServerSocket(0))
+        {
+            final var responder = new Thread(() ->
+            {
+                try (var socket = server.accept())
+                {
+                    socket.getOutputStream().write(
+                            "HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\nstart".getBytes());
+                    socket.getOutputStream().flush();
+                    Thread.sleep(10_000L);
+                }
+                catch (final IOException | InterruptedException e)
+                {
+                    // the client aborted the request
+                }
+            });
+            responder.setDaemon(true);
+            responder.start();
+            final var configuration = new MapRouletteConfiguration("localhost", 80, "test",
+                    "test");
+            configuration.setRequestTimeout(200);
+            try (var factory = new ResourceFactory(configuration);
+                    var resource = factory.resource(HttpGet.METHOD_NAME,
+                            "http://localhost:" + server.getLocalPort()))
+            {
+                Assertions.assertEquals(200, resource.getStatusCode());
+                final var start = System.currentTimeMillis();
+                final var exception = Assertions.assertThrows(MapRouletteException.class,
+                        resource::getResponseBodyAsString);
+                Assertions.assertTrue(exception.getCause() instanceof SocketTimeoutException);
+                Assertions.assertTrue(System.currentTimeMillis() - start < 5_000L);
+            }
+            responder.interrupt();
+        }
+    }
+
+    @Test
+    public void timeoutTest() throws IOException
+    {
+        // a server that accepts connections but never responds
+        try (var server = new ServerSocket(0))
+        {
+            final var uri = "http://localhost:" + server.getLocalPort();
+            final var configuration = new MapRouletteConfiguration("localhost", 80, "test",
+                    "test");
+            configuration.setSocketTimeout(100);
+            try (var factory = new ResourceFactory(configuration))
+            {
+                final var resource = factory.resource(HttpGet.METHOD_NAME, uri);
+                final var exception = Assertions.assertThrows(MapRouletteException.class,
+                        resource::getStatusCode);
+                Assertions.assertTrue(exception.getCause() instanceof SocketTimeoutException);
+            }
+
+            configuration.setSocketTimeout(0);
+            configuration.setRequestTimeout(100);
+            try (var factory = new ResourceFactory(configuration))
+            {
+                final var resource = factory.resource(HttpGet.METHOD_NAME, uri);
+                final var start = System.currentTimeMillis();
+                final var exception = Assertions.assertThrows(MapRouletteException.class,
+                        resource::getStatusCode);
+                Assertions.assertTrue(exception.getCause() instanceof SocketTimeoutException);
+                Assertions.assertTrue(System.currentTimeMillis() - start < 10_000L);
+            }
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package org.maproulette.client.http;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.connection.IMapRouletteConnection;
+import org.maproulette.client.connection.Query;
+import org.maproulette.client.exception.MapRouletteException;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class StreamingResponseTest
+{
+    private static final String TASKS = "[{\"id\":1,\"name\":\"Task1\",\"parent\":10},"
+            + "{\"id\":2,\"name\":\"Task2\",\"parent\":10}]";
+
+    @Test
+    public void streamTest() throws Exception
+    {
+        final var resource = this.resource(TASKS);
+        try (var stream = new StreamingResponse<>(resource, Task.class).stream())
+        {
+            final var tasks = stream.collect(Collectors.toList());
+            Assertions.assertEquals(2, tasks.size());
+            Assertions.assertEquals("Task1", tasks.get(0).getName());
+            Assertions.assertEquals(2, tasks.get(1).getId());
+        }
+        verify(resource, times(1)).close();
+        verify(resource, never()).abort();
+    }
+
+    @Test
+    public void executeOnlyTest() throws Exception
+    {
+        // a connection that can't leave responses open still streams the parsed response
+        final var connection = new IMapRouletteConnection()
+        {
+            @Override
+            public boolean isAbleToConnectToMapRoulette()
+            {
+                return true;
+            }
+
+            @Override
+            public Optional<String> execute(final Query query)
+            {
+                return Optional.of(TASKS);
+            }
+        };
+        try (var stream = connection.stream(Query.builder().get("/tasks").build(), Task.class))
+        {
+            Assertions.assertEquals(List.of("Task1", "Task2"),
+                    stream.map(Task::getName).collect(Collectors.toList()));
+        }
+        connection.close();
+    }
+
+    @Test
+    public void earlyCloseTest() throws Exception
+    {
+        final var resource = this.resource(TASKS);
+        try (var stream = new StreamingResponse<>(resource, Task.class).stream())
+        {
+            Assertions.assertEquals("Task1", stream.findFirst().orElseThrow().getName());
+        }
+        verify(resource, times(1)).abort();
+    }
+
+    @Test
+    public void emptyTest() throws Exception
+    {
+        final var resource = this.resource("");
+        final var response = new StreamingResponse<>(resource, Task.class);
+        Assertions.assertFalse(response.hasNext());
+        verify(resource, times(1)).close();
+        Assertions.assertThrows(MapRouletteException.class,
+                () -> new StreamingResponse<>(this.resource("{}"), Task.class));
+    }
+
+    private HttpResource resource(final String body) throws MapRouletteException
+    {
+        final var resource = mock(HttpResource.class);
+        when(resource.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return resource;
+    }
+}
@@ -0,0 +1,118 @@
+package org.maproulette.client.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.StubServer;
+import org.maproulette.client.api.ChallengeAPI;
+import org.maproulette.client.api.ProjectAPI;
+import org.maproulette.client.batch.ChallengeBatch;
+import org.maproulette.client.model.Challenge;
+import org.maproulette.client.model.Project;
+import org.maproulette.client.model.Task;
+
+/**
+ * @author mcuthbert
+ */
+public class MetricsTest
+{
+    @Test
+    public void endpointTest()
+    {
+        Assertions.assertEquals("/api/v2/challenge/{id}",
+                MetricNames.endpoint("/api/v2/challenge/1234"));
+        Assertions.assertEquals("/api/v2/challenge/{id}/task/{name}",
+                MetricNames.endpoint("/api/v2/challenge/12/task/Task1"));
+        Assertions.assertEquals("/api/v2/projectByName/{name}",
+                MetricNames.endpoint("/api/v2/projectByName/Some%20Project"));
+        Assertions.assertEquals("/api/v2/project/{id}/challenge/{name}",
+                MetricNames.endpoint("/api/v2/project/-3/challenge/Name"));
+        Assertions.assertEquals("/api/v2/tasks", MetricNames.endpoint("/api/v2/tasks?limit=10"));
+    }
+
+    @Test
+    public void registryTest()
+    {
+        final var registry = new InMemoryMetricsRegistry();
+        Assertions.assertTrue(registry.isEnabled());
+        Assertions.assertFalse(IMetricsRegistry.none().isEnabled());
+        registry.count("requests", 1, "method", "GET");
+        registry.count("requests", 2, "method", "GET");
+        registry.gauge("depth", 5);
+        registry.gauge("depth", 3);
+        for (int value = 1; value <= 100; value++)
+        {
+            registry.record("latency", value);
+        }
+        Assertions.assertEquals(3, registry.getCount("requests", "method", "GET"));
+        Assertions.assertEquals(0, registry.getCount("requests", "method", "PUT"));
+        Assertions.assertEquals(3, registry.getGauge("depth"));
+
+        final var histogram = registry.getHistogram("latency");
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(5050, histogram.getTotal());
+        Assertions.assertEquals(1, histogram.getMinimum());
+        Assertions.assertEquals(100, histogram.getMaximum());
+        Assertions.assertEquals(50.5, histogram.getMean(), 0.001);
+        // 50 falls in the bucket of 32 to 63
+        Assertions.assertEquals(63, histogram.getPercentile(0.5));
+        Assertions.assertEquals(100, histogram.getPercentile(0.99));
+        Assertions.assertEquals(0, registry.getHistogram("missing").getPercentile(0.5));
+
+        final var lines = registry.dump().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("depth 3", lines[0]);
+        Assertions.assertTrue(lines[1].startsWith("latency count=100"));
+        Assertions.assertEquals("requests{method=GET} 3", lines[2]);
+
+        registry.reset();
+        Assertions.assertEquals("", registry.dump());
+    }
+
+    @Test
+    public void requestAndBatchTest() throws Exception
+    {
+        try (var server = StubServer.start())
+        {
+            final var registry = new InMemoryMetricsRegistry();
+            final var configuration = server.configuration();
+            configuration.setMetricsRegistry(registry);
+            final var project = new ProjectAPI(configuration).create(
+                    Project.builder().name("Metrics").description("Metrics").build());
+            final var challenge = new ChallengeAPI(configuration).create(Challenge.builder()
+                    .parent(project.getId()).name("Metrics").instruction("Metrics").build());
+
+            final var batch = new ChallengeBatch(configuration, challenge.getId());
+            for (int index = 0; index < 3; index++)
+            {
+                batch.addTask(Task.taskBuilder().name("Task" + index).instruction("Metrics")
+                        .addGeojson("{}").build());
+            }
+            final var challengeTag = String.valueOf(challenge.getId());
+            Assertions.assertEquals(3, registry.getGauge(MetricNames.BATCH_QUEUE_DEPTH,
+                    MetricNames.TAG_CHALLENGE, challengeTag));
+            batch.flush();
+
+            Assertions.assertEquals(0, registry.getGauge(MetricNames.BATCH_QUEUE_DEPTH,
+                    MetricNames.TAG_CHALLENGE, challengeTag));
+            Assertions.assertEquals(3, registry.getCount(MetricNames.BATCH_UPLOADED_TASKS,
+                    MetricNames.TAG_CHALLENGE, challengeTag));
+            Assertions.assertEquals(1,
+                    registry.getHistogram(MetricNames.BATCH_FLUSH_DURATION,
+                            MetricNames.TAG_CHALLENGE, challengeTag, MetricNames.TAG_OUTCOME,
+                            MetricNames.OUTCOME_SUCCESS).getCount());
+            Assertions.assertEquals(1,
+                    registry.getCount(MetricNames.REQUESTS, MetricNames.TAG_METHOD, "POST",
+                            MetricNames.TAG_ENDPOINT, "/api/v2/tasks", MetricNames.TAG_OUTCOME,
+                            MetricNames.OUTCOME_SUCCESS));
+            Assertions.assertEquals(1, registry.getHistogram(MetricNames.REQUEST_LATENCY,
+                    MetricNames.TAG_METHOD, "POST", MetricNames.TAG_ENDPOINT, "/api/v2/tasks")
+                    .getCount());
+            Assertions.assertTrue(registry.getCount(MetricNames.BYTES_SENT, MetricNames.TAG_METHOD,
+                    "POST", MetricNames.TAG_ENDPOINT, "/api/v2/tasks") > 0);
+            Assertions.assertTrue(registry.getCount(MetricNames.BYTES_RECEIVED,
+                    MetricNames.TAG_METHOD, "POST", MetricNames.TAG_ENDPOINT, "/api/v2/project")
+                    > 0);
+            Assertions.assertTrue(registry.getGauge(MetricNames.POOL_MAX) > 0);
+        }
+    }
+}
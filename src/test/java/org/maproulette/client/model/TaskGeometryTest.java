@@ -0,0 +1,107 @@
+package org.maproulette.client.model;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.maproulette.client.exception.MapRouletteRuntimeException;
+import org.maproulette.client.utilities.ObjectMapperSingleton;
+
+/**
+ * @author mcuthbert
+ */
+public class TaskGeometryTest
+{
+    private static final String FEATURE = "{ \"type\": \"Feature\", \"geometry\": {\"type\": "
+            + "\"Point\", \"coordinates\": [1.5, 2]}, \"properties\": {\"name\": \"Feature\"} }";
+
+    @Test
+    public void canonicalFeatureTest() throws IOException
+    {
+        Assertions.assertEquals("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\","
+                + "\"coordinates\":[1.5,2]},\"properties\":{\"name\":\"Feature\"}}",
+                TaskGeometry.canonicalFeature(FEATURE));
+        Assertions.assertEquals("{}", TaskGeometry.canonicalFeature(" {} "));
+        Assertions.assertThrows(IOException.class, () -> TaskGeometry.canonicalFeature(""));
+        Assertions.assertThrows(IOException.class, () -> TaskGeometry.canonicalFeature("{} {}"));
+        Assertions.assertThrows(IOException.class,
+                () -> TaskGeometry.canonicalFeature("{\"type\":"));
+        Assertions.assertThrows(MapRouletteRuntimeException.class,
+                () -> Task.taskBuilder().addGeojson("{\"type\""));
+    }
+
+    @Test
+    public void serializationTest() throws Exception
+    {
+        final var mapper = ObjectMapperSingleton.getMapper();
+        final var points = List.of(new PointInformation(1.0, 2.0),
+                new PointInformation(-5.4, 8.75));
+        final var builder = Task.taskBuilder().name("Task").addPoints(points).addGeojson(FEATURE);
+        final var task = builder.build();
+        Assertions.assertEquals(2, task.getCompactGeometries().getPointCount());
+        Assertions.assertEquals(1, task.getCompactGeometries().getFeatureCount());
+
+        // the compact geometries are written as the tree of the same features would be
+        final var tree = mapper.createObjectNode();
+        tree.set("features", builder.generateTaskFeatures(new HashSet<>(points),
+                mapper.createArrayNode().add(mapper.readTree(FEATURE))));
+        Assertions.assertEquals(mapper.writeValueAsString(tree),
+                mapper.writeValueAsString(task.getCompactGeometries()));
+        final var json = mapper.writeValueAsString(task);
+        Assertions.assertTrue(json.contains("\"geometries\":" + mapper.writeValueAsString(tree)));
+        Assertions.assertFalse(json.contains("compactGeometries"));
+        Assertions.assertNotNull(task.getCompactGeometries());
+
+        final var deserialized = mapper.readValue(json, Task.class);
+        Assertions.assertNull(deserialized.getCompactGeometries());
+        Assertions.assertEquals(tree, deserialized.getGeometries());
+        Assertions.assertEquals(json, mapper.writeValueAsString(deserialized));
+    }
+
+    @Test
+    public void treeTest()
+    {
+        final var task = Task.taskBuilder().name("Task")
+                .addGeojson(List.of("{\"id\":1}", "{\"id\":2}")).build();
+        // turning the geometries into a tree drops the compact form, so changes are kept
+        final var geometries = task.getGeometries();
+        Assertions.assertNull(task.getCompactGeometries());
+        Assertions.assertEquals(2, geometries.get("features").get(1).get("id").asInt());
+        Assertions.assertSame(geometries, task.getGeometries());
+
+        final var rebuilt = task.toBuilder(true).addPoint(new PointInformation(1, 2)).build();
+        Assertions.assertEquals(1, rebuilt.getCompactGeometries().getPointCount());
+        Assertions.assertEquals(0, rebuilt.getCompactGeometries().getFeatureCount());
+        task.setCompactGeometries(rebuilt.getCompactGeometries());
+        Assertions.assertNotNull(task.getCompactGeometries());
+        task.setGeometries(geometries);
+        Assertions.assertNull(task.getCompactGeometries());
+    }
+
+    @Test
+    public void concurrentTreeTest() throws Exception
+    {
+        final var mapper = ObjectMapperSingleton.getMapper();
+        final var executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            for (int index = 0; index < 100; index++)
+            {
+                final var task = Task.taskBuilder().name("Task").addGeojson(FEATURE).build();
+                final var expected = mapper.writeValueAsString(task);
+                // serializing a task while its geometries turn into a tree always writes them
+                final var serialized = executor.submit(() -> mapper.writeValueAsString(task));
+                final var tree = executor.submit(task::getGeometries);
+                Assertions.assertEquals(expected, serialized.get());
+                Assertions.assertNotNull(tree.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}